@@ -0,0 +1,58 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import java.util.Map;
+
+import io.opentracing.SpanContext;
+
+/**
+ * Weak identity map of messages (i.e. consumed records) to the
+ * {@link SpanContext} that is to be continued by the consumer of the message.
+ * The map is shared by the integration rules of a messaging client and of the
+ * frameworks built upon it, so that the {@link SpanContext} of a message is
+ * extracted from its headers only once.
+ */
+public final class MessageSpanContext {
+  private static final Map<Object,SpanContext> messageToSpanContext = new ConcurrentWeakIdentityHashMap<>();
+
+  /**
+   * Associates the specified {@link SpanContext} to the specified message.
+   *
+   * @param message The message.
+   * @param spanContext The {@link SpanContext} to be continued by the consumer
+   *          of the message.
+   */
+  public static void put(final Object message, final SpanContext spanContext) {
+    messageToSpanContext.put(message, spanContext);
+  }
+
+  /**
+   * Removes and returns the {@link SpanContext} associated to the specified
+   * message, or {@code null} if there is none, in which case the caller is
+   * expected to extract it from the headers of the message.
+   *
+   * @param message The message.
+   * @return The {@link SpanContext} associated to the specified message, or
+   *         {@code null} if there is none.
+   */
+  public static SpanContext remove(final Object message) {
+    return messageToSpanContext.remove(message);
+  }
+
+  private MessageSpanContext() {
+  }
+}
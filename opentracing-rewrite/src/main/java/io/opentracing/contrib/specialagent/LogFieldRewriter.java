@@ -33,21 +33,19 @@ class LogFieldRewriter extends Rewriter {
   }
 
   void processLog(final long timestampMicroseconds, final Map<String,?> fields) {
-    if (rules == null)
+    if (table == null)
       return;
 
     for (final Map.Entry<String,?> entry : fields.entrySet()) {
-      final String key = entry.getKey();
+      final RewriteTable.Dispatch dispatch = table.get(Action.Log.class, entry.getKey());
+      if (dispatch == null)
+        continue;
+
       final Object value = entry.getValue();
-      for (final RewriteRule rule : rules.getRules(key)) {
-        if (rule.input.getClass() != Action.Log.class)
-          continue;
-
-        final Object match = rule.matchValue(value);
-        if (match != null) {
-          rewriteLog(timestampMicroseconds, fields, rule, match, value);
-          return;
-        }
+      final RewriteTable.Match match = dispatch.match(value);
+      if (match != null) {
+        rewriteLog(timestampMicroseconds, fields, match.rule, match.match, value);
+        return;
       }
     }
 
@@ -24,12 +24,10 @@ import io.opentracing.tag.Tag;
 
 public class RewritableSpan extends Rewriter implements Span {
   final Span target;
-  private final RewriteRules rules;
 
   RewritableSpan(final Span target, final RewriteRules rules) {
     super(rules);
     this.target = target;
-    this.rules = rules;
   }
 
   @Override
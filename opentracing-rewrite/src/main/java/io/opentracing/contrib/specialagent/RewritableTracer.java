@@ -15,8 +15,10 @@
 
 package io.opentracing.contrib.specialagent;
 
-import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.grack.nanojson.JsonArray;
 
 import io.opentracing.Scope;
 import io.opentracing.ScopeManager;
@@ -26,26 +28,30 @@ import io.opentracing.Tracer;
 import io.opentracing.propagation.Format;
 
 public class RewritableTracer implements Tracer {
+  private static final RewriteRules NO_RULES = RewriteRules.parseRules(new JsonArray(), "");
+
   final Tracer target;
   final List<RewriteRules> rulesManifest;
+  private final ConcurrentHashMap<String,RewriteRules> nameToRules = new ConcurrentHashMap<>();
 
   public RewritableTracer(final Tracer target, final List<RewriteRules> rulesManifest) {
     this.target = target;
     this.rulesManifest = rulesManifest;
+    // Compile the rules at load time, so that the first span does not pay for it
+    for (final RewriteRules rules : rulesManifest)
+      rules.getTable();
   }
 
-  private static final HashMap<String,RewriteRules> nameToRules = new HashMap<>();
-
   private RewriteRules getRulesForCurrentPlugin() {
     String currentPluginName = AgentRule.getCurrentPluginName();
     if (currentPluginName == null)
       currentPluginName = "";
 
-    if (nameToRules.containsKey(currentPluginName))
-      return nameToRules.get(currentPluginName);
+    RewriteRules matchingRules = nameToRules.get(currentPluginName);
+    if (matchingRules != null)
+      return matchingRules == NO_RULES ? null : matchingRules;
 
     boolean cloned = false;
-    RewriteRules matchingRules = null;
     for (final RewriteRules rules : rulesManifest) {
       if (rules.namePattern.matcher(currentPluginName).matches()) {
         if (matchingRules == null) {
@@ -62,8 +68,15 @@ public class RewritableTracer implements Tracer {
       }
     }
 
-    nameToRules.put(currentPluginName, matchingRules);
-    return matchingRules;
+    if (matchingRules == null) {
+      nameToRules.putIfAbsent(currentPluginName, NO_RULES);
+      return null;
+    }
+
+    // Compile the merged rules before they are published to other threads
+    matchingRules.getTable();
+    final RewriteRules existing = nameToRules.putIfAbsent(currentPluginName, matchingRules);
+    return existing != null ? existing : matchingRules;
   }
 
   @Override
@@ -71,15 +84,18 @@ public class RewritableTracer implements Tracer {
     return target.scopeManager();
   }
 
-  private RewritableSpan activeSpan;
+  private volatile RewritableSpan activeSpan;
 
   @Override
   public Span activeSpan() {
     final Span activeSpan = target.activeSpan();
-    if (this.activeSpan != null && this.activeSpan.target == activeSpan)
-      return this.activeSpan;
-
     final RewriteRules rules = getRulesForCurrentPlugin();
+    // The last RewritableSpan is shared by threads, so it is read once, and is
+    // only reused if it wraps the same span with the same rules
+    final RewritableSpan span = this.activeSpan;
+    if (span != null && span.target == activeSpan && span.rules == rules)
+      return span;
+
     return this.activeSpan = new RewritableSpan(activeSpan, rules);
   }
 
@@ -88,15 +104,16 @@ public class RewritableTracer implements Tracer {
     return target.activateSpan(span);
   }
 
-  private RewritableSpanBuilder spanBuilder;
+  private volatile RewritableSpanBuilder spanBuilder;
 
   @Override
   public SpanBuilder buildSpan(final String operationName) {
     final SpanBuilder spanBuilder = target.buildSpan(operationName);
-    if (this.spanBuilder != null && this.spanBuilder.target == spanBuilder)
-      return this.spanBuilder;
-
     final RewriteRules rules = getRulesForCurrentPlugin();
+    final RewritableSpanBuilder rewritableSpanBuilder = this.spanBuilder;
+    if (rewritableSpanBuilder != null && rewritableSpanBuilder.target == spanBuilder && rewritableSpanBuilder.rules == rules)
+      return rewritableSpanBuilder;
+
     return this.spanBuilder = new RewritableSpanBuilder(operationName, spanBuilder, rules);
   }
 
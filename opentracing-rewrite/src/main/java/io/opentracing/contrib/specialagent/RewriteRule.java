@@ -17,7 +17,6 @@ package io.opentracing.contrib.specialagent;
 
 import java.util.Objects;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import com.grack.nanojson.JsonArray;
 import com.grack.nanojson.JsonObject;
@@ -62,13 +61,6 @@ class RewriteRule {
     return rule;
   }
 
-  private static boolean matchesSimpleValue(final Object predicate, final Object value) {
-    if (predicate instanceof Number && value instanceof Number)
-      return ((Number)predicate).doubleValue() == ((Number)value).doubleValue();
-
-    return predicate.equals(value);
-  }
-
   static final Boolean SIMPLE = Boolean.TRUE;
 
   final Action input;
@@ -89,17 +81,6 @@ class RewriteRule {
     }
   }
 
-  final Object matchValue(final Object input) {
-    if (this.input.getValue() == null)
-      return SIMPLE;
-
-    if (!(this.input.getValue() instanceof Pattern))
-      return matchesSimpleValue(this.input.getValue(), input) ? SIMPLE : null;
-
-    final Matcher matcher = ((Pattern)this.input.getValue()).matcher(input.toString());
-    return matcher.matches() ? matcher : null;
-  }
-
   Object rewriteValue(final Object matcher, final Object input, final Object output) {
     return output == null ? input : matcher == SIMPLE ? output : ((Matcher)matcher).replaceAll(output.toString());
   }
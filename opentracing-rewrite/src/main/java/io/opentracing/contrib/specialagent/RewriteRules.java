@@ -65,6 +65,7 @@ public final class RewriteRules implements Cloneable {
 
   final HashMap<String,List<RewriteRule>> keyToRules = new HashMap<>();
   final Pattern namePattern;
+  private volatile RewriteTable table;
 
   private RewriteRules(final Pattern namePattern) {
     this.namePattern = namePattern;
@@ -81,6 +82,7 @@ public final class RewriteRules implements Cloneable {
       keyToRules.put(rule.input.getKey(), list = new ArrayList<>());
 
     list.add(rule);
+    table = null;
   }
 
   void addAll(final RewriteRules rules) {
@@ -89,9 +91,19 @@ public final class RewriteRules implements Cloneable {
         add(rule);
   }
 
-  List<RewriteRule> getRules(final String key) {
-    final List<RewriteRule> inputs = keyToRules.get(key);
-    return inputs != null ? inputs : Collections.<RewriteRule>emptyList();
+  /**
+   * Returns the {@link RewriteTable} compiled from the rules, which is
+   * compiled upon the first invocation of this method (or the first invocation
+   * after a rule is added).
+   *
+   * @return The {@link RewriteTable} compiled from the rules.
+   */
+  RewriteTable getTable() {
+    RewriteTable table = this.table;
+    if (table == null)
+      this.table = table = new RewriteTable(this);
+
+    return table;
   }
 
   @Override
@@ -0,0 +1,232 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable dispatch table of {@link RewriteRules}, keyed by the type and
+ * key of the input {@link Action}. For each (type, key), the rules are
+ * compiled into hash lookups for literal values (including regular
+ * expressions without metacharacters, which can only match their own text),
+ * and an ordered array of the remaining regular expressions, which are only
+ * evaluated if they precede the first literal (or match-all) rule that
+ * matches. The first matching rule in the order of the {@link RewriteRules}
+ * always wins, as with a linear scan.
+ *
+ * @author Seva Safris
+ */
+final class RewriteTable {
+  /**
+   * The result of a successful match: the matched {@link RewriteRule}, and the
+   * match object to be passed to
+   * {@link RewriteRule#rewrite(Rewriter,long,Object,Object)}.
+   */
+  static final class Match {
+    final RewriteRule rule;
+    final Object match;
+
+    private Match(final RewriteRule rule, final Object match) {
+      this.rule = rule;
+      this.match = match;
+    }
+  }
+
+  /**
+   * The compiled rules for a single (type, key).
+   */
+  static final class Dispatch {
+    private static Object normalize(final Object value) {
+      if (!(value instanceof Number))
+        return value;
+
+      // Numbers are matched by their double value, with 0.0 == -0.0
+      final double number = ((Number)value).doubleValue();
+      return number == 0 ? 0d : number;
+    }
+
+    private static boolean isLiteral(final Pattern pattern) {
+      if (pattern.flags() != 0)
+        return false;
+
+      final String regex = pattern.pattern();
+      for (int i = 0; i < regex.length(); ++i)
+        if ("\\^$.|?*+()[]{}".indexOf(regex.charAt(i)) != -1)
+          return false;
+
+      return true;
+    }
+
+    private final RewriteRule[] rules;
+    private final Match[] simpleMatches;
+    private final HashMap<Object,Integer> literalToIndex;
+    private final HashMap<String,Integer> stringToIndex;
+    private final int[] patternIndexes;
+    private final int anyIndex;
+
+    private Dispatch(final List<RewriteRule> list) {
+      this.rules = list.toArray(new RewriteRule[list.size()]);
+      this.simpleMatches = new Match[rules.length];
+      final HashMap<Object,Integer> literalToIndex = new HashMap<>();
+      final HashMap<String,Integer> stringToIndex = new HashMap<>();
+      final int[] patternIndexes = new int[rules.length];
+      int patterns = 0;
+      int anyIndex = Integer.MAX_VALUE;
+      for (int i = 0; i < rules.length; ++i) {
+        final Object value = rules[i].input.getValue();
+        if (value instanceof Pattern) {
+          final Pattern pattern = (Pattern)value;
+          if (!isLiteral(pattern))
+            patternIndexes[patterns++] = i;
+          else if (!stringToIndex.containsKey(pattern.pattern()))
+            stringToIndex.put(pattern.pattern(), i);
+
+          continue;
+        }
+
+        simpleMatches[i] = new Match(rules[i], RewriteRule.SIMPLE);
+        if (value == null) {
+          if (anyIndex == Integer.MAX_VALUE)
+            anyIndex = i;
+        }
+        else {
+          // NaN is excluded, because Double.equals(NaN) is true but NaN == NaN is not
+          final Object literal = normalize(value);
+          if (!(literal instanceof Double && ((Double)literal).isNaN()) && !literalToIndex.containsKey(literal))
+            literalToIndex.put(literal, i);
+        }
+      }
+
+      this.literalToIndex = literalToIndex.size() > 0 ? literalToIndex : null;
+      this.stringToIndex = stringToIndex.size() > 0 ? stringToIndex : null;
+      this.patternIndexes = new int[patterns];
+      System.arraycopy(patternIndexes, 0, this.patternIndexes, 0, patterns);
+      this.anyIndex = anyIndex;
+    }
+
+    /**
+     * Returns the {@link Match} of the first rule that matches the specified
+     * value, or {@code null} if no rule matches.
+     *
+     * @param value The value to match.
+     * @return The {@link Match} of the first rule that matches the specified
+     *         value, or {@code null} if no rule matches.
+     */
+    Match match(final Object value) {
+      int index = anyIndex;
+      if (value == null)
+        return index == Integer.MAX_VALUE ? null : simpleMatches[index];
+
+      if (literalToIndex != null) {
+        final Integer literalIndex = literalToIndex.get(normalize(value));
+        if (literalIndex != null && literalIndex < index)
+          index = literalIndex;
+      }
+
+      String string = null;
+      if (stringToIndex != null) {
+        final Integer stringIndex = stringToIndex.get(string = value.toString());
+        if (stringIndex != null && stringIndex < index)
+          index = stringIndex;
+      }
+
+      // Regular expressions are only evaluated if they precede the match
+      for (final int patternIndex : patternIndexes) {
+        if (patternIndex > index)
+          break;
+
+        if (string == null)
+          string = value.toString();
+
+        final RewriteRule rule = rules[patternIndex];
+        final Matcher matcher = ((Pattern)rule.input.getValue()).matcher(string);
+        if (matcher.matches())
+          return new Match(rule, matcher);
+      }
+
+      if (index == Integer.MAX_VALUE)
+        return null;
+
+      if (simpleMatches[index] != null)
+        return simpleMatches[index];
+
+      // A literal regular expression, for which the matcher provides group 0
+      final Matcher matcher = ((Pattern)rules[index].input.getValue()).matcher(string);
+      matcher.matches();
+      return new Match(rules[index], matcher);
+    }
+  }
+
+  private final HashMap<String,Dispatch> tagKeyToDispatch = new HashMap<>();
+  private final HashMap<String,Dispatch> logKeyToDispatch = new HashMap<>();
+  private final Dispatch operationNameDispatch;
+
+  RewriteTable(final RewriteRules rules) {
+    final LinkedHashMap<String,List<RewriteRule>> tagKeyToRules = new LinkedHashMap<>();
+    final LinkedHashMap<String,List<RewriteRule>> logKeyToRules = new LinkedHashMap<>();
+    final ArrayList<RewriteRule> operationNameRules = new ArrayList<>();
+    for (final Map.Entry<String,List<RewriteRule>> entry : rules.keyToRules.entrySet()) {
+      for (final RewriteRule rule : entry.getValue()) {
+        final Class<? extends Action> type = rule.input.getClass();
+        if (type == Action.OperationName.class)
+          operationNameRules.add(rule);
+        else
+          add(type == Action.Tag.class ? tagKeyToRules : logKeyToRules, entry.getKey(), rule);
+      }
+    }
+
+    for (final Map.Entry<String,List<RewriteRule>> entry : tagKeyToRules.entrySet())
+      tagKeyToDispatch.put(entry.getKey(), new Dispatch(entry.getValue()));
+
+    for (final Map.Entry<String,List<RewriteRule>> entry : logKeyToRules.entrySet())
+      logKeyToDispatch.put(entry.getKey(), new Dispatch(entry.getValue()));
+
+    this.operationNameDispatch = operationNameRules.size() == 0 ? null : new Dispatch(operationNameRules);
+  }
+
+  private static void add(final Map<String,List<RewriteRule>> keyToRules, final String key, final RewriteRule rule) {
+    List<RewriteRule> list = keyToRules.get(key);
+    if (list == null)
+      keyToRules.put(key, list = new ArrayList<>());
+
+    list.add(rule);
+  }
+
+  /**
+   * Returns the {@link Dispatch} for the specified type and key, or
+   * {@code null} if there are no rules for the type and key.
+   *
+   * @param type The type of the input {@link Action}.
+   * @param key The key of the input {@link Action}.
+   * @return The {@link Dispatch} for the specified type and key, or
+   *         {@code null} if there are no rules for the type and key.
+   */
+  Dispatch get(final Class<? extends Action> type, final String key) {
+    if (type == Action.Tag.class)
+      return tagKeyToDispatch.get(key);
+
+    if (type == Action.Log.class)
+      return logKeyToDispatch.get(key);
+
+    return operationNameDispatch;
+  }
+}
@@ -17,9 +17,11 @@ package io.opentracing.contrib.specialagent;
 
 abstract class Rewriter {
   final RewriteRules rules;
+  final RewriteTable table;
 
   Rewriter(final RewriteRules rules) {
     this.rules = rules;
+    this.table = rules == null ? null : rules.getTable();
   }
 
   abstract void rewriteTag(String key, Object value);
@@ -42,20 +44,18 @@ abstract class Rewriter {
   }
 
   private boolean onEvent(final Class<? extends Action> type, final long timestampMicroseconds, final String key, final Object value) {
-    if (rules == null)
+    if (table == null)
       return false;
 
-    for (final RewriteRule rule : rules.getRules(key)) {
-      if (rule.input.getClass() != type)
-        continue;
+    final RewriteTable.Dispatch dispatch = table.get(type, key);
+    if (dispatch == null)
+      return false;
 
-      final Object match = rule.matchValue(value);
-      if (match != null) {
-        rule.rewrite(this, timestampMicroseconds, match, value);
-        return true;
-      }
-    }
+    final RewriteTable.Match match = dispatch.match(value);
+    if (match == null)
+      return false;
 
-    return false;
+    match.rule.rewrite(this, timestampMicroseconds, match.match, value);
+    return true;
   }
 }
\ No newline at end of file
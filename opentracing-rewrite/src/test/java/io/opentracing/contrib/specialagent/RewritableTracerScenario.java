@@ -148,6 +148,14 @@ public enum RewritableTracerScenario {
       tracer.buildSpan("operation").withTag("key", 1d).start().finish();
     }
   },
+  TAG_NAN("tagNaN") {
+    @Override
+    void play(final Tracer tracer) {
+      tracer.buildSpan("operation").withTag("key", Double.NaN).start().finish();
+      tracer.buildSpan("operation").withTag("key", Float.NaN).start().finish();
+      tracer.buildSpan("operation").withTag("key", 1d).start().finish();
+    }
+  },
   TAG_TYPES("tagTypes") {
     @Override
     void play(final Tracer tracer) {
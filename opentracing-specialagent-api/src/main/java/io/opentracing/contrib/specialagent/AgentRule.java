@@ -20,6 +20,7 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.instrument.Instrumentation;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.bytebuddy.agent.builder.AgentBuilder;
 import net.bytebuddy.asm.Advice;
@@ -36,14 +37,14 @@ public abstract class AgentRule {
 
     /**
      * Load the {@link AgentRule} class and initialize
-     * {@link AgentRule#isThreadInstrumentable}.
+     * {@link AgentRule#threadState}.
      * <p>
      * <b>Note:</b> This method must be called before tracer classes are loaded,
      * in order to capture lineage of threads started by the tracer.
      */
     static void load() {
       // "main" thread is instrumentable
-      isThreadInstrumentable.set(Boolean.TRUE);
+      threadState.set(new ThreadState(true));
     }
 
     /**
@@ -57,6 +58,31 @@ public abstract class AgentRule {
     static void configure(final Runnable initializer, final Map<String,String> classNameToName) {
       $Access.initializer = initializer;
       AgentRule.classNameToName = classNameToName;
+      nameToVerbose.clear();
+    }
+
+    /**
+     * Resolves whether the plugin with the specified name is verbose from the
+     * {@code sa.integration.*.verbose} and
+     * {@code sa.integration.${name}.verbose} system properties, and caches the
+     * result for {@link AgentRule#isVerbose(String)}.
+     *
+     * @param pluginName The name of the plugin.
+     * @return Whether the plugin with the specified name is verbose.
+     */
+    static boolean resolveVerbose(final String pluginName) {
+      final boolean verbose = isAllVerbose() || AssembleUtil.isSystemProperty("sa.integration." + pluginName + ".verbose", "sa.instrumentation.plugin." + pluginName + ".verbose");
+      nameToVerbose.put(pluginName, verbose);
+      return verbose;
+    }
+
+    /**
+     * Clears the verbose state resolved by {@link #resolveVerbose(String)}, so
+     * that changes to the {@code sa.integration.*.verbose} system properties
+     * are observed by subsequent calls to {@link AgentRule#isVerbose(String)}.
+     */
+    static void refreshVerbose() {
+      nameToVerbose.clear();
     }
 
     /**
@@ -82,10 +108,11 @@ public abstract class AgentRule {
     }
 
     /**
-     * @return The {@link ThreadLocalCounter} instance from {@link AgentRule}.
+     * @return The {@link ThreadState} {@code ThreadLocal} from
+     *         {@link AgentRule}.
      */
-    static ThreadLocalCounter entryCounter() {
-      return entryCounter;
+    static ThreadLocal<ThreadState> threadState() {
+      return threadState;
     }
 
     /**
@@ -104,51 +131,51 @@ public abstract class AgentRule {
 
   private static boolean initialized;
 
-  private static final InheritableThreadLocal<Boolean> isThreadInstrumentable = new InheritableThreadLocal<Boolean>() {
+  private static final InheritableThreadLocal<ThreadState> threadState = new InheritableThreadLocal<ThreadState>() {
     @Override
-    protected Boolean childValue(Boolean parentValue) {
+    protected ThreadState childValue(final ThreadState parentValue) {
+      // The parent's tracer depth and agent rule are not inherited
       if (parentValue == null) {
         logger.warning("Unknown instrumentable state for parent of thread: " + Thread.currentThread().getName());
-        parentValue = Boolean.TRUE;
+        return new ThreadState(true);
       }
 
-      if (!parentValue || Adapter.tracerClassLoader == null)
-        return parentValue;
+      if (!parentValue.instrumentable || Adapter.tracerClassLoader == null)
+        return new ThreadState(parentValue.instrumentable);
 
-      return !AgentRuleUtil.isFromClassLoader(AgentRuleUtil.getExecutionStack(), Adapter.tracerClassLoader);
+      return new ThreadState(!StackInspector.isFromClassLoader(Adapter.tracerClassLoader));
     }
 
     @Override
-    public Boolean get() {
-      Boolean state = super.get();
-      if (state == null) {
-        logger.warning("Unknown instrumentable state for thread: " + Thread.currentThread().getName());
-        set(state = Boolean.TRUE);
-      }
-
-      return state;
+    protected ThreadState initialValue() {
+      logger.warning("Unknown instrumentable state for thread: " + Thread.currentThread().getName());
+      return new ThreadState(true);
     }
   };
 
   private static final Logger logger = Logger.getLogger(AgentRule.class);
-  private static final ThreadLocalCounter entryCounter = new ThreadLocalCounter();
-  private static final ThreadLocal<String> currentAgentRuleClass = new ThreadLocal<>();
   private static Map<String,String> classNameToName;
+  private static final ConcurrentHashMap<String,Boolean> nameToVerbose = new ConcurrentHashMap<>();
 
   public static String getCurrentPluginName() {
-    return classNameToName.get(currentAgentRuleClass.get());
+    return classNameToName.get(threadState.get().agentRuleClassName);
   }
 
-  public static boolean isVerbose(final String className) {
-    final boolean integrationsVerbose = AssembleUtil.isSystemProperty("sa.integration.*.verbose", "sa.instrumentation.plugin.*.verbose");
-    if (integrationsVerbose)
-      return integrationsVerbose;
+  private static boolean isAllVerbose() {
+    return AssembleUtil.isSystemProperty("sa.integration.*.verbose", "sa.instrumentation.plugin.*.verbose");
+  }
 
+  public static boolean isVerbose(final String className) {
     final String integrationName = classNameToName.get(className);
-    if (integrationName == null)
+    if (integrationName == null) {
+      if (isAllVerbose())
+        return true;
+
       throw new IllegalStateException("Plugin name must not be null");
+    }
 
-    return AssembleUtil.isSystemProperty("sa.integration." + integrationName + ".verbose", "sa.instrumentation.plugin." + integrationName + ".verbose");
+    final Boolean verbose = nameToVerbose.get(integrationName);
+    return verbose != null ? verbose : $Access.resolveVerbose(integrationName);
   }
 
   private final String className = getClass().getName();
@@ -169,12 +196,13 @@ public abstract class AgentRule {
   }
 
   public static boolean isAllowed(final String className, final String origin) {
-    final boolean allowed = initialized && entryCounter.get() == 0 && isThreadInstrumentable.get();
+    final ThreadState state = initialized ? threadState.get() : null;
+    final boolean allowed = state != null && state.instrumentable && !state.isInTracer();
     if (allowed) {
       if (logger.isLoggable(Level.FINER))
         logger.finer("-------> Intercept [" + className.substring(className.lastIndexOf('.') + 1) + "@" + Thread.currentThread().getName() + "]: " + origin);
 
-      currentAgentRuleClass.set(className);
+      state.agentRuleClassName = className;
     }
     else if (logger.isLoggable(Level.FINEST)) {
       logger.finest("-------> Intercept [" + className.substring(className.lastIndexOf('.') + 1) + "@" + Thread.currentThread().getName() + "] DROP: " + origin);
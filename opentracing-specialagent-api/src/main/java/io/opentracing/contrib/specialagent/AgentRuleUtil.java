@@ -144,16 +144,10 @@ public final class AgentRuleUtil {
    * @return {@code true} if the name of the method at the specified
    *         {@code frameIndex} in the call stack matches the provided
    *         {@code name}; otherwise {@code false}.
+   * @see StackInspector
    */
-  public static boolean callerEquals(int frameIndex, final String name) {
-    frameIndex += 2;
-    final StackTraceElement[] stackTraceElements = Thread.currentThread().getStackTrace();
-    if (stackTraceElements.length <= frameIndex)
-      return false;
-
-    final StackTraceElement stackTraceElement = stackTraceElements[frameIndex];
-    final String element = stackTraceElement.getClassName() + "." + stackTraceElement.getMethodName();
-    return element.equals(name);
+  public static boolean callerEquals(final int frameIndex, final String name) {
+    return StackInspector.callerEquals0(frameIndex, frameIndex + 1, new String[] {name});
   }
 
   /**
@@ -166,26 +160,10 @@ public final class AgentRuleUtil {
    * @return {@code true} if the name of the method at the specified
    *         {@code frameIndex} in the call stack matches the provided
    *         {@code name}; otherwise {@code false}.
+   * @see StackInspector
    */
-  public static boolean callerEquals(int startFrame, int endFrame, final String name) {
-    startFrame += 2;
-    endFrame += 2;
-
-    final StackTraceElement[] stackTraceElements = Thread.currentThread().getStackTrace();
-    if (stackTraceElements.length <= startFrame)
-      return false;
-
-    if (stackTraceElements.length < endFrame)
-      endFrame = stackTraceElements.length;
-
-    for (int i = startFrame; i < endFrame; ++i) {
-      final StackTraceElement stackTraceElement = stackTraceElements[i];
-      final String element = stackTraceElement.getClassName() + "." + stackTraceElement.getMethodName();
-      if (element.equals(name))
-        return true;
-    }
-
-    return false;
+  public static boolean callerEquals(final int startFrame, final int endFrame, final String name) {
+    return StackInspector.callerEquals0(startFrame, endFrame, new String[] {name});
   }
 
   /**
@@ -197,20 +175,10 @@ public final class AgentRuleUtil {
    * @return {@code true} if the name of the method at the specified
    *         {@code frameIndex} in the call stack matches the provided
    *         {@code name}; otherwise {@code false}.
+   * @see StackInspector
    */
-  public static boolean callerEquals(int frameIndex, final String ... names) {
-    frameIndex += 2;
-    final StackTraceElement[] stackTraceElements = Thread.currentThread().getStackTrace();
-    if (stackTraceElements.length <= frameIndex)
-      return false;
-
-    final StackTraceElement stackTraceElement = stackTraceElements[frameIndex];
-    final String element = stackTraceElement.getClassName() + "." + stackTraceElement.getMethodName();
-    for (int i = 0; i < names.length; ++i)
-      if (element.equals(names[i]))
-        return true;
-
-    return false;
+  public static boolean callerEquals(final int frameIndex, final String ... names) {
+    return StackInspector.callerEquals0(frameIndex, frameIndex + 1, names);
   }
 
   /**
@@ -223,27 +191,10 @@ public final class AgentRuleUtil {
    * @return {@code true} if the name of the method at the specified
    *         {@code frameIndex} in the call stack matches the provided
    *         {@code name}; otherwise {@code false}.
+   * @see StackInspector
    */
-  public static boolean callerEquals(int startFrame, int endFrame, final String ...  names) {
-    startFrame += 2;
-    endFrame += 2;
-
-    final StackTraceElement[] stackTraceElements = Thread.currentThread().getStackTrace();
-    if (stackTraceElements.length <= startFrame)
-      return false;
-
-    if (stackTraceElements.length < endFrame)
-      endFrame = stackTraceElements.length;
-
-    for (int i = startFrame; i < endFrame; ++i) {
-      final StackTraceElement stackTraceElement = stackTraceElements[i];
-      final String element = stackTraceElement.getClassName() + "." + stackTraceElement.getMethodName();
-      for (int j = 0; j < names.length; ++j)
-        if (element.equals(names[j]))
-          return true;
-    }
-
-    return false;
+  public static boolean callerEquals(final int startFrame, final int endFrame, final String ... names) {
+    return StackInspector.callerEquals0(startFrame, endFrame, names);
   }
 
   /**
@@ -0,0 +1,372 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Utility for the inspection of the call stack of the current thread.
+ * <p>
+ * On Java 9+, frames are walked lazily with {@code java.lang.StackWalker},
+ * and the walk stops as soon as a match is found, or the requested end frame
+ * is reached. On Java 8 and earlier, the inspection falls back to
+ * {@link Thread#getStackTrace()}. In both cases, frames are matched against
+ * the provided {@code className + "." + methodName} targets without building
+ * a string per frame.
+ * <p>
+ * This class is compiled for Java 1.7, and therefore does not refer to any
+ * Java 8+ type directly: {@code StackWalker} is invoked with
+ * {@link MethodHandle}s, and its {@code Function<Stream<StackFrame>,T>}
+ * callback is a {@link Proxy} of {@code java.util.function.Function}.
+ *
+ * @author Seva Safris
+ */
+public final class StackInspector {
+  private static final String CLASS_NAME = StackInspector.class.getName();
+  private static final String CALLER_EQUALS = "callerEquals0";
+
+  /**
+   * Holder of the reflective {@code java.lang.StackWalker} handles, which is
+   * initialized on first access. All fields are {@code null} if
+   * {@code StackWalker} is not available in the running JVM.
+   */
+  private static final class Walker {
+    private static final Object nameWalker;
+    private static final Object classWalker;
+    private static final MethodHandle walk;
+    private static final MethodHandle newFunction;
+    private static final MethodHandle iterator;
+    private static final MethodHandle getClassName;
+    private static final MethodHandle getMethodName;
+    private static final MethodHandle getDeclaringClass;
+
+    static {
+      Object nameWalker0 = null;
+      Object classWalker0 = null;
+      MethodHandle walk0 = null;
+      MethodHandle newFunction0 = null;
+      MethodHandle iterator0 = null;
+      MethodHandle getClassName0 = null;
+      MethodHandle getMethodName0 = null;
+      MethodHandle getDeclaringClass0 = null;
+      try {
+        final Class<?> stackWalkerClass = Class.forName("java.lang.StackWalker");
+        final Class<?> stackFrameClass = Class.forName("java.lang.StackWalker$StackFrame");
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        final Class<Enum> optionClass = (Class<Enum>)Class.forName("java.lang.StackWalker$Option");
+        final Method getInstance = stackWalkerClass.getMethod("getInstance", Set.class);
+
+        // SHOW_REFLECT_FRAMES keeps the frame indexes aligned with the frames of Thread#getStackTrace()
+        @SuppressWarnings("unchecked")
+        final Enum<?> showReflectFrames = Enum.valueOf(optionClass, "SHOW_REFLECT_FRAMES");
+        nameWalker0 = getInstance.invoke(null, Collections.singleton(showReflectFrames));
+
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        final Class<?> functionClass = Class.forName("java.util.function.Function");
+        walk0 = lookup.findVirtual(stackWalkerClass, "walk", MethodType.methodType(Object.class, functionClass)).asType(MethodType.methodType(Object.class, Object.class, Object.class));
+        @SuppressWarnings("deprecation")
+        final Class<?> proxyClass = Proxy.getProxyClass(null, functionClass);
+        newFunction0 = lookup.findConstructor(proxyClass, MethodType.methodType(void.class, InvocationHandler.class)).asType(MethodType.methodType(Object.class, InvocationHandler.class));
+        iterator0 = lookup.findVirtual(Class.forName("java.util.stream.BaseStream"), "iterator", MethodType.methodType(Iterator.class)).asType(MethodType.methodType(Iterator.class, Object.class));
+        getClassName0 = lookup.findVirtual(stackFrameClass, "getClassName", MethodType.methodType(String.class)).asType(MethodType.methodType(String.class, Object.class));
+        getMethodName0 = lookup.findVirtual(stackFrameClass, "getMethodName", MethodType.methodType(String.class)).asType(MethodType.methodType(String.class, Object.class));
+
+        try {
+          // RETAIN_CLASS_REFERENCE is subject to a permission check if a SecurityManager is installed
+          @SuppressWarnings("unchecked")
+          final Enum<?> retainClassReference = Enum.valueOf(optionClass, "RETAIN_CLASS_REFERENCE");
+          classWalker0 = getInstance.invoke(null, new HashSet<>(Arrays.asList(retainClassReference, showReflectFrames)));
+          getDeclaringClass0 = lookup.findVirtual(stackFrameClass, "getDeclaringClass", MethodType.methodType(Class.class)).asType(MethodType.methodType(Class.class, Object.class));
+        }
+        catch (final Exception e) {
+          classWalker0 = null;
+          getDeclaringClass0 = null;
+        }
+      }
+      catch (final ClassNotFoundException e) {
+        // Java 8 and earlier
+      }
+      catch (final Exception e) {
+        nameWalker0 = null;
+        classWalker0 = null;
+      }
+
+      nameWalker = nameWalker0;
+      classWalker = classWalker0;
+      walk = walk0;
+      newFunction = newFunction0;
+      iterator = iterator0;
+      getClassName = getClassName0;
+      getMethodName = getMethodName0;
+      getDeclaringClass = getDeclaringClass0;
+    }
+  }
+
+  /**
+   * {@link InvocationHandler} of a {@link Proxy} of
+   * {@code java.util.function.Function<Stream<StackFrame>,Boolean>}, which
+   * passes the iterator of the stream of frames to {@link #apply(Iterator)}.
+   */
+  private abstract static class WalkFunction implements InvocationHandler {
+    abstract Boolean apply(Iterator<?> iterator) throws Throwable;
+
+    @Override
+    public final Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+      final String methodName = method.getName();
+      if ("apply".equals(methodName))
+        return apply((Iterator<?>)Walker.iterator.invokeExact(args[0]));
+
+      if ("equals".equals(methodName))
+        return proxy == args[0];
+
+      if ("hashCode".equals(methodName))
+        return System.identityHashCode(proxy);
+
+      if ("toString".equals(methodName))
+        return getClass().getName();
+
+      throw new UnsupportedOperationException(methodName);
+    }
+
+    final Object walk(final Object walker) throws Throwable {
+      return Walker.walk.invokeExact(walker, (Object)Walker.newFunction.invokeExact((InvocationHandler)this));
+    }
+  }
+
+  /**
+   * {@link WalkFunction} that tests whether any frame in the range of
+   * {@code [startFrame, endFrame)}, counted from the caller of the caller of
+   * {@link StackInspector#callerEquals0(int,int,String[])}, matches one of
+   * {@code names}.
+   */
+  private static final class NameFunction extends WalkFunction {
+    private final int startFrame;
+    private final int endFrame;
+    private final String[] names;
+
+    private NameFunction(final int startFrame, final int endFrame, final String[] names) {
+      this.startFrame = startFrame;
+      this.endFrame = endFrame;
+      this.names = names;
+    }
+
+    @Override
+    Boolean apply(final Iterator<?> iterator) throws Throwable {
+      // Skip to the frame of StackInspector#callerEquals0(...)
+      while (true) {
+        if (!iterator.hasNext())
+          return Boolean.FALSE;
+
+        final Object frame = iterator.next();
+        if (CALLER_EQUALS.equals((String)Walker.getMethodName.invokeExact(frame)) && CLASS_NAME.equals((String)Walker.getClassName.invokeExact(frame)))
+          break;
+      }
+
+      // Skip the frame of the method that called StackInspector#callerEquals0(...)
+      if (!iterator.hasNext())
+        return Boolean.FALSE;
+
+      iterator.next();
+      for (int i = 0; i < endFrame && iterator.hasNext(); ++i) {
+        final Object frame = iterator.next();
+        if (i >= startFrame && matches((String)Walker.getClassName.invokeExact(frame), (String)Walker.getMethodName.invokeExact(frame), names))
+          return Boolean.TRUE;
+      }
+
+      return Boolean.FALSE;
+    }
+  }
+
+  /**
+   * {@link WalkFunction} that tests whether any frame not belonging to
+   * {@link StackInspector} belongs to a class loaded by {@code classLoader}, or
+   * one of its descendants.
+   */
+  private static final class ClassLoaderFunction extends WalkFunction {
+    private final ClassLoader classLoader;
+
+    private ClassLoaderFunction(final ClassLoader classLoader) {
+      this.classLoader = classLoader;
+    }
+
+    @Override
+    Boolean apply(final Iterator<?> iterator) throws Throwable {
+      while (iterator.hasNext()) {
+        final Class<?> cls = (Class<?>)Walker.getDeclaringClass.invokeExact(iterator.next());
+        if (cls != StackInspector.class && cls != WalkFunction.class && isFromClassLoader(cls, classLoader))
+          return Boolean.TRUE;
+      }
+
+      return Boolean.FALSE;
+    }
+  }
+
+  /**
+   * Tests whether the concatenation of {@code className + "." + methodName}
+   * equals any of the specified {@code names}, without building the
+   * concatenated string.
+   *
+   * @param className The class name.
+   * @param methodName The method name.
+   * @param names The array of {@code className + "." + methodName} to match.
+   * @return {@code true} if the concatenation of
+   *         {@code className + "." + methodName} equals any of the specified
+   *         {@code names}, otherwise {@code false}.
+   */
+  static boolean matches(final String className, final String methodName, final String[] names) {
+    final int classNameLength = className.length();
+    final int length = classNameLength + 1 + methodName.length();
+    for (int i = 0; i < names.length; ++i) {
+      final String name = names[i];
+      if (name.length() == length && name.charAt(classNameLength) == '.' && name.startsWith(methodName, classNameLength + 1) && name.startsWith(className))
+        return true;
+    }
+
+    return false;
+  }
+
+  private static boolean isFromClassLoader(final Class<?> cls, final ClassLoader classLoader) {
+    ClassLoader parent = cls.getClassLoader();
+    do {
+      if (parent == classLoader)
+        return true;
+
+      if (parent == null)
+        return false;
+
+      parent = parent.getParent();
+    }
+    while (true);
+  }
+
+  /**
+   * @return Whether {@code java.lang.StackWalker} is used for the inspection of
+   *         the call stack.
+   */
+  public static boolean isStackWalkerAvailable() {
+    return Walker.nameWalker != null;
+  }
+
+  /**
+   * Tests whether the name of any method in the range of
+   * {@code [startFrame, endFrame)} of the call stack matches one of the
+   * provided {@code names}. The frame at index {@code 0} is the frame of the
+   * method calling this method, the frame at index {@code 1} is the frame of
+   * that method's caller, and so on.
+   * <p>
+   * Frames beyond {@code endFrame} are not inspected, and, on Java 9+, are not
+   * even walked.
+   *
+   * @param startFrame The start index of the stack frame to check.
+   * @param endFrame The end index (exclusive) of the stack frame to check.
+   * @param names The array of {@code className + "." + methodName} to match.
+   * @return {@code true} if the name of any method in the range of
+   *         {@code [startFrame, endFrame)} of the call stack matches one of the
+   *         provided {@code names}; otherwise {@code false}.
+   */
+  public static boolean callerEquals(final int startFrame, final int endFrame, final String ... names) {
+    return callerEquals0(startFrame, endFrame, names);
+  }
+
+  /**
+   * Tests whether the name of any method in the range of
+   * {@code [startFrame, endFrame)} of the call stack matches one of the
+   * provided {@code names}. The frame at index {@code 0} is the frame of the
+   * method calling the method that calls this method.
+   *
+   * @param startFrame The start index of the stack frame to check.
+   * @param endFrame The end index (exclusive) of the stack frame to check.
+   * @param names The array of {@code className + "." + methodName} to match.
+   * @return {@code true} if the name of any method in the range of
+   *         {@code [startFrame, endFrame)} of the call stack matches one of the
+   *         provided {@code names}; otherwise {@code false}.
+   */
+  static boolean callerEquals0(final int startFrame, final int endFrame, final String[] names) {
+    if (startFrame < 0 || endFrame <= startFrame)
+      return false;
+
+    if (Walker.nameWalker != null) {
+      try {
+        return (Boolean)new NameFunction(startFrame, endFrame, names).walk(Walker.nameWalker);
+      }
+      catch (final RuntimeException | Error e) {
+        throw e;
+      }
+      catch (final Throwable t) {
+        throw new IllegalStateException(t);
+      }
+    }
+
+    final StackTraceElement[] stackTraceElements = Thread.currentThread().getStackTrace();
+    int offset = 0;
+    while (offset < stackTraceElements.length && !(CALLER_EQUALS.equals(stackTraceElements[offset].getMethodName()) && CLASS_NAME.equals(stackTraceElements[offset].getClassName())))
+      ++offset;
+
+    // Skip the frames of StackInspector#callerEquals0(...), and of the method that called it
+    offset += 2;
+    final int end = Math.min(stackTraceElements.length - offset, endFrame);
+    for (int i = startFrame; i < end; ++i) {
+      final StackTraceElement stackTraceElement = stackTraceElements[offset + i];
+      if (matches(stackTraceElement.getClassName(), stackTraceElement.getMethodName(), names))
+        return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * Tests whether the call stack of the current thread stems from a class
+   * belonging to the provided {@link ClassLoader classLoader}, or one of its
+   * descendants.
+   *
+   * @param classLoader The {@link ClassLoader}.
+   * @return {@code true} if the call stack of the current thread stems from a
+   *         class belonging to the provided {@link ClassLoader classLoader}, or
+   *         one of its descendants, otherwise {@code false}.
+   */
+  public static boolean isFromClassLoader(final ClassLoader classLoader) {
+    return isFromClassLoader0(classLoader);
+  }
+
+  private static boolean isFromClassLoader0(final ClassLoader classLoader) {
+    if (Walker.classWalker != null) {
+      try {
+        return (Boolean)new ClassLoaderFunction(classLoader).walk(Walker.classWalker);
+      }
+      catch (final RuntimeException | Error e) {
+        throw e;
+      }
+      catch (final Throwable t) {
+        throw new IllegalStateException(t);
+      }
+    }
+
+    return AgentRuleUtil.isFromClassLoader(AgentRuleUtil.getExecutionStack(), classLoader);
+  }
+
+  private StackInspector() {
+  }
+}
@@ -0,0 +1,55 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+/**
+ * The per-thread state of the SpecialAgent, which is fetched with a single
+ * {@code ThreadLocal} lookup by {@link AgentRule#isAllowed(String,String)},
+ * and by the advice of the {@code TracerExclusionAgent} around every public
+ * method of the tracer.
+ *
+ * @author Seva Safris
+ */
+public final class ThreadState {
+  private int tracerDepth;
+  boolean instrumentable;
+  String agentRuleClassName;
+
+  ThreadState(final boolean instrumentable) {
+    this.instrumentable = instrumentable;
+  }
+
+  /**
+   * Called upon entry into a method of the tracer.
+   */
+  public void enterTracer() {
+    ++tracerDepth;
+  }
+
+  /**
+   * Called upon exit from a method of the tracer.
+   */
+  public void exitTracer() {
+    --tracerDepth;
+  }
+
+  /**
+   * @return Whether this thread is executing a method of the tracer.
+   */
+  public boolean isInTracer() {
+    return tracerDepth != 0;
+  }
+}
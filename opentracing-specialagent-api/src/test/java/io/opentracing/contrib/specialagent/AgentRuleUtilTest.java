@@ -40,4 +40,41 @@ public class AgentRuleUtilTest {
     assertArrayEquals(new Integer[] {2, 3}, AgentRuleUtil.subArray(array, 2, 4));
     assertArrayEquals(new Integer[] {6, 7, 8}, AgentRuleUtil.subArray(array, 6));
   }
-}
\ No newline at end of file
+
+  private static final String A = AgentRuleUtilTest.class.getName() + ".a";
+  private static final String B = AgentRuleUtilTest.class.getName() + ".b";
+  private static final String C = AgentRuleUtilTest.class.getName() + ".c";
+
+  private static void a() {
+    b();
+  }
+
+  private static void b() {
+    c();
+  }
+
+  private static void c() {
+    assertTrue(AgentRuleUtil.callerEquals(0, C));
+    assertTrue(AgentRuleUtil.callerEquals(1, B));
+    assertTrue(AgentRuleUtil.callerEquals(2, A));
+    assertFalse(AgentRuleUtil.callerEquals(1, A));
+    assertTrue(AgentRuleUtil.callerEquals(1, A, B));
+    assertTrue(AgentRuleUtil.callerEquals(0, 3, A));
+    assertFalse(AgentRuleUtil.callerEquals(0, 2, A));
+    assertTrue(AgentRuleUtil.callerEquals(1, 2, "x.y", B));
+    assertFalse(AgentRuleUtil.callerEquals(0, Integer.MAX_VALUE, A + "x"));
+    assertFalse(AgentRuleUtil.callerEquals(Integer.MAX_VALUE, A));
+    assertTrue(StackInspector.callerEquals(0, 1, C));
+  }
+
+  @Test
+  public void testCallerEquals() {
+    a();
+  }
+
+  @Test
+  public void testIsFromClassLoader() {
+    assertTrue(StackInspector.isFromClassLoader(AgentRuleUtilTest.class.getClassLoader()));
+    assertFalse(StackInspector.isFromClassLoader(new ClassLoader(null) {}));
+  }
+}
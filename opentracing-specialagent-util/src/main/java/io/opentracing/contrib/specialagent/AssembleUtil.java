@@ -640,7 +640,13 @@ public final class AssembleUtil {
 
   public static <T>void forEachClass(final URL[] urls, final T arg, final BiConsumer<String,T> consumer) throws IOException {
     for (final URL url : urls) {
-      if (url.getPath().endsWith(".jar")) {
+      final NestedJarFile nestedJarFile = NestedJarFile.get(url);
+      if (nestedJarFile != null) {
+        for (final String name : nestedJarFile.getEntryNames())
+          if (name.endsWith(".class") && !name.startsWith("META-INF/") && !name.startsWith("module-info"))
+            consumer.accept(name, arg);
+      }
+      else if (url.getPath().endsWith(".jar")) {
         try (final ZipInputStream in = new ZipInputStream(url.openStream())) {
           for (ZipEntry entry; (entry = in.getNextEntry()) != null;) {
             final String name = entry.getName();
@@ -672,6 +678,9 @@ public final class AssembleUtil {
   }
 
   private static URL _toURL(final File file) throws MalformedURLException {
+    if (file instanceof NestedJarFile)
+      return ((NestedJarFile)file).getURL();
+
     final String path = file.getAbsolutePath();
     return new URL("file", "", file.isDirectory() ? path + "/" : path);
   }
@@ -818,6 +827,10 @@ public final class AssembleUtil {
     if (string.startsWith("jar:file:"))
       return new File(string.substring(9, string.lastIndexOf('!')));
 
+    final NestedJarFile nestedJarFile = NestedJarFile.get(url);
+    if (nestedJarFile != null)
+      return nestedJarFile;
+
     if (string.startsWith("file:"))
       return new File(string.substring(5, string.length() - resourcePath.length()));
 
@@ -29,7 +29,7 @@ public class ConcurrentWeakIdentityHashMap<K,V>extends AbstractMap<K,V> implemen
   @Override
   public V get(final Object key) {
     purgeKeys();
-    return map.get(new Key<>(key, null));
+    return map.get(new Lookup(key));
   }
 
   @Override
@@ -45,7 +45,21 @@ public class ConcurrentWeakIdentityHashMap<K,V>extends AbstractMap<K,V> implemen
   }
 
   private void purgeKeys() {
-    for (Reference<? extends K> reference; (reference = queue.poll()) != null; map.remove(reference));
+    for (Reference<? extends K> reference; (reference = queue.poll()) != null;) {
+      final V value = map.remove(reference);
+      if (value != null)
+        purged(value);
+    }
+  }
+
+  /**
+   * Callback that is invoked when an entry is purged from this map due to its
+   * key having been reclaimed by the garbage collector. The default
+   * implementation does nothing.
+   *
+   * @param value The value of the purged entry.
+   */
+  protected void purged(final V value) {
   }
 
   @Override
@@ -62,13 +76,13 @@ public class ConcurrentWeakIdentityHashMap<K,V>extends AbstractMap<K,V> implemen
 
   @Override
   public V remove(final Object key) {
-    return map.remove(new Key<>(key, null));
+    return map.remove(new Lookup(key));
   }
 
   @Override
   public boolean remove(final Object key, final Object value) {
     purgeKeys();
-    return map.remove(new Key<>(key, null), value);
+    return map.remove(new Lookup(key), value);
   }
 
   @Override
@@ -86,7 +100,7 @@ public class ConcurrentWeakIdentityHashMap<K,V>extends AbstractMap<K,V> implemen
   @Override
   public boolean containsKey(final Object key) {
     purgeKeys();
-    return map.containsKey(new Key<>(key, null));
+    return map.containsKey(new Lookup(key));
   }
 
   @Override
@@ -101,6 +115,37 @@ public class ConcurrentWeakIdentityHashMap<K,V>extends AbstractMap<K,V> implemen
     return map.containsValue(value);
   }
 
+  /**
+   * A key for lookups, which is equal to the {@link Key} of the same referent.
+   * Unlike a {@link Key}, it is not a {@link WeakReference}, so a lookup does
+   * not allocate a reference object.
+   */
+  private static final class Lookup {
+    private final Object referent;
+    private final int hash;
+
+    Lookup(final Object referent) {
+      this.referent = referent;
+      hash = System.identityHashCode(Objects.requireNonNull(referent));
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj)
+        return true;
+
+      if (obj instanceof Key)
+        return ((Key<?>)obj).get() == referent;
+
+      return obj instanceof Lookup && ((Lookup)obj).referent == referent;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
   private static class Key<T>extends WeakReference<T> {
     private final int hash;
 
@@ -111,7 +156,13 @@ public class ConcurrentWeakIdentityHashMap<K,V>extends AbstractMap<K,V> implemen
 
     @Override
     public boolean equals(final Object obj) {
-      return this == obj || obj instanceof Key && ((Key<?>)obj).get() == get();
+      if (this == obj)
+        return true;
+
+      if (obj instanceof Lookup)
+        return ((Lookup)obj).referent == get();
+
+      return obj instanceof Key && ((Key<?>)obj).get() == get();
     }
 
     @Override
@@ -137,7 +188,7 @@ public class ConcurrentWeakIdentityHashMap<K,V>extends AbstractMap<K,V> implemen
         final Map.Entry<Key<K>,V> entry = iterator.next();
         final K key = entry.getKey().get();
         if (key == null)
-          iterator.remove();
+          continue;
 
         next = new Entry(key, entry.getValue());
         return true;
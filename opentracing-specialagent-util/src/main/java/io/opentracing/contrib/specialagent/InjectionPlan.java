@@ -0,0 +1,136 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The plan for the injection of the classes of an Integration Rule into a
+ * target class loader, as recorded in {@link UtilConstants#INJECTION_FILE} by
+ * the {@code FingerprintMojo} at build time.
+ * <p>
+ * The plan comprises 2 sections:
+ * <ol>
+ * <li>{@code # eager}: The classes that are to be preloaded into the target
+ * class loader upon injection, ordered such that each class is listed after
+ * its superclass and interfaces.</li>
+ * <li>{@code # lazy}: The classes that are to be loaded on demand by the
+ * {@code ClassLoaderAgent} when they are first requested from the target class
+ * loader.</li>
+ * </ol>
+ *
+ * @author Seva Safris
+ */
+public class InjectionPlan {
+  private static final String EAGER = "# eager";
+  private static final String LAZY = "# lazy";
+
+  /**
+   * Returns the {@code InjectionPlan} parsed from the specified string.
+   *
+   * @param str The string encoding of the {@code InjectionPlan}.
+   * @return The {@code InjectionPlan} parsed from the specified string.
+   * @throws IllegalArgumentException If the specified string is not a valid
+   *           encoding of an {@code InjectionPlan}.
+   * @throws NullPointerException If the specified string is null.
+   */
+  public static InjectionPlan parse(final String str) {
+    final ArrayList<String> eager = new ArrayList<>();
+    final ArrayList<String> lazy = new ArrayList<>();
+    List<String> section = null;
+    for (int start = 0, end; start < str.length(); start = end + 1) {
+      end = str.indexOf('\n', start);
+      if (end == -1)
+        end = str.length();
+
+      final String line = str.substring(start, end).trim();
+      if (line.length() == 0)
+        continue;
+
+      if (EAGER.equals(line))
+        section = eager;
+      else if (LAZY.equals(line))
+        section = lazy;
+      else if (section == null)
+        throw new IllegalArgumentException("Expected \"" + EAGER + "\" or \"" + LAZY + "\" section, but got: " + line);
+      else
+        section.add(line);
+    }
+
+    return new InjectionPlan(eager, lazy);
+  }
+
+  private final List<String> eager;
+  private final List<String> lazy;
+
+  /**
+   * Creates a new {@code InjectionPlan} with the specified lists of class
+   * names.
+   *
+   * @param eager The names of the classes to be preloaded upon injection, in
+   *          dependency order.
+   * @param lazy The names of the classes to be loaded on demand.
+   * @throws NullPointerException If {@code eager} or {@code lazy} is null.
+   */
+  public InjectionPlan(final List<String> eager, final List<String> lazy) {
+    this.eager = Collections.unmodifiableList(eager);
+    this.lazy = Collections.unmodifiableList(lazy);
+  }
+
+  /**
+   * @return The names of the classes to be preloaded upon injection, in
+   *         dependency order.
+   */
+  public List<String> getEager() {
+    return eager;
+  }
+
+  /**
+   * @return The names of the classes to be loaded on demand.
+   */
+  public List<String> getLazy() {
+    return lazy;
+  }
+
+  /**
+   * Writes this {@code InjectionPlan} to the specified file.
+   *
+   * @param file The file to which this {@code InjectionPlan} is to be written.
+   * @throws IOException If an I/O error has occurred.
+   */
+  public void toFile(final File file) throws IOException {
+    Files.write(file.toPath(), toString().getBytes(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder(EAGER).append('\n');
+    for (final String className : eager)
+      builder.append(className).append('\n');
+
+    builder.append(LAZY).append('\n');
+    for (final String className : lazy)
+      builder.append(className).append('\n');
+
+    return builder.toString();
+  }
+}
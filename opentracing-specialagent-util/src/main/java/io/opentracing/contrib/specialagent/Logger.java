@@ -18,39 +18,67 @@ package io.opentracing.contrib.specialagent;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.PrintStream;
-import java.util.Iterator;
-import java.util.Map;
+import java.lang.reflect.Field;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Logger {
-  private static String REFRESH_PREFIX = "sa.log.refresh.";
-  private static final String LOG_REFRESH_PROPERTY = REFRESH_PREFIX + Logger.class.hashCode();
   static final String LOG_LEVEL_PROPERTY = "sa.log.level";
   static final String LOG_FILE_PROPERTY = "sa.log.file";
 
+  /**
+   * The refresh generation, which is shared by all copies of the
+   * {@link Logger} class that can see the copy in the bootstrap class loader.
+   */
+  static final AtomicInteger generation = getGeneration();
+
   private static final Logger logger = new Logger();
-  private static Level level = Level.INFO;
-  private static PrintStream out = System.err;
+  private static volatile Level level = Level.INFO;
+  private static volatile PrintStream out = System.err;
+
+  // The refresh generation last observed by this copy of the Logger class
+  private static volatile int observed;
 
   static {
     init();
   }
 
-  private static void recurseClearProperty(final Iterator<Map.Entry<Object,Object>> iterator) {
-    while (iterator.hasNext()) {
-      final Map.Entry<Object,Object> entry = iterator.next();
-      final String key = String.valueOf(entry.getKey());
-      if (key.startsWith(REFRESH_PREFIX)) {
-        recurseClearProperty(iterator);
-        System.clearProperty(key);
+  /**
+   * Returns the {@link #generation} of the copy of the {@link Logger} class in
+   * the bootstrap class loader, or a new generation if this is that copy, or
+   * if the bootstrap class loader has none.
+   *
+   * @return The refresh generation of this copy of the {@link Logger} class.
+   */
+  private static AtomicInteger getGeneration() {
+    try {
+      final Class<?> bootLogger = Class.forName(Logger.class.getName(), false, null);
+      if (bootLogger != Logger.class) {
+        final Field field = bootLogger.getDeclaredField("generation");
+        field.setAccessible(true);
+        return (AtomicInteger)field.get(null);
       }
     }
+    catch (final ClassNotFoundException | IllegalAccessException | NoSuchFieldException e) {
+    }
+
+    return new AtomicInteger();
   }
 
+  /**
+   * Reinitializes the configuration of this copy of the {@link Logger} class
+   * from system properties, and notifies the copies of the {@link Logger}
+   * class that share its {@link #generation} to do the same upon their next
+   * log statement.
+   */
   static void refreshLoggers() {
-    recurseClearProperty(System.getProperties().entrySet().iterator());
+    generation.incrementAndGet();
+    init();
   }
 
-  static void init() {
+  static synchronized void init() {
+    // Read the generation before the properties it covers
+    observed = generation.get();
+
     // Load user log level
     final String logLevelProperty = System.getProperty(LOG_LEVEL_PROPERTY);
     if (logLevelProperty != null)
@@ -68,11 +96,15 @@ public class Logger {
     }
   }
 
+  /**
+   * Reinitializes the configuration of this copy of the {@link Logger} class
+   * if another copy has called {@link #refreshLoggers()} since it was last
+   * initialized. The check is a single volatile read, so that log statements
+   * do not contend on the lock of the system properties.
+   */
   private static void refresh() {
-    if (System.getProperty(LOG_REFRESH_PROPERTY) == null) {
-      System.setProperty(LOG_REFRESH_PROPERTY, "");
+    if (generation.get() != observed)
       init();
-    }
   }
 
   public static Logger getLogger(final Class<?> cls) {
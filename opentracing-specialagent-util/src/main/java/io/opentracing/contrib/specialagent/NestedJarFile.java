@@ -0,0 +1,601 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLDecoder;
+import java.net.URLStreamHandler;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * A JAR that is an entry of an enclosing JAR, which is read in place from a
+ * read-only mapping of the enclosing JAR instead of being extracted to the file
+ * system. Only JARs that are {@link ZipEntry#STORED stored} (i.e. not
+ * compressed) in the enclosing JAR can be read in place. The entries of the
+ * nested JAR itself may be stored or deflated.
+ * <p>
+ * A {@code NestedJarFile} is a {@link File} with the path
+ * {@code <enclosing JAR>!/<entry>}, so that it can be used wherever plugin JARs
+ * are identified by a {@link File}. Since there is no such file on the file
+ * system, the content of a {@code NestedJarFile} is accessed via
+ * {@link #getEntryNames()}, {@link #getBytes(String)} and
+ * {@link #getInputStream(String)}, or via the {@link URL}s returned by
+ * {@link #getURL()} and {@link #getURL(String)}, which are served by a
+ * {@link URLStreamHandler} that reads the entries from the mapping.
+ *
+ * @author Seva Safris
+ */
+public class NestedJarFile extends File {
+  private static final long serialVersionUID = -2512914604981765427L;
+
+  static final String PROTOCOL = "sajar";
+  private static final String SEPARATOR = "!/";
+
+  private static final int LOCAL_HEADER = 0x04034b50;
+  private static final int CENTRAL_HEADER = 0x02014b50;
+  private static final int END_HEADER = 0x06054b50;
+
+  private static final ConcurrentHashMap<String,Archive> pathToArchive = new ConcurrentHashMap<>();
+  private static final ConcurrentHashMap<String,NestedJarFile> urlPathToFile = new ConcurrentHashMap<>();
+  private static final URLStreamHandler handler = new Handler();
+
+  /**
+   * An entry in the central directory of a ZIP archive.
+   */
+  private static final class Entry {
+    private final int method;
+    private final int compressedSize;
+    private final int size;
+    private final int localHeaderOffset;
+
+    private Entry(final int method, final int compressedSize, final int size, final int localHeaderOffset) {
+      this.method = method;
+      this.compressedSize = compressedSize;
+      this.size = size;
+      this.localHeaderOffset = localHeaderOffset;
+    }
+  }
+
+  /**
+   * A ZIP archive in a {@link ByteBuffer}, indexed by its central directory.
+   * The buffer is only read with absolute gets, or via duplicates, so that an
+   * {@code Archive} can be shared by threads.
+   */
+  private static final class Archive {
+    private final ByteBuffer buffer;
+    private final LinkedHashMap<String,Entry> entries = new LinkedHashMap<>();
+
+    private Archive(final ByteBuffer buffer) throws ZipException {
+      this.buffer = buffer;
+      final int limit = buffer.limit();
+      int end = limit - 22;
+      final int min = Math.max(0, end - 0xffff);
+      while (end >= min && u32(buffer, end) != END_HEADER)
+        --end;
+
+      if (end < min)
+        throw new ZipException("End of central directory not found");
+
+      final int count = u16(buffer, end + 10);
+      final long offset = u32(buffer, end + 16) & 0xffffffffL;
+      if (count == 0xffff || offset == 0xffffffffL)
+        throw new ZipException("ZIP64 is not supported");
+
+      for (int i = 0, position = (int)offset; i < count; ++i) {
+        if (u32(buffer, position) != CENTRAL_HEADER)
+          throw new ZipException("Invalid central directory header at " + position);
+
+        final int nameLength = u16(buffer, position + 28);
+        final byte[] name = new byte[nameLength];
+        for (int j = 0; j < nameLength; ++j)
+          name[j] = buffer.get(position + 46 + j);
+
+        entries.put(new String(name, StandardCharsets.UTF_8), new Entry(u16(buffer, position + 10), u32(buffer, position + 20), u32(buffer, position + 24), u32(buffer, position + 42)));
+        position += 46 + nameLength + u16(buffer, position + 30) + u16(buffer, position + 32);
+      }
+    }
+
+    private ByteBuffer slice(final Entry entry) throws ZipException {
+      final int header = entry.localHeaderOffset;
+      if (u32(buffer, header) != LOCAL_HEADER)
+        throw new ZipException("Invalid local header at " + header);
+
+      final int start = header + 30 + u16(buffer, header + 26) + u16(buffer, header + 28);
+      final ByteBuffer duplicate = buffer.duplicate();
+      // Cast to Buffer, because ByteBuffer overrides these methods in JDK 9+
+      ((Buffer)duplicate).limit(start + entry.compressedSize);
+      ((Buffer)duplicate).position(start);
+      return duplicate.slice();
+    }
+
+    private byte[] read(final Entry entry) throws IOException {
+      final ByteBuffer slice = slice(entry);
+      if (entry.method == ZipEntry.STORED) {
+        final byte[] bytes = new byte[entry.size];
+        slice.get(bytes);
+        return bytes;
+      }
+
+      if (entry.method != ZipEntry.DEFLATED)
+        throw new ZipException("Unsupported compression method: " + entry.method);
+
+      // An extra "dummy" byte is required when the Inflater is in nowrap mode
+      final byte[] input = new byte[entry.compressedSize + 1];
+      slice.get(input, 0, entry.compressedSize);
+      final byte[] bytes = new byte[entry.size];
+      final Inflater inflater = new Inflater(true);
+      try {
+        inflater.setInput(input);
+        for (int off = 0, len; off < bytes.length; off += len)
+          if ((len = inflater.inflate(bytes, off, bytes.length - off)) == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()))
+            throw new ZipException("Unexpected end of deflated entry");
+
+        return bytes;
+      }
+      catch (final DataFormatException e) {
+        throw new ZipException(e.getMessage());
+      }
+      finally {
+        inflater.end();
+      }
+    }
+  }
+
+  /**
+   * An {@link InputStream} that reads from a {@link ByteBuffer}.
+   */
+  private static final class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    private ByteBufferInputStream(final ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, int len) {
+      if (len == 0)
+        return 0;
+
+      if (!buffer.hasRemaining())
+        return -1;
+
+      len = Math.min(len, buffer.remaining());
+      buffer.get(b, off, len);
+      return len;
+    }
+
+    @Override
+    public long skip(final long n) {
+      final int skip = (int)Math.max(0, Math.min(n, buffer.remaining()));
+      ((Buffer)buffer).position(buffer.position() + skip);
+      return skip;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+
+  /**
+   * The {@link URLStreamHandler} for {@code sajar:} URLs, which have the form
+   * {@code sajar:<enclosing JAR>!/<entry>!/<name>}.
+   */
+  private static final class Handler extends URLStreamHandler {
+    @Override
+    protected URLConnection openConnection(final URL u) {
+      return new Connection(u);
+    }
+
+    @Override
+    protected boolean equals(final URL u1, final URL u2) {
+      return u1.toExternalForm().equals(u2.toExternalForm());
+    }
+
+    @Override
+    protected int hashCode(final URL u) {
+      return u.toExternalForm().hashCode();
+    }
+  }
+
+  /**
+   * The {@link URLConnection} to an entry in a {@code NestedJarFile}.
+   */
+  private static final class Connection extends URLConnection {
+    private NestedJarFile file;
+    private String name;
+    private Entry entry;
+
+    private Connection(final URL url) {
+      super(url);
+    }
+
+    @Override
+    public void connect() throws IOException {
+      if (connected)
+        return;
+
+      final String path = url.getPath();
+      final int index = path.lastIndexOf(SEPARATOR);
+      file = index == -1 ? null : get(path.substring(0, index));
+      if (file == null)
+        throw new FileNotFoundException(url.toString());
+
+      name = decode(path.substring(index + SEPARATOR.length()));
+      entry = file.archive.entries.get(name);
+      if (entry == null)
+        throw new FileNotFoundException(url.toString());
+
+      connected = true;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+      connect();
+      return file.getInputStream(name);
+    }
+
+    @Override
+    public long getContentLengthLong() {
+      try {
+        connect();
+        return entry.size;
+      }
+      catch (final IOException e) {
+        return -1;
+      }
+    }
+
+    @Override
+    public int getContentLength() {
+      return (int)getContentLengthLong();
+    }
+
+    @Override
+    public long getLastModified() {
+      try {
+        connect();
+        return file.lastModified();
+      }
+      catch (final IOException e) {
+        return 0;
+      }
+    }
+  }
+
+  private static int u16(final ByteBuffer buffer, final int index) {
+    return (buffer.get(index) & 0xff) | (buffer.get(index + 1) & 0xff) << 8;
+  }
+
+  private static int u32(final ByteBuffer buffer, final int index) {
+    return u16(buffer, index) | u16(buffer, index + 2) << 16;
+  }
+
+  private static String decode(final String name) throws UnsupportedEncodingException {
+    // Names are percent-encoded by URLClassLoader, but a '+' is not a space
+    return name.indexOf('%') == -1 ? name : URLDecoder.decode(name.replace("+", "%2B"), "UTF-8");
+  }
+
+  private static Archive getArchive(final File jarFile) throws IOException {
+    final String path = jarFile.getAbsolutePath();
+    Archive archive = pathToArchive.get(path);
+    if (archive != null)
+      return archive;
+
+    try (final RandomAccessFile file = new RandomAccessFile(jarFile, "r")) {
+      final FileChannel channel = file.getChannel();
+      if (channel.size() > Integer.MAX_VALUE)
+        throw new ZipException("JAR is too large to map: " + jarFile);
+
+      // The mapping remains valid after the channel is closed
+      archive = new Archive(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+
+    final Archive existing = pathToArchive.putIfAbsent(path, archive);
+    return existing != null ? existing : archive;
+  }
+
+  private static String toUrlPath(final File file) {
+    final String path = file.getAbsolutePath().replace(File.separatorChar, '/');
+    return path.startsWith("/") ? path : "/" + path;
+  }
+
+  /**
+   * Returns a {@code NestedJarFile} for the specified entry of the specified
+   * enclosing JAR, or {@code null} if the entry is not stored (i.e. it is
+   * compressed), and therefore cannot be read in place.
+   *
+   * @param jarFile The enclosing JAR.
+   * @param entryName The name of the entry of the nested JAR in the enclosing
+   *          JAR.
+   * @return A {@code NestedJarFile} for the specified entry of the specified
+   *         enclosing JAR, or {@code null} if the entry is not stored.
+   * @throws FileNotFoundException If the entry does not exist in the
+   *           enclosing JAR.
+   * @throws IOException If an I/O error has occurred.
+   */
+  public static NestedJarFile open(final File jarFile, final String entryName) throws IOException {
+    final String urlPath = toUrlPath(jarFile) + SEPARATOR + entryName;
+    NestedJarFile file = urlPathToFile.get(urlPath);
+    if (file != null)
+      return file;
+
+    final Archive archive = getArchive(jarFile);
+    final Entry entry = archive.entries.get(entryName);
+    if (entry == null)
+      throw new FileNotFoundException(entryName + " in " + jarFile);
+
+    if (entry.method != ZipEntry.STORED)
+      return null;
+
+    file = new NestedJarFile(jarFile.getAbsoluteFile(), entryName, urlPath, new Archive(archive.slice(entry)), entry.size);
+    final NestedJarFile existing = urlPathToFile.putIfAbsent(urlPath, file);
+    return existing != null ? existing : file;
+  }
+
+  /**
+   * Returns the {@code NestedJarFile} that serves the specified {@link URL},
+   * or {@code null} if the URL is not served by a {@code NestedJarFile}.
+   *
+   * @param url The {@link URL}.
+   * @return The {@code NestedJarFile} that serves the specified {@link URL},
+   *         or {@code null} if the URL is not served by a
+   *         {@code NestedJarFile}.
+   */
+  public static NestedJarFile get(final URL url) {
+    if (!PROTOCOL.equals(url.getProtocol()))
+      return null;
+
+    final String path = url.getPath();
+    final int index = path.lastIndexOf(SEPARATOR);
+    return index == -1 ? null : get(path.substring(0, index));
+  }
+
+  private static NestedJarFile get(final String urlPath) {
+    final NestedJarFile file = urlPathToFile.get(urlPath);
+    if (file != null)
+      return file;
+
+    final int index = urlPath.indexOf(SEPARATOR);
+    if (index == -1)
+      return null;
+
+    try {
+      return open(new File(urlPath.substring(0, index)), urlPath.substring(index + SEPARATOR.length()));
+    }
+    catch (final IOException e) {
+      return null;
+    }
+  }
+
+  private final File jarFile;
+  private final String entryName;
+  private final String urlPath;
+  private final transient Archive archive;
+  private final long size;
+  private transient volatile File extracted;
+
+  private NestedJarFile(final File jarFile, final String entryName, final String urlPath, final Archive archive, final long size) {
+    super(jarFile.getPath() + "!" + File.separator + entryName.replace('/', File.separatorChar));
+    this.jarFile = jarFile;
+    this.entryName = entryName;
+    this.urlPath = urlPath;
+    this.archive = archive;
+    this.size = size;
+  }
+
+  /**
+   * @return The enclosing JAR.
+   */
+  public File getJarFile() {
+    return this.jarFile;
+  }
+
+  /**
+   * @return The name of the entry of this nested JAR in the enclosing JAR.
+   */
+  public String getEntryName() {
+    return this.entryName;
+  }
+
+  /**
+   * @return An unmodifiable set of the names of the entries in this nested
+   *         JAR, in the order of its central directory.
+   */
+  public Set<String> getEntryNames() {
+    return Collections.unmodifiableSet(archive.entries.keySet());
+  }
+
+  /**
+   * Tests whether an entry by the specified name is present in this nested
+   * JAR.
+   *
+   * @param name The name of the entry.
+   * @return Whether an entry by the specified name is present in this nested
+   *         JAR.
+   */
+  public boolean hasEntry(final String name) {
+    return archive.entries.containsKey(name);
+  }
+
+  /**
+   * Returns the bytes of the entry by the specified name, or {@code null} if
+   * the entry is not present in this nested JAR.
+   *
+   * @param name The name of the entry.
+   * @return The bytes of the entry by the specified name, or {@code null} if
+   *         the entry is not present in this nested JAR.
+   * @throws IOException If an I/O error has occurred.
+   */
+  public byte[] getBytes(final String name) throws IOException {
+    final Entry entry = archive.entries.get(name);
+    return entry == null ? null : archive.read(entry);
+  }
+
+  /**
+   * Returns an {@link InputStream} of the entry by the specified name, or
+   * {@code null} if the entry is not present in this nested JAR. Stored
+   * entries are streamed directly from the mapping of the enclosing JAR.
+   *
+   * @param name The name of the entry.
+   * @return An {@link InputStream} of the entry by the specified name, or
+   *         {@code null} if the entry is not present in this nested JAR.
+   * @throws IOException If an I/O error has occurred.
+   */
+  public InputStream getInputStream(final String name) throws IOException {
+    final Entry entry = archive.entries.get(name);
+    if (entry == null)
+      return null;
+
+    return entry.method == ZipEntry.STORED ? new ByteBufferInputStream(archive.slice(entry)) : new ByteArrayInputStream(archive.read(entry));
+  }
+
+  /**
+   * @return The {@link URL} of the root of this nested JAR, which is suitable
+   *         as a class path entry of an {@link java.net.URLClassLoader}.
+   */
+  public URL getURL() {
+    return getURL("");
+  }
+
+  /**
+   * Returns the {@link URL} of the entry by the specified name in this nested
+   * JAR.
+   *
+   * @param name The name of the entry.
+   * @return The {@link URL} of the entry by the specified name in this nested
+   *         JAR.
+   */
+  public URL getURL(final String name) {
+    try {
+      return new URL(PROTOCOL, "", -1, urlPath + SEPARATOR + name, handler);
+    }
+    catch (final MalformedURLException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Returns a temporary file with the content of this nested JAR, which is
+   * created upon the first invocation of this method, and is deleted on exit.
+   * This method is intended for APIs that can only accept files on the file
+   * system, such as
+   * {@link java.lang.instrument.Instrumentation#appendToBootstrapClassLoaderSearch(java.util.jar.JarFile)}.
+   *
+   * @return A temporary file with the content of this nested JAR.
+   * @throws IOException If an I/O error has occurred.
+   */
+  public File extract() throws IOException {
+    if (extracted != null)
+      return extracted;
+
+    synchronized (this) {
+      if (extracted != null)
+        return extracted;
+
+      final String name = getName();
+      final File file = File.createTempFile(name.endsWith(".jar") ? name.substring(0, name.length() - 4) + "-" : name + "-", ".jar");
+      file.deleteOnExit();
+      final ByteBuffer buffer = archive.buffer.duplicate();
+      final byte[] bytes = new byte[8192];
+      try (final OutputStream out = new FileOutputStream(file)) {
+        for (int len; (len = Math.min(bytes.length, buffer.remaining())) > 0;) {
+          buffer.get(bytes, 0, len);
+          out.write(bytes, 0, len);
+        }
+      }
+
+      return extracted = file;
+    }
+  }
+
+  @Override
+  public boolean exists() {
+    return true;
+  }
+
+  @Override
+  public boolean isFile() {
+    return true;
+  }
+
+  @Override
+  public boolean isDirectory() {
+    return false;
+  }
+
+  @Override
+  public boolean canRead() {
+    return true;
+  }
+
+  @Override
+  public boolean canWrite() {
+    return false;
+  }
+
+  @Override
+  public long length() {
+    return size;
+  }
+
+  @Override
+  public long lastModified() {
+    return jarFile.lastModified();
+  }
+
+  @Override
+  public boolean delete() {
+    return false;
+  }
+
+  @Override
+  public File getAbsoluteFile() {
+    return this;
+  }
+
+  @Override
+  public File getCanonicalFile() {
+    return this;
+  }
+}
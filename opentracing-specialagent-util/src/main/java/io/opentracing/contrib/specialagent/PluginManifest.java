@@ -28,11 +28,12 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
@@ -151,7 +152,30 @@ public class PluginManifest {
     }
   };
 
+  private static BiFunction<NestedJarFile,String,String> nestedJarToClassName = new BiFunction<NestedJarFile,String,String>() {
+    @Override
+    public String apply(final NestedJarFile t, final String u) {
+      try {
+        return new String(t.getBytes(u));
+      }
+      catch (final IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  };
+
   public static PluginManifest getPluginManifest(final File file) {
+    if (file instanceof NestedJarFile) {
+      final NestedJarFile nestedJarFile = (NestedJarFile)file;
+      for (final String entry : nestedJarFile.getEntryNames()) {
+        final PluginManifest pluginManifest = getPluginManifestFromEntry(file, entry, nestedJarFile, entry, nestedJarToClassName);
+        if (pluginManifest != null)
+          return pluginManifest;
+      }
+
+      return null;
+    }
+
     if (file.isDirectory()) {
       final PluginManifest[] pluginManifest = new PluginManifest[1];
       final Path dir = file.toPath();
@@ -207,7 +231,19 @@ public class PluginManifest {
 
     try {
       String pom = null;
-      if (file.isDirectory()) {
+      if (file instanceof NestedJarFile) {
+        final NestedJarFile nestedJarFile = (NestedJarFile)file;
+        for (final String entry : nestedJarFile.getEntryNames()) {
+          if (entry.startsWith("META-INF/maven/") && entry.endsWith("pom.xml")) {
+            pom = new String(nestedJarFile.getBytes(entry));
+            break;
+          }
+        }
+
+        if (pom == null)
+          throw new FileNotFoundException("Could not find META-INF/maven/.../pom.xml in " + file);
+      }
+      else if (file.isDirectory()) {
         pom = new String(Files.readAllBytes(new File(new File(file, "../.."), "pom.xml").toPath()));
       }
       else {
@@ -246,6 +282,9 @@ public class PluginManifest {
 
   public URL getFingerprint() {
     try {
+      if (fingerprintUrl == null && file instanceof NestedJarFile)
+        return fingerprintUrl = ((NestedJarFile)file).getURL("fingerprint.bin");
+
       return fingerprintUrl == null ? fingerprintUrl = new URL(file.isDirectory() ? "file:" + file + "/fingerprint.bin" : "jar:file:" + file + "!/fingerprint.bin") : fingerprintUrl;
     }
     catch (final MalformedURLException e) {
@@ -253,9 +292,9 @@ public class PluginManifest {
     }
   }
 
-  private final HashMap<ClassLoader,Boolean> classLoaderToCompatibility = new HashMap<>();
+  private final ConcurrentWeakIdentityHashMap<ClassLoader,Future<Boolean>> classLoaderToCompatibility = new ConcurrentWeakIdentityHashMap<>();
 
-  public Map<ClassLoader,Boolean> getClassLoaderToCompatibility() {
+  public ConcurrentMap<ClassLoader,Future<Boolean>> getClassLoaderToCompatibility() {
     return classLoaderToCompatibility;
   }
 
@@ -17,6 +17,7 @@ package io.opentracing.contrib.specialagent;
 
 public final class UtilConstants {
   public static final String FINGERPRINT_FILE = "fingerprint.bin";
+  public static final String INJECTION_FILE = "injection.mf";
   public static final String META_INF_PLUGIN_PATH = "META-INF/plugins/";
   public static final String META_INF_ISO_PATH = "META-INF/iso/";
   public static final String META_INF_TEST_MANIFEST = META_INF_PLUGIN_PATH + "TEST-MANIFEST.MF";
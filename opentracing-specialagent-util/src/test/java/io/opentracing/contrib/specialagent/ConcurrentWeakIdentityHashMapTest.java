@@ -0,0 +1,107 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ConcurrentWeakIdentityHashMap}.
+ *
+ * @author Seva Safris
+ */
+public class ConcurrentWeakIdentityHashMapTest {
+  @Test
+  public void testIdentity() {
+    final ConcurrentWeakIdentityHashMap<String,Integer> map = new ConcurrentWeakIdentityHashMap<>();
+    final String a = new String("a");
+    final String b = new String("a");
+    map.put(a, 1);
+    assertEquals(Integer.valueOf(1), map.get(a));
+    assertNull(map.get(b));
+    assertEquals(Integer.valueOf(1), map.putIfAbsent(a, 2));
+    assertNull(map.putIfAbsent(b, 2));
+    assertEquals(2, map.size());
+    assertEquals(Integer.valueOf(2), map.remove(b));
+    assertFalse(map.containsKey(b));
+    assertTrue(map.containsKey(a));
+  }
+
+  @Test
+  public void testPurge() throws InterruptedException {
+    final List<Integer> purged = new ArrayList<>();
+    final ConcurrentWeakIdentityHashMap<Object,Integer> map = new ConcurrentWeakIdentityHashMap<Object,Integer>() {
+      @Override
+      protected void purged(final Integer value) {
+        purged.add(value);
+      }
+    };
+
+    final Object retained = new Object();
+    map.put(retained, 0);
+    for (int i = 1; i <= 10; ++i)
+      map.put(new Object(), i);
+
+    for (int i = 0; i < 100 && map.size() > 1; ++i) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    assertEquals(1, map.size());
+    assertEquals(Integer.valueOf(0), map.get(retained));
+    assertEquals(10, purged.size());
+    for (int i = 1; i <= 10; ++i)
+      assertTrue(purged.contains(i));
+  }
+
+  @Test
+  public void testLookupAfterPurge() throws InterruptedException {
+    final ConcurrentWeakIdentityHashMap<Object,Integer> map = new ConcurrentWeakIdentityHashMap<>();
+    final Object a = new Object();
+    final Object b = new Object();
+    final Object c = new Object();
+    map.put(a, 1);
+    map.put(b, 2);
+    map.put(c, 3);
+    for (int i = 0; i < 100; ++i)
+      map.put(new Object(), -i);
+
+    for (int i = 0; i < 100 && map.size() > 3; ++i) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    assertEquals(3, map.size());
+    assertEquals(Integer.valueOf(1), map.get(a));
+    assertTrue(map.containsKey(b));
+    assertFalse(map.containsKey(new Object()));
+    assertNull(map.get(new Object()));
+
+    assertFalse(map.remove(b, 1));
+    assertTrue(map.remove(b, 2));
+    assertFalse(map.containsKey(b));
+    assertNull(map.get(b));
+
+    assertEquals(Integer.valueOf(3), map.remove(c));
+    assertNull(map.remove(c));
+    assertFalse(map.containsKey(c));
+    assertEquals(1, map.size());
+  }
+}
@@ -0,0 +1,70 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link InjectionPlan}.
+ *
+ * @author Seva Safris
+ */
+public class InjectionPlanTest {
+  @Test
+  public void testRoundTrip() throws IOException {
+    final InjectionPlan expected = new InjectionPlan(Arrays.asList("a.I", "a.A", "a.B"), Arrays.asList("b.C"));
+    final InjectionPlan actual = InjectionPlan.parse(expected.toString());
+    assertEquals(expected.getEager(), actual.getEager());
+    assertEquals(expected.getLazy(), actual.getLazy());
+
+    final File file = File.createTempFile("injection", ".plan");
+    file.deleteOnExit();
+    expected.toFile(file);
+    assertEquals(expected.toString(), new String(Files.readAllBytes(file.toPath())));
+  }
+
+  @Test
+  public void testParse() {
+    final InjectionPlan plan = InjectionPlan.parse("\n# eager\n a.I \n\na.A\n# lazy\nb.C\n# eager\na.B");
+    assertEquals(Arrays.asList("a.I", "a.A", "a.B"), plan.getEager());
+    assertEquals(Collections.singletonList("b.C"), plan.getLazy());
+  }
+
+  @Test
+  public void testParseEmpty() {
+    final InjectionPlan plan = InjectionPlan.parse("# eager\n# lazy\n");
+    assertTrue(plan.getEager().isEmpty());
+    assertTrue(plan.getLazy().isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParseNoSection() {
+    InjectionPlan.parse("a.A\n# eager\n");
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testUnmodifiable() {
+    new InjectionPlan(Arrays.asList("a.A"), Collections.<String>emptyList()).getEager().add("a.B");
+  }
+}
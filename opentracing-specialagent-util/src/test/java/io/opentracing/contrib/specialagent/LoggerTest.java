@@ -0,0 +1,54 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests for {@link Logger}.
+ *
+ * @author Seva Safris
+ */
+public class LoggerTest {
+  private static final Logger logger = Logger.getLogger(LoggerTest.class);
+
+  @After
+  public void after() {
+    System.clearProperty(Logger.LOG_LEVEL_PROPERTY);
+    Logger.setLevel(Level.INFO);
+  }
+
+  @Test
+  public void testRefreshLoggers() {
+    System.setProperty(Logger.LOG_LEVEL_PROPERTY, "FINEST");
+    Logger.refreshLoggers();
+    assertTrue(logger.isLoggable(Level.FINEST));
+  }
+
+  @Test
+  public void testRefreshByOtherCopy() {
+    System.setProperty(Logger.LOG_LEVEL_PROPERTY, "FINE");
+    assertFalse(logger.isLoggable(Level.FINE));
+
+    // Another copy of the Logger class that shares the generation refreshes
+    Logger.generation.incrementAndGet();
+    assertTrue(logger.isLoggable(Level.FINE));
+    assertFalse(logger.isLoggable(Level.FINER));
+  }
+}
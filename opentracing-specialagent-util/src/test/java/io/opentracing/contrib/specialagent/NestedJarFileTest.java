@@ -0,0 +1,165 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests for {@link NestedJarFile}.
+ *
+ * @author Seva Safris
+ */
+public class NestedJarFileTest {
+  private static final String PATH = "META-INF/opentracing-specialagent/";
+  private static final byte[] deflated = "deflated content deflated content deflated content".getBytes();
+  private static final byte[] stored = "stored content".getBytes();
+  private static File jarFile;
+
+  private static void putEntry(final ZipOutputStream out, final String name, final byte[] bytes, final boolean store) throws IOException {
+    final ZipEntry entry = new ZipEntry(name);
+    if (store) {
+      final CRC32 crc = new CRC32();
+      crc.update(bytes);
+      entry.setMethod(ZipEntry.STORED);
+      entry.setSize(bytes.length);
+      entry.setCompressedSize(bytes.length);
+      entry.setCrc(crc.getValue());
+    }
+
+    out.putNextEntry(entry);
+    out.write(bytes);
+    out.closeEntry();
+  }
+
+  private static byte[] newJar() throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (final ZipOutputStream out = new ZipOutputStream(bytes)) {
+      putEntry(out, "META-INF/", new byte[0], true);
+      putEntry(out, "a/deflated.txt", deflated, false);
+      putEntry(out, "a/stored.txt", stored, true);
+      putEntry(out, "sa.rule.name.test", "test.Adapter".getBytes(), false);
+    }
+
+    return bytes.toByteArray();
+  }
+
+  @BeforeClass
+  public static void beforeClass() throws IOException {
+    jarFile = File.createTempFile("nested", ".jar");
+    jarFile.deleteOnExit();
+    try (final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jarFile))) {
+      putEntry(out, PATH + "stored.jar", newJar(), true);
+      putEntry(out, PATH + "deflated.jar", newJar(), false);
+    }
+  }
+
+  private static byte[] readBytes(final InputStream in) throws IOException {
+    try {
+      return AssembleUtil.readBytes(in);
+    }
+    finally {
+      in.close();
+    }
+  }
+
+  @Test
+  public void testOpen() throws IOException {
+    assertNull(NestedJarFile.open(jarFile, PATH + "deflated.jar"));
+    try {
+      NestedJarFile.open(jarFile, PATH + "missing.jar");
+      fail("Expected IOException");
+    }
+    catch (final IOException e) {
+    }
+
+    final NestedJarFile file = NestedJarFile.open(jarFile, PATH + "stored.jar");
+    assertNotNull(file);
+    assertSame(file, NestedJarFile.open(jarFile, PATH + "stored.jar"));
+    assertEquals("stored.jar", file.getName());
+    assertTrue(file.isFile());
+    assertFalse(file.isDirectory());
+    assertSame(file, file.getAbsoluteFile());
+    assertEquals(new File(file.getPath()), file);
+    assertEquals(Arrays.asList("META-INF/", "a/deflated.txt", "a/stored.txt", "sa.rule.name.test"), Arrays.asList(file.getEntryNames().toArray()));
+  }
+
+  @Test
+  public void testRead() throws IOException {
+    final NestedJarFile file = NestedJarFile.open(jarFile, PATH + "stored.jar");
+    assertArrayEquals(deflated, file.getBytes("a/deflated.txt"));
+    assertArrayEquals(stored, file.getBytes("a/stored.txt"));
+    assertArrayEquals(deflated, readBytes(file.getInputStream("a/deflated.txt")));
+    assertArrayEquals(stored, readBytes(file.getInputStream("a/stored.txt")));
+    assertNull(file.getBytes("a/missing.txt"));
+    assertNull(file.getInputStream("a/missing.txt"));
+  }
+
+  @Test
+  public void testURL() throws IOException {
+    final NestedJarFile file = NestedJarFile.open(jarFile, PATH + "stored.jar");
+    assertSame(file, NestedJarFile.get(file.getURL()));
+    assertSame(file, AssembleUtil.getSourceLocation(file.getURL("a/stored.txt"), "a/stored.txt"));
+    assertEquals(file.getURL(), AssembleUtil.toURL(file));
+    assertArrayEquals(stored, readBytes(new URL(file.getURL(), "a/stored.txt").openStream()));
+
+    try (final URLClassLoader classLoader = new URLClassLoader(new URL[] {file.getURL()}, null)) {
+      assertArrayEquals(deflated, readBytes(classLoader.getResourceAsStream("a/deflated.txt")));
+      assertNull(classLoader.getResource("a/missing.txt"));
+      final Enumeration<URL> resources = classLoader.getResources("a/stored.txt");
+      assertEquals(Collections.singletonList(file.getURL("a/stored.txt")), Collections.list(resources));
+    }
+  }
+
+  @Test
+  public void testPluginManifest() throws IOException {
+    final NestedJarFile file = NestedJarFile.open(jarFile, PATH + "stored.jar");
+    final PluginManifest pluginManifest = PluginManifest.getPluginManifest(file);
+    assertNotNull(pluginManifest);
+    assertSame(file, pluginManifest.file);
+    assertEquals("test", pluginManifest.name);
+    assertEquals("test.Adapter", pluginManifest.adapterClassName);
+    assertEquals(file.getURL("fingerprint.bin"), pluginManifest.getFingerprint());
+  }
+
+  @Test
+  public void testExtract() throws IOException {
+    final NestedJarFile file = NestedJarFile.open(jarFile, PATH + "stored.jar");
+    final File extracted = file.extract();
+    assertSame(extracted, file.extract());
+    try (final ZipFile zipFile = new ZipFile(extracted)) {
+      assertArrayEquals(deflated, readBytes(zipFile.getInputStream(zipFile.getEntry("a/deflated.txt"))));
+      assertArrayEquals(stored, readBytes(zipFile.getInputStream(zipFile.getEntry("a/stored.txt"))));
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe Bloom filter of strings, which supports concurrent additions
+ * and lookups. A negative result of {@link #mightContain(String)} is
+ * definitive, and a positive result may be a false positive.
+ * <p>
+ * The bit indexes of a string are derived from {@link String#hashCode()} with
+ * double hashing, so no allocation is performed by {@link #add(String)} or
+ * {@link #mightContain(String)}.
+ *
+ * @author Seva Safris
+ */
+class BloomFilter {
+  private final AtomicLongArray bits;
+  private final int mask;
+  private final int hashes;
+
+  /**
+   * Creates a new {@code BloomFilter} with the specified number of bits and
+   * hash functions.
+   *
+   * @param log2Bits The base 2 logarithm of the number of bits in the filter.
+   * @param hashes The number of hash functions.
+   * @throws IllegalArgumentException If {@code log2Bits} is not between 6 and
+   *           30, or if {@code hashes} is less than 1.
+   */
+  BloomFilter(final int log2Bits, final int hashes) {
+    if (log2Bits < 6 || log2Bits > 30)
+      throw new IllegalArgumentException("log2Bits (" + log2Bits + ") must be between 6 and 30");
+
+    if (hashes < 1)
+      throw new IllegalArgumentException("hashes (" + hashes + ") must be positive");
+
+    this.bits = new AtomicLongArray(1 << (log2Bits - 6));
+    this.mask = (1 << log2Bits) - 1;
+    this.hashes = hashes;
+  }
+
+  private static int mix(int h) {
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h | 1;
+  }
+
+  /**
+   * Adds the specified string to this filter.
+   *
+   * @param str The string to add.
+   * @throws NullPointerException If the specified string is null.
+   */
+  void add(final String str) {
+    final int h1 = str.hashCode();
+    final int h2 = mix(h1);
+    for (int i = 0; i < hashes; ++i) {
+      final int bit = (h1 + i * h2) & mask;
+      final int index = bit >>> 6;
+      final long value = 1L << bit;
+      for (long prev; ((prev = bits.get(index)) & value) == 0 && !bits.compareAndSet(index, prev, prev | value););
+    }
+  }
+
+  /**
+   * Tests whether the specified string might have been added to this filter.
+   *
+   * @param str The string to test.
+   * @return {@code false} if the specified string has definitely not been added
+   *         to this filter, otherwise {@code true}.
+   * @throws NullPointerException If the specified string is null.
+   */
+  boolean mightContain(final String str) {
+    final int h1 = str.hashCode();
+    final int h2 = mix(h1);
+    for (int i = 0; i < hashes; ++i) {
+      final int bit = (h1 + i * h2) & mask;
+      if ((bits.get(bit >>> 6) & (1L << bit)) == 0)
+        return false;
+    }
+
+    return true;
+  }
+}
@@ -155,6 +155,7 @@ public class ByteBuddyManager extends Manager {
                 logger.fine("Installing rule: " + line);
 
               classNameToName.put(agentClass.getName(), pluginManifest.name);
+              AgentRule.$Access.resolveVerbose(pluginManifest.name);
               agentRule = (AgentRule)agentClass.getConstructor().newInstance();
               AgentRule.$Access.setPluginManifest(agentRule, pluginManifest);
               if (agentRule.isDeferrable(inst)) {
@@ -305,7 +306,9 @@ public class ByteBuddyManager extends Manager {
       // FIXME: Should remove the `pluginManifest != null` condition, because a pluginManifest here should be required!
       // FIXME: How to communicate an error here? Cause ByteBuddy swallows all exceptions in this context.
       final PluginManifest pluginManifest = this.pluginManifest != null ? this.pluginManifest : AgentRule.getPluginManifest(typeDescription);
-      if (pluginManifest != null && !SpecialAgent.linkRule(pluginManifest, classLoader))
+      // A type that is not yet loaded is being defined, which is usually within
+      // the loading of a class by classLoader
+      if (pluginManifest != null && !SpecialAgent.linkRule(pluginManifest, classLoader, loaded))
         throw new IncompatiblePluginException(typeDescription.getName());
 
       if (classLoader != null) {
@@ -16,23 +16,28 @@
 package io.opentracing.contrib.specialagent;
 
 import java.net.URLClassLoader;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * An implementation of {@link ConcurrentHashMap} that considers {@code null}
- * keys and values as the bootstrap class loader. Specifically, when
- * {@code key == null}, the key is set to {@link BootProxyClassLoader#INSTANCE};
- * when
+ * An implementation of {@link ConcurrentWeakIdentityHashMap} that considers
+ * {@code null} keys and values as the bootstrap class loader. Specifically,
+ * when {@code key == null}, the key is set to
+ * {@link BootProxyClassLoader#INSTANCE}; when
  * {@code value instanceof URLClassLoader && value.getURLs().length == 0 && value.getParent() == null},
  * the value is set to {@code null}.
+ * <p>
+ * Keys are held weakly, and are compared by identity. When a class loader is
+ * reclaimed by the garbage collector, its entry is purged from the map, and
+ * {@link #reclaimed(Object)} is called with the value of the purged entry.
  *
  * @param <T> The value type for the map.
  * @author Seva Safris
  */
-class ClassLoaderMap<T> extends ConcurrentHashMap<ClassLoader,T> {
-  private static final long serialVersionUID = 5515722666603482519L;
+class ClassLoaderMap<T> extends ConcurrentWeakIdentityHashMap<ClassLoader,T> {
   private static final ClassLoader NULL = BootProxyClassLoader.INSTANCE;
 
+  private final AtomicLong reclaimedCount = new AtomicLong();
+
   /**
    * This method is modified to support value lookups where the key is a "proxy"
    * class loader representing the bootstrap class loader. This pattern is used
@@ -42,7 +47,6 @@ class ClassLoaderMap<T> extends ConcurrentHashMap<ClassLoader,T> {
    * {@inheritDoc}
    */
   @Override
-  @SuppressWarnings("unlikely-arg-type")
   public T get(final Object key) {
     T value = super.get(key == null ? NULL : key);
     if (value != null || !(key instanceof URLClassLoader))
@@ -56,4 +60,56 @@ class ClassLoaderMap<T> extends ConcurrentHashMap<ClassLoader,T> {
   public T put(final ClassLoader key, final T value) {
     return super.put(key == null ? NULL : key, value);
   }
-}
\ No newline at end of file
+
+  @Override
+  public T putIfAbsent(final ClassLoader key, final T value) {
+    return super.putIfAbsent(key == null ? NULL : key, value);
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return super.containsKey(key == null ? NULL : key);
+  }
+
+  @Override
+  public T remove(final Object key) {
+    return super.remove(key == null ? NULL : key);
+  }
+
+  @Override
+  public boolean remove(final Object key, final Object value) {
+    return super.remove(key == null ? NULL : key, value);
+  }
+
+  @Override
+  protected final void purged(final T value) {
+    reclaimedCount.incrementAndGet();
+    reclaimed(value);
+  }
+
+  /**
+   * Callback that is invoked when the class loader key of an entry has been
+   * reclaimed by the garbage collector, and the entry has been purged from
+   * this map. The default implementation does nothing.
+   *
+   * @param value The value that was associated to the reclaimed class loader.
+   */
+  protected void reclaimed(final T value) {
+  }
+
+  /**
+   * @return The number of class loaders that are currently held (weakly) as
+   *         keys in this map.
+   */
+  public int getLiveCount() {
+    return size();
+  }
+
+  /**
+   * @return The number of class loaders that have been reclaimed by the
+   *         garbage collector, and consequently purged from this map.
+   */
+  public long getReclaimedCount() {
+    return reclaimedCount.get();
+  }
+}
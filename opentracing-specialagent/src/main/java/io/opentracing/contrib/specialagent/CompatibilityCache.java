@@ -0,0 +1,388 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * An on-disk cache of the results of fingerprint verification, which persists
+ * across restarts of the JVM. The cache is enabled with
+ * {@code -Dsa.cache.dir=<dir>}.
+ * <p>
+ * Each entry is keyed by the SHA-256 digest of:
+ * <ol>
+ * <li>The name of the plugin, and the digest of its {@code fingerprint.bin}
+ * (which changes with every change to the plugin's fingerprint).</li>
+ * <li>The digest of every code source in the target {@code ClassLoader} and
+ * its ancestors. The digest of a JAR is computed from the name, CRC-32 and
+ * size of each of its entries, as recorded in its central directory, so that
+ * a change to the content of any entry changes the key. The digest of a
+ * directory is computed from the name, size and last modified time of each of
+ * its files. The bootstrap and platform class loaders are represented by
+ * {@code java.home} and {@code java.vm.version}.</li>
+ * </ol>
+ * The digest of a {@code ClassLoader} is memoized together with the number of
+ * URLs of each {@link URLClassLoader} in its chain, and the value of
+ * {@code java.class.path}, so that a class loader that gains code sources
+ * (i.e. with {@code URLClassLoader.addURL(URL)}, or
+ * {@code Instrumentation.appendToSystemClassLoaderSearch(JarFile)}) is
+ * digested again. The digest of a code source is memoized together with its
+ * size and last modified time.
+ * Class loaders whose code sources cannot be enumerated (i.e. that are not
+ * {@link URLClassLoader}s, or that have non-{@code file:} URLs) are not
+ * cached.
+ *
+ * @author Seva Safris
+ */
+final class CompatibilityCache {
+  private static final Logger logger = Logger.getLogger(CompatibilityCache.class);
+  static final String CACHE_DIR = "sa.cache.dir";
+  private static final int VERSION = 1;
+  private static final String UNCACHEABLE = "";
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private static final CompatibilityCache instance;
+
+  static {
+    final String dir = System.getProperty(CACHE_DIR);
+    CompatibilityCache cache = null;
+    if (dir != null && dir.length() > 0) {
+      final File file = new File(dir);
+      if (file.isDirectory() || file.mkdirs())
+        cache = new CompatibilityCache(file);
+      else
+        logger.warning("Unable to create -D" + CACHE_DIR + "=" + dir + " -- compatibility cache is disabled");
+    }
+
+    instance = cache;
+  }
+
+  /**
+   * @return The {@link CompatibilityCache}, or {@code null} if
+   *         {@code -Dsa.cache.dir} is not set.
+   */
+  static CompatibilityCache get() {
+    return instance;
+  }
+
+  private final File dir;
+  private final ConcurrentHashMap<File,String> pluginFileToDigest = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String,Digest> codeSourceToDigest = new ConcurrentHashMap<>();
+  private final ClassLoaderMap<Digest> classLoaderToDigest = new ClassLoaderMap<>();
+
+  /**
+   * A digest, and the stamp of the state from which it was computed.
+   */
+  private static final class Digest {
+    private final String stamp;
+    private final String value;
+
+    private Digest(final String stamp, final String value) {
+      this.stamp = stamp;
+      this.value = value;
+    }
+  }
+
+  CompatibilityCache(final File dir) {
+    this.dir = dir;
+  }
+
+  /**
+   * Returns the key for the specified plugin and target {@code ClassLoader},
+   * or {@code null} if the combination cannot be cached.
+   *
+   * @param pluginManifest The {@link PluginManifest} of the plugin.
+   * @param classLoader The target {@code ClassLoader}.
+   * @return The key for the specified plugin and target {@code ClassLoader},
+   *         or {@code null} if the combination cannot be cached.
+   */
+  String key(final PluginManifest pluginManifest, final ClassLoader classLoader) {
+    try {
+      final String pluginDigest = getPluginDigest(pluginManifest);
+      if (pluginDigest == null)
+        return null;
+
+      final String classLoaderDigest = getClassLoaderDigest(classLoader);
+      if (classLoaderDigest == null)
+        return null;
+
+      return digest(VERSION + "\n" + pluginManifest.name + "\n" + pluginDigest + "\n" + classLoaderDigest);
+    }
+    catch (final IOException e) {
+      if (logger.isLoggable(Level.FINE))
+        logger.log(Level.FINE, "Unable to compute compatibility cache key for \"" + pluginManifest.name + "\" in " + AssembleUtil.getNameId(classLoader), e);
+
+      return null;
+    }
+  }
+
+  /**
+   * Returns the cached compatibility for the specified key.
+   *
+   * @param key The key, as returned by
+   *          {@link #key(PluginManifest,ClassLoader)}.
+   * @return The cached compatibility for the specified key, or {@code null}
+   *         if there is no entry for the key.
+   */
+  Boolean get(final String key) {
+    final File file = new File(dir, key);
+    if (!file.exists())
+      return null;
+
+    try {
+      final String value = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+      return "true".equals(value) ? Boolean.TRUE : "false".equals(value) ? Boolean.FALSE : null;
+    }
+    catch (final IOException e) {
+      logger.log(Level.WARNING, "Unable to read compatibility cache entry: " + file, e);
+      return null;
+    }
+  }
+
+  /**
+   * Records the compatibility for the specified key. The entry is written to a
+   * temporary file that is then moved into place, so that concurrent readers
+   * (in this or another JVM) never observe a partially written entry.
+   *
+   * @param key The key, as returned by
+   *          {@link #key(PluginManifest,ClassLoader)}.
+   * @param compatible The compatibility to record.
+   */
+  void put(final String key, final boolean compatible) {
+    final File file = new File(dir, key);
+    File tempFile = null;
+    try {
+      tempFile = File.createTempFile(key, ".tmp", dir);
+      Files.write(tempFile.toPath(), String.valueOf(compatible).getBytes(StandardCharsets.UTF_8));
+      try {
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      }
+      catch (final AtomicMoveNotSupportedException e) {
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    catch (final IOException e) {
+      logger.log(Level.WARNING, "Unable to write compatibility cache entry: " + file, e);
+      if (tempFile != null && !tempFile.delete())
+        tempFile.deleteOnExit();
+    }
+  }
+
+  private String getPluginDigest(final PluginManifest pluginManifest) throws IOException {
+    String digest = pluginFileToDigest.get(pluginManifest.file);
+    if (digest != null)
+      return digest == UNCACHEABLE ? null : digest;
+
+    final URL url = pluginManifest.getFingerprint();
+    try (final InputStream in = url.openStream()) {
+      digest = digest(AssembleUtil.readBytes(in));
+    }
+    catch (final IOException e) {
+      // No fingerprint.bin, so there is nothing to cache
+      digest = UNCACHEABLE;
+    }
+
+    pluginFileToDigest.put(pluginManifest.file, digest);
+    return digest == UNCACHEABLE ? null : digest;
+  }
+
+  private String getClassLoaderDigest(final ClassLoader classLoader) throws IOException {
+    final String stamp = getClassLoaderStamp(classLoader);
+    Digest digest = classLoaderToDigest.get(classLoader);
+    if (digest == null || !digest.stamp.equals(stamp)) {
+      final StringBuilder builder = new StringBuilder();
+      digest = new Digest(stamp, appendClassLoader(classLoader, builder) ? digest(builder.toString()) : UNCACHEABLE);
+      classLoaderToDigest.put(classLoader, digest);
+    }
+
+    return digest.value == UNCACHEABLE ? null : digest.value;
+  }
+
+  /**
+   * Returns a stamp of the code sources of the specified {@code ClassLoader}
+   * and its ancestors, which changes when any of them gains a code source.
+   *
+   * @param classLoader The {@code ClassLoader}.
+   * @return A stamp of the code sources of the specified {@code ClassLoader}
+   *         and its ancestors.
+   */
+  private static String getClassLoaderStamp(final ClassLoader classLoader) {
+    final ClassLoader systemClassLoader = ClassLoader.getSystemClassLoader();
+    final StringBuilder builder = new StringBuilder();
+    for (ClassLoader loader = classLoader; loader != null && loader != BootProxyClassLoader.INSTANCE; loader = loader.getParent()) {
+      if (loader instanceof URLClassLoader)
+        builder.append(((URLClassLoader)loader).getURLs().length);
+      else if (loader == systemClassLoader)
+        builder.append(System.getProperty("java.class.path"));
+
+      builder.append(File.pathSeparatorChar);
+    }
+
+    return builder.toString();
+  }
+
+  private boolean appendClassLoader(final ClassLoader classLoader, final StringBuilder builder) throws IOException {
+    final ClassLoader systemClassLoader = ClassLoader.getSystemClassLoader();
+    for (ClassLoader loader = classLoader; loader != null && loader != BootProxyClassLoader.INSTANCE; loader = loader.getParent()) {
+      if (loader instanceof URLClassLoader) {
+        if (!appendURLs(((URLClassLoader)loader).getURLs(), builder))
+          return false;
+      }
+      else if (loader == systemClassLoader) {
+        // Java 9+ application class loader
+        final String classpath = System.getProperty("java.class.path");
+        if (classpath == null)
+          return false;
+
+        for (final String path : classpath.split(File.pathSeparator))
+          if (path.length() > 0)
+            appendFile(new File(path), builder);
+      }
+      else if (systemClassLoader != null && loader == systemClassLoader.getParent()) {
+        // Java 9+ platform class loader, which is represented by the runtime
+        builder.append("platform\n");
+      }
+      else {
+        if (logger.isLoggable(Level.FINE))
+          logger.fine("Compatibility cache does not support " + AssembleUtil.getNameId(loader));
+
+        return false;
+      }
+    }
+
+    // The bootstrap class loader is represented by the runtime
+    builder.append(System.getProperty("java.home")).append('\n');
+    builder.append(System.getProperty("java.vm.version")).append('\n');
+    return true;
+  }
+
+  private boolean appendURLs(final URL[] urls, final StringBuilder builder) throws IOException {
+    for (final URL url : urls) {
+      if (!"file".equals(url.getProtocol()))
+        return false;
+
+      try {
+        appendFile(new File(url.toURI()), builder);
+      }
+      catch (final IllegalArgumentException | URISyntaxException e) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private void appendFile(final File file, final StringBuilder builder) throws IOException {
+    final String path = file.getAbsolutePath();
+    final String stamp = file.length() + ":" + file.lastModified();
+    Digest digest = codeSourceToDigest.get(path);
+    if (digest == null || !digest.stamp.equals(stamp)) {
+      digest = new Digest(stamp, !file.exists() ? "absent" : file.isDirectory() ? digestDirectory(file) : digestJar(file));
+      codeSourceToDigest.put(path, digest);
+    }
+
+    builder.append(path).append('=').append(digest.value).append('\n');
+  }
+
+  private static String digestJar(final File file) throws IOException {
+    final MessageDigest digest = newMessageDigest();
+    try (final ZipFile zipFile = new ZipFile(file)) {
+      final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        final ZipEntry entry = entries.nextElement();
+        digest.update(entry.getName().getBytes(StandardCharsets.UTF_8));
+        update(digest, entry.getCrc());
+        update(digest, entry.getSize());
+      }
+    }
+
+    update(digest, file.length());
+    return toHex(digest.digest());
+  }
+
+  private static String digestDirectory(final File dir) {
+    final MessageDigest digest = newMessageDigest();
+    digestDirectory(dir, "", digest);
+    return toHex(digest.digest());
+  }
+
+  private static void digestDirectory(final File dir, final String prefix, final MessageDigest digest) {
+    final File[] files = dir.listFiles();
+    if (files == null)
+      return;
+
+    Arrays.sort(files);
+    for (final File file : files) {
+      final String name = prefix + file.getName();
+      digest.update(name.getBytes(StandardCharsets.UTF_8));
+      if (file.isDirectory()) {
+        digestDirectory(file, name + "/", digest);
+      }
+      else {
+        update(digest, file.length());
+        update(digest, file.lastModified());
+      }
+    }
+  }
+
+  private static void update(final MessageDigest digest, final long value) {
+    for (int i = 56; i >= 0; i -= 8)
+      digest.update((byte)(value >>> i));
+  }
+
+  private static MessageDigest newMessageDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    }
+    catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String digest(final String string) {
+    return digest(string.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String digest(final byte[] bytes) {
+    return toHex(newMessageDigest().digest(bytes));
+  }
+
+  private static String toHex(final byte[] bytes) {
+    final char[] chars = new char[bytes.length * 2];
+    for (int i = 0; i < bytes.length; ++i) {
+      chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+      chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+    }
+
+    return new String(chars);
+  }
+}
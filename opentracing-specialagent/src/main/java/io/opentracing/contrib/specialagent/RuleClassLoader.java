@@ -21,8 +21,19 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * An {@link URLClassLoader} that encloses an Integration Rule, and provides the
@@ -39,90 +50,319 @@ class RuleClassLoader extends URLClassLoader {
   private static final String SKIP_FINGERPRINT = "sa.fingerprint.skip";
   private static final boolean skipFingerprint = AssembleUtil.isSystemProperty(SKIP_FINGERPRINT, null);
 
+  private static final String INJECT_PARALLEL = "sa.inject.parallel";
+  private static final boolean injectParallel = AssembleUtil.isSystemProperty(INJECT_PARALLEL, null);
+  private static final ConcurrentHashMap<String,AtomicLong> pluginNameToInjectNanos = new ConcurrentHashMap<>();
+
+  /** A completed injection, for target class loaders that need none. */
+  private static final FutureTask<Boolean> INJECTED = new FutureTask<>(new Callable<Boolean>() {
+    @Override
+    public Boolean call() {
+      return Boolean.TRUE;
+    }
+  });
+
+  static {
+    INJECTED.run();
+  }
+
   /**
-   * Callback that is used to load a class by the specified resource path into
-   * the provided {@code ClassLoader}. The {@code ClassNotFoundException}
-   * invokes {@link ClassLoaderAgent.LoadClass#exit}.
+   * Cache of {@code LibraryFingerprint} instances (loaded in the
+   * {@code IsoClassLoader}) by plugin file, so that the fingerprint of each
+   * plugin is decoded once, regardless of the number of {@code ClassLoader}s
+   * it is checked against.
    */
-  private static final BiConsumer<String,ClassLoader> loadClass = new BiConsumer<String,ClassLoader>() {
-    @Override
-    public void accept(final String path, final ClassLoader classLoader) {
-      final String className = AssembleUtil.resourceToClassName(path);
-      if (logger.isLoggable(Level.FINEST))
-        logger.finest("Class.forName(\"" + className + "\", false, " + AssembleUtil.getNameId(classLoader) + ")");
+  private static final ConcurrentHashMap<File,Object> pluginFileToFingerprint = new ConcurrentHashMap<>();
+  private static final Object NO_FINGERPRINT = new Object();
+  private static Method fromFileMethod;
+  private static Method isCompatibleMethod;
 
-      try {
-        Class.forName(className, false, classLoader);
+  /**
+   * Loads the class by the specified name into the provided
+   * {@code ClassLoader}. The {@code ClassNotFoundException} invokes
+   * {@link ClassLoaderAgent.LoadClass#exit}.
+   *
+   * @param className The name of the class to load.
+   * @param classLoader The {@code ClassLoader} into which to load the class.
+   */
+  private static void loadClass(final String className, final ClassLoader classLoader) {
+    if (logger.isLoggable(Level.FINEST))
+      logger.finest("Class.forName(\"" + className + "\", false, " + AssembleUtil.getNameId(classLoader) + ")");
+
+    try {
+      Class.forName(className, false, classLoader);
+    }
+    catch (final ClassNotFoundException e) {
+    }
+  }
+
+  /**
+   * Holder of the {@code ExecutorService} for the parallel preloading of
+   * classes, which is only initialized if {@code -Dsa.inject.parallel} is
+   * specified.
+   */
+  private static final class Preloader {
+    private static final ThreadGroup threadGroup = new ThreadGroup("specialagent-inject");
+    private static final int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+      private final AtomicInteger counter = new AtomicInteger();
+
+      @Override
+      public Thread newThread(final Runnable r) {
+        final Thread thread = new Thread(threadGroup, r, threadGroup.getName() + "-" + counter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
       }
-      catch (final ClassNotFoundException e) {
+    });
+
+    /**
+     * @return Whether the current thread is a thread of the
+     *         {@code Preloader}, in which case nested injections must not be
+     *         submitted to the {@code Preloader}.
+     */
+    private static boolean isPreloaderThread() {
+      return Thread.currentThread().getThreadGroup() == threadGroup;
+    }
+
+    private static void preload(final List<String> classNames, final ClassLoader classLoader) throws InterruptedException, ExecutionException {
+      final int chunk = (classNames.size() + threads - 1) / threads;
+      final ArrayList<Future<?>> futures = new ArrayList<>(threads);
+      for (int i = 0; i < classNames.size(); i += chunk) {
+        final List<String> subList = classNames.subList(i, Math.min(i + chunk, classNames.size()));
+        futures.add(executor.submit(new Runnable() {
+          @Override
+          public void run() {
+            for (int j = 0; j < subList.size(); ++j)
+              loadClass(subList.get(j), classLoader);
+          }
+        }));
       }
+
+      for (final Future<?> future : futures)
+        future.get();
     }
-  };
+
+    private Preloader() {
+    }
+  }
+
+  private static Method isRegisteredAsParallelCapable;
+  private static Method getClassLoadingLock;
+
+  /**
+   * Returns whether the specified {@code ClassLoader} is registered as
+   * parallel capable, in which case it does not synchronize on its own monitor
+   * when loading classes.
+   *
+   * @param classLoader The {@code ClassLoader}.
+   * @return Whether the specified {@code ClassLoader} is registered as
+   *         parallel capable.
+   */
+  static boolean isParallelCapable(final ClassLoader classLoader) {
+    try {
+      // Java 9+
+      if (isRegisteredAsParallelCapable == null && getClassLoadingLock == null) {
+        try {
+          isRegisteredAsParallelCapable = ClassLoader.class.getMethod("isRegisteredAsParallelCapable");
+        }
+        catch (final NoSuchMethodException e) {
+          // Java 7 and 8
+          final Method method = ClassLoader.class.getDeclaredMethod("getClassLoadingLock", String.class);
+          method.setAccessible(true);
+          getClassLoadingLock = method;
+        }
+      }
+
+      return isRegisteredAsParallelCapable != null ? (Boolean)isRegisteredAsParallelCapable.invoke(classLoader) : getClassLoadingLock.invoke(classLoader, "") != classLoader;
+    }
+    catch (final IllegalAccessException | InvocationTargetException | NoSuchMethodException | RuntimeException e) {
+      if (logger.isLoggable(Level.FINE))
+        logger.log(Level.FINE, "Unable to determine whether " + AssembleUtil.getNameId(classLoader) + " is parallel capable", e);
+
+      return false;
+    }
+  }
 
   private final ClassLoaderMap<Boolean> compatibility = new ClassLoaderMap<>();
-  private final ClassLoaderMap<Boolean> injected = new ClassLoaderMap<>();
+  private final ClassLoaderMap<Future<Boolean>> injected = new ClassLoaderMap<>();
   private final PluginManifest pluginManifest;
   private final ClassLoader isoClassLoader;
+  private final File[] files;
+  private volatile RuleIndex index;
 
   /**
-   * Creates a new {@code RuleClassLoader} with the specified classpath URLs and
-   * parent {@code ClassLoader}.
+   * Creates a new {@code RuleClassLoader} with the specified classpath URLs for
+   * the provided target {@code ClassLoader}.
+   * <p>
+   * The {@code RuleClassLoader} is created without a parent, so as to not hold
+   * a strong reference to the target {@code ClassLoader}. This allows the
+   * target {@code ClassLoader} to be reclaimed by the garbage collector when it
+   * is no longer used by the application (i.e. when a webapp is undeployed).
    *
    * @param pluginManifest The {@link PluginManifest}.
    * @param isoClassLoader {@code IsoClassLoader} supplying classes that are
    *          isolated from parent class loaders.
-   * @param parent The parent {@code ClassLoader}.
+   * @param classLoader The target {@code ClassLoader}.
    * @param files The classpath URLs.
    */
-  RuleClassLoader(final PluginManifest pluginManifest, final ClassLoader isoClassLoader, final ClassLoader parent, final File ... files) {
-    super(AssembleUtil.toURLs(files), parent);
+  RuleClassLoader(final PluginManifest pluginManifest, final ClassLoader isoClassLoader, final ClassLoader classLoader, final File ... files) {
+    super(AssembleUtil.toURLs(files), null);
     this.pluginManifest = pluginManifest;
     this.isoClassLoader = isoClassLoader;
-    if (parent == null || parent == ClassLoader.getSystemClassLoader())
-      injected.put(parent, Boolean.TRUE);
+    this.files = files;
+    if (classLoader == null || classLoader == ClassLoader.getSystemClassLoader())
+      injected.put(classLoader, INJECTED);
   }
 
   /**
    * Injects classes of the {@code RuleClassLoader} into the specified
    * {@link ClassLoader classLoader} by calling
-   * {@link Class#forName(String,boolean,ClassLoader)} on all classes belonging
-   * to this class loader to be attempted to be found by the specified
-   * {@link ClassLoader classLoader}. A side-effect of this procedure is that is
-   * will load all dependent classes that are also needed to be loaded, which
-   * may belong to a different class loader (i.e. the parent, or parent's
-   * parent, and so on).
+   * {@link Class#forName(String,boolean,ClassLoader)} on the classes to be
+   * preloaded as per {@link RuleIndex#getPreloadClassNames()}. A side-effect of
+   * this procedure is that is will load all dependent classes that are also
+   * needed to be loaded, which may belong to a different class loader (i.e. the
+   * parent, or parent's parent, and so on). Classes that are not preloaded are
+   * loaded on demand by the {@link ClassLoaderAgent}.
+   * <p>
+   * The injection into each {@link ClassLoader classLoader} is performed once.
+   * Concurrent callers wait for the injection to complete, except for nested
+   * calls from the thread performing the injection, or from the threads
+   * preloading classes on its behalf. If the specified
+   * {@link ClassLoader classLoader} is not parallel capable, the classes are
+   * preloaded while holding its monitor. Otherwise, the monitor is not held,
+   * and, if {@code -Dsa.inject.parallel} is specified and
+   * {@code allowParallel} is {@code true}, the classes are preloaded in
+   * parallel.
    *
    * @param classLoader The target {@code ClassLoader} of the injection.
+   * @param allowParallel Whether the classes may be preloaded in parallel. This
+   *          must be {@code false} if the caller may be within the loading of
+   *          a class by {@code classLoader}, because the caller may hold a
+   *          class loading lock that the threads preloading classes on its
+   *          behalf need, and would thus deadlock.
    */
-  void inject(final ClassLoader classLoader) {
-    if (injected.containsKey(classLoader))
+  void inject(final ClassLoader classLoader, final boolean allowParallel) {
+    final Future<Boolean> injection = injected.get(classLoader);
+    if (injection != null && (injection.isDone() || Preloader.isPreloaderThread()))
       return;
 
+    if (isParallelCapable(classLoader)) {
+      SpecialAgentUtil.computeOnce(injected, classLoader, new Callable<Boolean>() {
+        @Override
+        public Boolean call() {
+          preload(classLoader, allowParallel && injectParallel && !Preloader.isPreloaderThread());
+          return Boolean.TRUE;
+        }
+      });
+
+      return;
+    }
+
     synchronized (classLoader) {
-      if (injected.containsKey(classLoader))
-        return;
+      SpecialAgentUtil.computeOnce(injected, classLoader, new Callable<Boolean>() {
+        @Override
+        public Boolean call() {
+          preload(classLoader, false);
+          return Boolean.TRUE;
+        }
+      });
+    }
+  }
 
-      if (logger.isLoggable(Level.FINE))
-        logger.fine("RuleClassLoader<" + AssembleUtil.getNameId(this) + ">.inject(" + AssembleUtil.getNameId(classLoader) + ")");
+  private void preload(final ClassLoader classLoader, final boolean parallel) {
+    if (logger.isLoggable(Level.FINE))
+      logger.fine("RuleClassLoader<" + AssembleUtil.getNameId(this) + ">.inject(" + AssembleUtil.getNameId(classLoader) + ")" + (parallel ? " [parallel]" : ""));
 
-      // Call Class.forName(...) for each class in ruleClassLoader to load in
+    final long startTime = System.nanoTime();
+    final List<String> classNames = getIndex().getPreloadClassNames();
+    try {
+      // Call Class.forName(...) for each class to be preloaded to load in
       // the caller's class loader.
-      try {
-        injected.put(classLoader, Boolean.FALSE);
-        AssembleUtil.<ClassLoader>forEachClass(getURLs(), classLoader, loadClass);
+      if (parallel && classNames.size() > 1) {
+        Preloader.preload(classNames, classLoader);
       }
-      catch (final IOException e) {
-        throw new IllegalStateException(e);
+      else {
+        for (int i = 0; i < classNames.size(); ++i)
+          loadClass(classNames.get(i), classLoader);
       }
-      finally {
-        injected.put(classLoader, Boolean.TRUE);
+    }
+    catch (final ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+    finally {
+      final long time = System.nanoTime() - startTime;
+      AtomicLong pluginTime = pluginNameToInjectNanos.get(pluginManifest.name);
+      if (pluginTime == null) {
+        final AtomicLong exists = pluginNameToInjectNanos.putIfAbsent(pluginManifest.name, pluginTime = new AtomicLong());
+        if (exists != null)
+          pluginTime = exists;
       }
+
+      final long totalTime = pluginTime.addAndGet(time);
+      if (logger.isLoggable(Level.FINE))
+        logger.fine("[" + pluginManifest.name + "] Preloaded " + classNames.size() + " classes into " + AssembleUtil.getNameId(classLoader) + " in " + (time / 1000000d) + "ms (total for rule: " + (totalTime / 1000000d) + "ms)");
     }
   }
 
+  /**
+   * Returns the cumulative time spent preloading classes of the Integration
+   * Rule by the specified name into all target class loaders.
+   *
+   * @param pluginName The name of the Integration Rule.
+   * @return The cumulative time spent preloading classes of the Integration
+   *         Rule by the specified name, in nanoseconds.
+   */
+  static long getInjectNanos(final String pluginName) {
+    final AtomicLong time = pluginNameToInjectNanos.get(pluginName);
+    return time == null ? 0 : time.get();
+  }
+
+  /**
+   * Returns the {@link RuleIndex} of the classes and resources supplied by this
+   * {@code RuleClassLoader}. The {@link RuleIndex} is built once per
+   * Integration Rule, and is shared by all {@code RuleClassLoader}s of the
+   * rule.
+   *
+   * @return The {@link RuleIndex} of the classes and resources supplied by
+   *         this {@code RuleClassLoader}.
+   */
+  RuleIndex getIndex() {
+    return index == null ? index = RuleIndex.get(pluginManifest.file, files) : index;
+  }
+
   boolean isClosed(final ClassLoader classLoader) {
-    final Boolean preLoaded = injected.get(classLoader);
-    return preLoaded != null && preLoaded;
+    final Future<Boolean> injection = injected.get(classLoader);
+    return injection != null && injection.isDone();
+  }
+
+  /**
+   * Returns {@code true} if this {@code RuleClassLoader} no longer supplies
+   * classes to the {@link ClassLoader targetLoader} via the
+   * {@link ClassLoader contextLoader}, which is the target loader itself or one
+   * of its ancestors.
+   * <p>
+   * Once injected into {@link ClassLoader contextLoader}, this
+   * {@code RuleClassLoader} is closed to its child class loaders, because the
+   * injected classes are resolved via the parent delegation of
+   * {@link ClassLoader contextLoader}. It is, however, not closed to
+   * {@link ClassLoader contextLoader} itself, because the classes that are not
+   * preloaded upon injection (i.e. the lazy classes of the
+   * {@link InjectionPlan}) are loaded on demand.
+   *
+   * @param targetLoader The {@link ClassLoader} that is loading the class.
+   * @param contextLoader The {@link ClassLoader} to which this
+   *          {@code RuleClassLoader} is linked, which is
+   *          {@link ClassLoader targetLoader} or one of its ancestors.
+   * @return {@code true} if this {@code RuleClassLoader} no longer supplies
+   *         classes to {@link ClassLoader targetLoader} via
+   *         {@link ClassLoader contextLoader}.
+   */
+  boolean isClosed(final ClassLoader targetLoader, final ClassLoader contextLoader) {
+    return targetLoader != contextLoader && isClosed(contextLoader);
   }
 
   /**
@@ -180,11 +420,28 @@ class RuleClassLoader extends URLClassLoader {
       return true;
     }
 
-    final Class<?> libraryFingerprintClass = isoClassLoader.loadClass("io.opentracing.contrib.specialagent.LibraryFingerprint");
-    final Method fromFileMethod = libraryFingerprintClass.getDeclaredMethod("fromFile", URL.class);
-    final Object fingerprint = fromFileMethod.invoke(null, pluginManifest.getFingerprint());
-    if (fingerprint != null) {
-      final Method isCompatibleMethod = libraryFingerprintClass.getDeclaredMethod("isCompatible", ClassLoader.class);
+    final CompatibilityCache cache = CompatibilityCache.get();
+    final String key = cache == null ? null : cache.key(pluginManifest, classLoader);
+    if (key != null) {
+      final Boolean cached = cache.get(key);
+      if (cached != null) {
+        if (logger.isLoggable(Level.FINE))
+          logger.fine((cached ? "Allowing" : "Disallowing") + " integration with \"" + pluginManifest.name + "\" due to \"-D" + CompatibilityCache.CACHE_DIR + "\" entry " + key + "\nin:\n" + AssembleUtil.toIndentedString(getURLs()));
+
+        return cached;
+      }
+    }
+
+    final boolean compatible = verifyFingerprint(classLoader);
+    if (key != null)
+      cache.put(key, compatible);
+
+    return compatible;
+  }
+
+  private boolean verifyFingerprint(final ClassLoader classLoader) throws ClassNotFoundException, IllegalAccessException, InvocationTargetException, NoSuchMethodException {
+    final Object fingerprint = getFingerprint();
+    if (fingerprint != NO_FINGERPRINT) {
       final List<?> errors = (List<?>)isCompatibleMethod.invoke(fingerprint, classLoader);
       if (errors != null) {
         if (logger.isLoggable(Level.FINE))
@@ -205,6 +462,36 @@ class RuleClassLoader extends URLClassLoader {
     return true;
   }
 
+  /**
+   * Returns the {@code LibraryFingerprint} of the plugin represented by this
+   * {@code RuleClassLoader}, which is decoded on first access, and shared
+   * amongst all {@code RuleClassLoader}s of the plugin.
+   *
+   * @return The {@code LibraryFingerprint} of the plugin represented by this
+   *         {@code RuleClassLoader}, or {@link #NO_FINGERPRINT} if the plugin
+   *         does not have a fingerprint.
+   */
+  private Object getFingerprint() throws ClassNotFoundException, IllegalAccessException, InvocationTargetException, NoSuchMethodException {
+    Object fingerprint = pluginFileToFingerprint.get(pluginManifest.file);
+    if (fingerprint != null)
+      return fingerprint;
+
+    synchronized (pluginFileToFingerprint) {
+      if (fromFileMethod == null) {
+        final Class<?> libraryFingerprintClass = isoClassLoader.loadClass("io.opentracing.contrib.specialagent.LibraryFingerprint");
+        fromFileMethod = libraryFingerprintClass.getDeclaredMethod("fromFile", URL.class);
+        isCompatibleMethod = libraryFingerprintClass.getDeclaredMethod("isCompatible", ClassLoader.class);
+      }
+    }
+
+    fingerprint = fromFileMethod.invoke(null, pluginManifest.getFingerprint());
+    if (fingerprint == null)
+      fingerprint = NO_FINGERPRINT;
+
+    final Object existing = pluginFileToFingerprint.putIfAbsent(pluginManifest.file, fingerprint);
+    return existing != null ? existing : fingerprint;
+  }
+
   @Override
   public String toString() {
     return Arrays.toString(getURLs());
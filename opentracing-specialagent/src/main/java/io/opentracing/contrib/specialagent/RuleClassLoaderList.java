@@ -0,0 +1,128 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An {@link IdentityList} of the {@link RuleClassLoader}s linked to a target
+ * {@code ClassLoader}, which maintains a combined lookup table from the name
+ * of each class or resource to the {@link RuleClassLoader}s that supply it.
+ * The lookup table is updated when a {@link RuleClassLoader} is added,
+ * removed or replaced, such that a lookup of a name costs a single hash probe, regardless of the number
+ * of linked {@link RuleClassLoader}s.
+ * <p>
+ * Modifications to this list must be synchronized on the list instance.
+ *
+ * @author Seva Safris
+ */
+class RuleClassLoaderList extends IdentityList<RuleClassLoader> {
+  private static final long serialVersionUID = -2637187163616932489L;
+
+  private final ConcurrentHashMap<String,RuleClassLoader[]> nameToRuleClassLoaders = new ConcurrentHashMap<>();
+
+  /**
+   * Appends the specified {@link RuleClassLoader} to the entries of each name
+   * it supplies in the provided lookup table.
+   *
+   * @param nameToRuleClassLoaders The lookup table.
+   * @param element The {@link RuleClassLoader}.
+   */
+  private static void append(final Map<String,RuleClassLoader[]> nameToRuleClassLoaders, final RuleClassLoader element) {
+    for (final String name : element.getIndex().getNames()) {
+      final RuleClassLoader[] ruleClassLoaders = nameToRuleClassLoaders.get(name);
+      if (ruleClassLoaders == null) {
+        nameToRuleClassLoaders.put(name, new RuleClassLoader[] {element});
+      }
+      else {
+        final RuleClassLoader[] expanded = Arrays.copyOf(ruleClassLoaders, ruleClassLoaders.length + 1);
+        expanded[ruleClassLoaders.length] = element;
+        nameToRuleClassLoaders.put(name, expanded);
+      }
+    }
+  }
+
+  RuleClassLoaderList() {
+    super(new ArrayList<RuleClassLoader>());
+  }
+
+  @Override
+  public void add(final int index, final RuleClassLoader element) {
+    super.add(index, element);
+    if (index < size() - 1) {
+      rebuild();
+      return;
+    }
+
+    append(nameToRuleClassLoaders, element);
+  }
+
+  @Override
+  public RuleClassLoader remove(final int index) {
+    final RuleClassLoader removed = super.remove(index);
+    rebuild();
+    return removed;
+  }
+
+  @Override
+  public RuleClassLoader set(final int index, final RuleClassLoader element) {
+    final RuleClassLoader replaced = super.set(index, element);
+    rebuild();
+    return replaced;
+  }
+
+  @Override
+  public void clear() {
+    for (int i = size() - 1; i >= 0; --i)
+      super.remove(i);
+
+    nameToRuleClassLoaders.clear();
+  }
+
+  /**
+   * Rebuilds the lookup table from the {@link RuleClassLoader}s in this list.
+   * Entries are replaced one name at a time, so that a concurrent
+   * {@link #lookup(String)} sees either the previous or the rebuilt entry of a
+   * name, but never a missing entry for a name that is supplied both before
+   * and after the modification.
+   */
+  private void rebuild() {
+    final HashMap<String,RuleClassLoader[]> rebuilt = new HashMap<>();
+    for (int i = 0; i < size(); ++i)
+      append(rebuilt, get(i));
+
+    nameToRuleClassLoaders.putAll(rebuilt);
+    nameToRuleClassLoaders.keySet().retainAll(rebuilt.keySet());
+  }
+
+  /**
+   * Returns the {@link RuleClassLoader}s that supply the class or resource by
+   * the specified name, in the order they appear in this list, or
+   * {@code null} if no {@link RuleClassLoader} in this list supplies the name.
+   *
+   * @param name The resource name of the class or resource.
+   * @return The {@link RuleClassLoader}s that supply the class or resource by
+   *         the specified name, or {@code null} if no {@link RuleClassLoader}
+   *         in this list supplies the name.
+   */
+  RuleClassLoader[] lookup(final String name) {
+    return nameToRuleClassLoaders.get(name);
+  }
+}
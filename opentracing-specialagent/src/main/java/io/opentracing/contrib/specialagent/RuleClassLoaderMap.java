@@ -0,0 +1,88 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A {@link ClassLoaderMap} of target class loaders to their linked
+ * {@link RuleClassLoader}s, which closes the {@link RuleClassLoader}s of a
+ * target class loader when it is reclaimed by the garbage collector.
+ * <p>
+ * Reclaimed entries are purged by whichever thread next accesses the map,
+ * which is usually an application thread in the middle of loading a class.
+ * Therefore, the closing of the {@link RuleClassLoader}s is handed off to a
+ * single daemon thread.
+ *
+ * @author Seva Safris
+ */
+class RuleClassLoaderMap extends ClassLoaderMap<RuleClassLoaderList> {
+  private static final Logger logger = Logger.getLogger(RuleClassLoaderMap.class);
+
+  /**
+   * Holder of the {@code ExecutorService} that closes the
+   * {@link RuleClassLoader}s of reclaimed class loaders, which is only
+   * initialized when the first class loader is reclaimed.
+   */
+  private static final class Closer {
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(final Runnable r) {
+        final Thread thread = new Thread(r, "specialagent-closer");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+
+    private Closer() {
+    }
+  }
+
+  @Override
+  protected void reclaimed(final RuleClassLoaderList ruleClassLoaders) {
+    Closer.executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        close(ruleClassLoaders);
+      }
+    });
+  }
+
+  /**
+   * Closes the specified {@link RuleClassLoader}s of a reclaimed class loader.
+   * This method is called from the daemon thread of this class.
+   *
+   * @param ruleClassLoaders The {@link RuleClassLoader}s to close.
+   */
+  void close(final RuleClassLoaderList ruleClassLoaders) {
+    synchronized (ruleClassLoaders) {
+      for (final RuleClassLoader ruleClassLoader : ruleClassLoaders) {
+        try {
+          ruleClassLoader.close();
+        }
+        catch (final IOException e) {
+          logger.log(Level.WARNING, "Failed to close " + RuleClassLoader.class.getSimpleName() + ": " + AssembleUtil.getNameId(ruleClassLoader), e);
+        }
+      }
+    }
+
+    if (logger.isLoggable(Level.FINE))
+      logger.fine("Closed " + ruleClassLoaders.size() + " " + RuleClassLoader.class.getSimpleName() + "(s) of reclaimed class loader [live: " + getLiveCount() + ", reclaimed: " + getReclaimedCount() + "]");
+  }
+}
@@ -0,0 +1,254 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+/**
+ * An immutable index of the names of all classes and resources supplied by the
+ * JARs (or directories) of an Integration Rule. The index is built once per
+ * Integration Rule from the central directory of each JAR, and is shared by
+ * all {@link RuleClassLoader}s of the rule. The JARs are held open for the
+ * lifetime of the index, so that the bytes of an entry can be read directly
+ * without opening a {@code jar:} URL connection for each lookup.
+ *
+ * @author Seva Safris
+ */
+class RuleIndex {
+  private static final Logger logger = Logger.getLogger(RuleIndex.class);
+  private static final ConcurrentHashMap<File,RuleIndex> pluginFileToRuleIndex = new ConcurrentHashMap<>();
+
+  /**
+   * {@link BloomFilter} of the names in all {@code RuleIndex}es, which is 2^20
+   * bits (128KB) in size. With 5 hash functions, the false positive rate is
+   * below 1% for up to 100,000 names.
+   */
+  private static final BloomFilter filter = new BloomFilter(20, 5);
+
+  /**
+   * Tests whether a class or resource by the specified name might be present
+   * in any {@code RuleIndex}. A {@code false} return is definitive, and
+   * signifies that no {@link RuleClassLoader} can supply the name.
+   *
+   * @param name The resource name of the class or resource.
+   * @return {@code false} if no {@code RuleIndex} contains the specified name,
+   *         otherwise {@code true}.
+   */
+  static boolean mightContain(final String name) {
+    return filter.mightContain(name);
+  }
+
+  /**
+   * Returns the {@code RuleIndex} for the specified plugin file, creating it
+   * from the provided files if it has not yet been created.
+   *
+   * @param pluginFile The plugin file of the Integration Rule.
+   * @param files The JARs (or directories) of the Integration Rule.
+   * @return The {@code RuleIndex} for the specified plugin file.
+   * @throws IllegalStateException If an I/O error has occurred.
+   */
+  static RuleIndex get(final File pluginFile, final File[] files) {
+    RuleIndex ruleIndex = pluginFileToRuleIndex.get(pluginFile);
+    if (ruleIndex != null)
+      return ruleIndex;
+
+    synchronized (pluginFileToRuleIndex) {
+      ruleIndex = pluginFileToRuleIndex.get(pluginFile);
+      if (ruleIndex != null)
+        return ruleIndex;
+
+      ruleIndex = new RuleIndex(files);
+
+      // Names must be added to the filter before the index is published, so
+      // that the filter never rejects a name that can be looked up.
+      for (final String name : ruleIndex.nameToSource.keySet())
+        filter.add(name);
+
+      pluginFileToRuleIndex.put(pluginFile, ruleIndex);
+      if (logger.isLoggable(Level.FINER))
+        logger.finer("RuleIndex.get(" + pluginFile + "): Indexed " + ruleIndex.nameToSource.size() + " entries");
+
+      return ruleIndex;
+    }
+  }
+
+  private final Object[] sources;
+  private final HashMap<String,Integer> nameToSource = new HashMap<>();
+  private volatile List<String> preloadClassNames;
+
+  private RuleIndex(final File[] files) {
+    this.sources = new Object[files.length];
+    try {
+      for (int i = 0; i < files.length; ++i) {
+        final File file = files[i];
+        if (file instanceof NestedJarFile) {
+          sources[i] = file;
+          for (final String name : ((NestedJarFile)file).getEntryNames())
+            if (!nameToSource.containsKey(name))
+              nameToSource.put(name, i);
+        }
+        else if (file.isDirectory()) {
+          sources[i] = file;
+          final Path dir = file.toPath();
+          final Integer source = i;
+          AssembleUtil.recurseDir(file, new Predicate<File>() {
+            @Override
+            public boolean test(final File t) {
+              if (t.isFile()) {
+                final String name = dir.relativize(t.toPath()).toString().replace(File.separatorChar, '/');
+                if (!nameToSource.containsKey(name))
+                  nameToSource.put(name, source);
+              }
+
+              return true;
+            }
+          });
+        }
+        else {
+          final JarFile jarFile = new JarFile(file);
+          sources[i] = jarFile;
+          final Enumeration<JarEntry> entries = jarFile.entries();
+          while (entries.hasMoreElements()) {
+            final String name = entries.nextElement().getName();
+            if (!nameToSource.containsKey(name))
+              nameToSource.put(name, i);
+          }
+        }
+      }
+    }
+    catch (final IOException e) {
+      close();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * @return An unmodifiable set of the names of all classes and resources in
+   *         this index.
+   */
+  Set<String> getNames() {
+    return Collections.unmodifiableSet(nameToSource.keySet());
+  }
+
+  /**
+   * Tests whether a class or resource by the specified name is present in this
+   * index.
+   *
+   * @param name The resource name of the class or resource.
+   * @return Whether a class or resource by the specified name is present in
+   *         this index.
+   */
+  boolean contains(final String name) {
+    return nameToSource.containsKey(name);
+  }
+
+  /**
+   * Returns the names of the classes to be preloaded upon injection into a
+   * target class loader. If the Integration Rule has an
+   * {@link UtilConstants#INJECTION_FILE}, the names are the eager classes of
+   * the {@link InjectionPlan}, in dependency order. Otherwise, the names are
+   * of all classes in this index.
+   *
+   * @return The names of the classes to be preloaded upon injection into a
+   *         target class loader.
+   */
+  List<String> getPreloadClassNames() {
+    if (preloadClassNames != null)
+      return preloadClassNames;
+
+    final byte[] bytes = readBytes(UtilConstants.INJECTION_FILE);
+    if (bytes != null) {
+      final InjectionPlan injectionPlan = InjectionPlan.parse(new String(bytes));
+      if (logger.isLoggable(Level.FINER))
+        logger.finer("RuleIndex.getPreloadClassNames(): " + injectionPlan.getEager().size() + " eager, " + injectionPlan.getLazy().size() + " lazy");
+
+      return preloadClassNames = injectionPlan.getEager();
+    }
+
+    final ArrayList<String> classNames = new ArrayList<>();
+    for (final String name : nameToSource.keySet())
+      if (name.endsWith(".class") && !name.startsWith("META-INF/") && !name.startsWith("module-info"))
+        classNames.add(AssembleUtil.resourceToClassName(name));
+
+    return preloadClassNames = Collections.unmodifiableList(classNames);
+  }
+
+  /**
+   * Returns the bytes of the class or resource by the specified name, or
+   * {@code null} if the name is not present in this index.
+   *
+   * @param name The resource name of the class or resource.
+   * @return The bytes of the class or resource by the specified name, or
+   *         {@code null} if the name is not present in this index.
+   * @throws IllegalStateException If an I/O error has occurred.
+   */
+  byte[] readBytes(final String name) {
+    final Integer index = nameToSource.get(name);
+    if (index == null)
+      return null;
+
+    try {
+      final Object source = sources[index];
+      if (source instanceof NestedJarFile)
+        return ((NestedJarFile)source).getBytes(name);
+
+      if (source instanceof File)
+        return Files.readAllBytes(new File((File)source, name).toPath());
+
+      final JarFile jarFile = (JarFile)source;
+      final ZipEntry entry = jarFile.getEntry(name);
+      try (final InputStream in = jarFile.getInputStream(entry)) {
+        final long size = entry.getSize();
+        if (size < 0)
+          return AssembleUtil.readBytes(in);
+
+        final byte[] bytes = new byte[(int)size];
+        for (int off = 0, len; off < bytes.length && (len = in.read(bytes, off, bytes.length - off)) != -1; off += len);
+        return bytes;
+      }
+    }
+    catch (final IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void close() {
+    for (final Object source : sources) {
+      if (source instanceof JarFile) {
+        try {
+          ((JarFile)source).close();
+        }
+        catch (final IOException e) {
+          logger.log(Level.WARNING, "Failed to close " + source, e);
+        }
+      }
+    }
+  }
+}
@@ -21,7 +21,6 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.instrument.Instrumentation;
 import java.lang.reflect.InvocationTargetException;
-import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.util.ArrayList;
@@ -33,7 +32,13 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.jar.JarFile;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 
 import com.sun.tools.attach.VirtualMachine;
@@ -53,7 +58,7 @@ public class SpecialAgent {
   private static final Logger logger = Logger.getLogger(SpecialAgent.class);
   private static final String DEFINE_CLASS = ClassLoader.class.getName() + ".defineClass";
   private static final PluginManifest.Directory pluginManifestDirectory = new PluginManifest.Directory();
-  private static final ClassLoaderMap<List<RuleClassLoader>> classLoaderToRuleClassLoader = new ClassLoaderMap<>();
+  private static final RuleClassLoaderMap classLoaderToRuleClassLoader = new RuleClassLoaderMap();
   private static final HashMap<File,File[]> pluginFileToDependencies = new HashMap<>();
 
   private static PluginsClassLoader pluginsClassLoader;
@@ -64,6 +69,7 @@ public class SpecialAgent {
 
   private static Instrumentation inst;
   private static final long startTime = System.currentTimeMillis();
+  private static final StartupTimeline timeline = new StartupTimeline();
 
   static {
     SpecialAgentUtil.assertJavaAgentJarName();
@@ -150,6 +156,7 @@ public class SpecialAgent {
     // First, load system properties, in order to digest and absorb the
     // configuration properties into system properties.
     AssembleUtil.loadProperties();
+    timeline.mark("properties");
 
     // Second, load the `BootLoaderAgent`, in order to allow the bootstrap
     // class loader to gain visibility of resources that are dynamically
@@ -158,19 +165,40 @@ public class SpecialAgent {
     // such classes become part of the bootstrap class loader, but access to
     // the resources for the bytecode of these classes is not provided.
     BootLoaderAgent.premain(inst, null);
+    timeline.mark("bootloader");
 
     // Third, load the `AgentRule` class, in order to load
-    // `AgentRule.isThreadInstrumentable`, so that the lineage of threads can
+    // `AgentRule.threadState`, so that the lineage of threads can
     // be captured as early in the VM's lifecycle as possible.
     AgentRule.$Access.load();
 
     // Finally, load the Integration Rules and Trace Exporters with the
     // provided `Manager`.
-    load(instrumenter.manager, ruleFiles, isoClassLoader);
+    final ExecutorService executor = newLoadExecutor();
+    try {
+      load(instrumenter.manager, ruleFiles, isoClassLoader, executor);
+    }
+    finally {
+      if (executor != null)
+        executor.shutdown();
+    }
 
     final long startupTime = (System.currentTimeMillis() - startTime) / 10;
     if (logger.isLoggable(Level.FINE))
-      logger.fine("Initialized SpecialAgent in " + (startupTime / 100d) + "s\n");
+      logger.fine("Initialized SpecialAgent in " + (startupTime / 100d) + "s [" + timeline + "]\n");
+  }
+
+  /**
+   * Returns a new bounded {@link ForkJoinPool} for the I/O bound phases of
+   * {@link #load(Manager,File[],IsoClassLoader,ExecutorService)}, or
+   * {@code null} if only one processor is available.
+   *
+   * @return A new bounded {@link ForkJoinPool}, or {@code null} if only one
+   *         processor is available.
+   */
+  private static ExecutorService newLoadExecutor() {
+    final int parallelism = Math.min(4, Runtime.getRuntime().availableProcessors());
+    return parallelism > 1 ? new ForkJoinPool(parallelism) : null;
   }
 
   /**
@@ -178,11 +206,13 @@ public class SpecialAgent {
    * loading Integration Rules and Trace Exporters.
    *
    * @param manager The {@link Manager} instance.
+   * @param executor The {@link ExecutorService} in which to execute I/O bound
+   *          tasks, or {@code null} to execute them in the calling thread.
    * @throws IOException If an I/O error has occurred.
    * @throws ReflectiveOperationException If a reflective operation error has
    *           occurred.
    */
-  private static void load(final Manager manager, final File[] ruleFiles, final IsoClassLoader isoClassLoader) throws IOException, ReflectiveOperationException {
+  private static void load(final Manager manager, final File[] ruleFiles, final IsoClassLoader isoClassLoader, final ExecutorService executor) throws IOException, ReflectiveOperationException {
     if (logger.isLoggable(Level.FINEST))
       logger.finest("SpecialAgent#load(" + manager.getClass().getSimpleName() + ") java.class.path:\n  " + System.getProperty("java.class.path").replace(File.pathSeparator, "\n  "));
 
@@ -210,6 +240,8 @@ public class SpecialAgent {
     if (logger.isLoggable(Level.FINER))
       logger.finer("Trace Exporters are " + (allExportersEnabled ? "en" : "dis") + "abled");
 
+    timeline.mark("configuration");
+
     final Supplier<File> destDir = new Supplier<File>() {
       private File destDir;
 
@@ -236,27 +268,32 @@ public class SpecialAgent {
       final ArrayList<URL> isoUrls = new ArrayList<>();
 
       // Process the ext JARs from AssembleUtil#META_INF_EXT_PATH
-      SpecialAgentUtil.findJarResources(UtilConstants.META_INF_ISO_PATH, destDir, new Predicate<File>() {
+      SpecialAgentUtil.findJarResources(UtilConstants.META_INF_ISO_PATH, destDir, executor, null, new BiPredicate<File,Object>() {
         @Override
-        public boolean test(final File file) {
-          try {
-            isoUrls.add(new URL("file", "", file.getAbsolutePath()));
-            return true;
-          }
-          catch (final MalformedURLException e) {
-            throw new IllegalStateException(e);
-          }
+        public boolean test(final File file, final Object value) {
+          isoUrls.add(AssembleUtil.toURL(file));
+          return true;
         }
       });
 
       SpecialAgent.isoClassLoader = new IsoClassLoader(isoUrls.toArray(new URL[isoUrls.size()]), ClassLoader.getSystemClassLoader());
+      timeline.mark("iso");
 
-      // Process the plugin JARs from AssembleUtil#META_INF_PLUGIN_PATH
-      final Predicate<File> loadPluginPredicate = new Predicate<File>() {
+      // Process the plugin JARs from AssembleUtil#META_INF_PLUGIN_PATH. The
+      // JARs are opened (or extracted, if compressed) and their manifests are
+      // loaded in parallel, but the following callback is invoked in the order
+      // in which the JARs are found.
+      final Function<File,PluginManifest> loadPluginManifest = new Function<File,PluginManifest>() {
         @Override
-        public boolean test(final File file) {
+        public PluginManifest apply(final File file) {
+          return PluginManifest.getPluginManifest(file);
+        }
+      };
+
+      final BiPredicate<File,PluginManifest> loadPluginPredicate = new BiPredicate<File,PluginManifest>() {
+        @Override
+        public boolean test(final File file, final PluginManifest pluginManifest) {
           // Then, identify whether the JAR is an Integration Rule or Trace Exporter
-          final PluginManifest pluginManifest = PluginManifest.getPluginManifest(file);
           boolean enablePlugin = true;
           if (pluginManifest != null) {
             final boolean isIntegration = pluginManifest.type == PluginManifest.Type.INSTRUMENTATION;
@@ -294,10 +331,10 @@ public class SpecialAgent {
       // First, load all plugins explicitly included with the `-Dsa.classpath=...` system property.
       if (classPaths != null)
         for (final File classPath : classPaths)
-          loadPluginPredicate.test(classPath);
+          loadPluginPredicate.test(classPath, loadPluginManifest.apply(classPath));
 
       // Then, load the plugins inside the SpecialAgent JAR.
-      SpecialAgentUtil.findJarResources(UtilConstants.META_INF_PLUGIN_PATH, destDir, loadPluginPredicate);
+      SpecialAgentUtil.findJarResources(UtilConstants.META_INF_PLUGIN_PATH, destDir, executor, loadPluginManifest, loadPluginPredicate);
 
       if (pluginManifestDirectory.size() == 0)
         logger.warning("No JARs were found under " + UtilConstants.META_INF_PLUGIN_PATH + ", and ruleFiles == null");
@@ -311,6 +348,8 @@ public class SpecialAgent {
       pluginManifestDirectory.put(pluginManifest.file, pluginManifest);
     }
 
+    timeline.mark("plugins");
+
     // Sort the directory based on load priority
     pluginManifestDirectory.sort();
     if (logger.isLoggable(Level.FINER))
@@ -319,12 +358,28 @@ public class SpecialAgent {
     pluginsClassLoader = new PluginsClassLoader(pluginManifestDirectory.keySet());
 
     final HashMap<String,String> nameToVersion = new HashMap<>();
-    final int count = loadDependencies(pluginsClassLoader, nameToVersion) + loadDependencies(ClassLoader.getSystemClassLoader(), nameToVersion);
+    final int count = loadDependencies(pluginsClassLoader, nameToVersion, executor) + loadDependencies(ClassLoader.getSystemClassLoader(), nameToVersion, executor);
     if (count == 0)
       logger.log(Level.SEVERE, "Could not find " + DEPENDENCIES_TGF + " in any rule JARs");
 
+    timeline.mark("dependencies");
+
     final Event[] events = SpecialAgentUtil.digestEventsProperty(System.getProperty(LOG_EVENTS_PROPERTY));
     loadRules(manager, events);
+    timeline.mark("rules");
+  }
+
+  /**
+   * The content of a dependencies.tgf file, and the rule JARs it references.
+   */
+  private static final class DependenciesTgf {
+    private final String content;
+    private final File[] dependencyFiles;
+
+    private DependenciesTgf(final String content, final File[] dependencyFiles) {
+      this.content = content;
+      this.dependencyFiles = dependencyFiles;
+    }
   }
 
   /**
@@ -335,10 +390,13 @@ public class SpecialAgent {
    *          dependencies.tgf files.
    * @return The number of dependencies.tgf files that were loaded.
    */
-  private static int loadDependencies(final ClassLoader classLoader, final Map<String,String> nameToVersion) throws IOException {
+  private static int loadDependencies(final ClassLoader classLoader, final Map<String,String> nameToVersion, final ExecutorService executor) throws IOException {
     int count = 0;
     final Enumeration<URL> enumeration = classLoader.getResources(DEPENDENCIES_TGF);
     final HashSet<String> urls = new HashSet<>();
+    final ArrayList<URL> tgfUrls = new ArrayList<>();
+    final ArrayList<Future<DependenciesTgf>> futures = new ArrayList<>();
+    final File[] pluginFiles = pluginsClassLoader.getFiles();
     while (enumeration.hasMoreElements()) {
       final URL url = enumeration.nextElement();
       if (urls.contains(url.toString()))
@@ -348,9 +406,50 @@ public class SpecialAgent {
       if (logger.isLoggable(Level.FINEST))
         logger.finest("Found " + DEPENDENCIES_TGF + ": <" + AssembleUtil.getNameId(url) + ">" + url);
 
+      // Read and parse the dependencies.tgf files in parallel...
+      final Callable<DependenciesTgf> task = new Callable<DependenciesTgf>() {
+        @Override
+        public DependenciesTgf call() throws IOException {
+          final String dependenciesTgf = new String(AssembleUtil.readBytes(url));
+          return new DependenciesTgf(dependenciesTgf, MavenUtil.filterRuleURLs(pluginFiles, dependenciesTgf, true, "compile"));
+        }
+      };
+
+      tgfUrls.add(url);
+      if (executor != null) {
+        futures.add(executor.submit(task));
+      }
+      else {
+        final FutureTask<DependenciesTgf> future = new FutureTask<>(task);
+        future.run();
+        futures.add(future);
+      }
+    }
+
+    // ...and cross-link them in the order in which they were found
+    for (int i = 0; i < tgfUrls.size(); ++i) {
+      final URL url = tgfUrls.get(i);
+      final DependenciesTgf result;
+      try {
+        result = futures.get(i).get();
+      }
+      catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      }
+      catch (final ExecutionException e) {
+        if (e.getCause() instanceof IOException)
+          throw (IOException)e.getCause();
+
+        if (e.getCause() instanceof RuntimeException)
+          throw (RuntimeException)e.getCause();
+
+        throw new IllegalStateException(e.getCause());
+      }
+
       final File jarFile = AssembleUtil.getSourceLocation(url, DEPENDENCIES_TGF);
 
-      final String dependenciesTgf = new String(AssembleUtil.readBytes(url));
+      final String dependenciesTgf = result.content;
       final String firstLine = dependenciesTgf.substring(0, dependenciesTgf.indexOf('\n'));
       final String version = firstLine.substring(firstLine.lastIndexOf(':') + 1);
 
@@ -364,7 +463,7 @@ public class SpecialAgent {
 
       nameToVersion.put(pluginManifest.name, version);
 
-      final File[] dependencyFiles = MavenUtil.filterRuleURLs(pluginsClassLoader.getFiles(), dependenciesTgf, true, "compile");
+      final File[] dependencyFiles = result.dependencyFiles;
       if (logger.isLoggable(Level.FINEST))
         logger.finest("  URLs from " + DEPENDENCIES_TGF + ": " + AssembleUtil.toIndentedString(dependencyFiles));
 
@@ -521,7 +620,9 @@ public class SpecialAgent {
 
   /**
    * Links the {@link AgentRule} at the specified {@code index} to the provided
-   * target {@link ClassLoader classLoader}.
+   * target {@link ClassLoader classLoader}. The rule is linked only once per
+   * {@code pluginManifest} and {@code classLoader}: concurrent calls for the
+   * same pair wait for, and return, the result of the first call.
    *
    * @param pluginManifest The {@link PluginManifest} to be linked to the
    *          provided target {@link ClassLoader classLoader}.
@@ -530,22 +631,54 @@ public class SpecialAgent {
    * @return Whether the Integration Rule was compatible and was successfully
    *         linked to the provided target {@link ClassLoader classLoader}.
    */
-  @SuppressWarnings("resource")
   public static boolean linkRule(final PluginManifest pluginManifest, final ClassLoader classLoader) {
-    final Map<ClassLoader,Boolean> classLoaderToCompatibility = pluginManifest.getClassLoaderToCompatibility();
-    Boolean compatible = classLoaderToCompatibility.get(classLoader);
-
-    if (compatible != null && compatible) {
-      if (logger.isLoggable(Level.FINEST))
-        logger.finest("SpecialAgent.linkRule(\"" + pluginManifest.name + "\", " + AssembleUtil.getNameId(classLoader) + "): compatible = " + compatible + " [cached]");
+    return linkRule(pluginManifest, classLoader, true);
+  }
 
-      return true;
+  /**
+   * Links the {@link AgentRule} at the specified {@code index} to the provided
+   * target {@link ClassLoader classLoader}.
+   *
+   * @param pluginManifest The {@link PluginManifest} to be linked to the
+   *          provided target {@link ClassLoader classLoader}.
+   * @param classLoader The target {@link ClassLoader classLoader} to which the
+   *          Integration Rule at the specified index is to be linked.
+   * @param allowParallel Whether the classes of the Integration Rule may be
+   *          preloaded in parallel. This must be {@code false} if the caller
+   *          may be within the loading of a class by {@code classLoader}.
+   * @return Whether the Integration Rule was compatible and was successfully
+   *         linked to the provided target {@link ClassLoader classLoader}.
+   * @see RuleClassLoader#inject(ClassLoader,boolean)
+   */
+  static boolean linkRule(final PluginManifest pluginManifest, final ClassLoader classLoader, final boolean allowParallel) {
+    final ClassLoader compatibilityKey = classLoader == null ? BootProxyClassLoader.INSTANCE : classLoader;
+    if (logger.isLoggable(Level.FINEST)) {
+      final Future<Boolean> cached = pluginManifest.getClassLoaderToCompatibility().get(compatibilityKey);
+      if (cached != null && cached.isDone())
+        logger.finest("SpecialAgent.linkRule(\"" + pluginManifest.name + "\", " + AssembleUtil.getNameId(classLoader) + "): [cached]");
     }
 
+    // Link the rule once per (pluginManifest, classLoader), while other threads
+    // that load classes in the same class loader wait for the result
+    final Boolean compatible = SpecialAgentUtil.computeOnce(pluginManifest.getClassLoaderToCompatibility(), compatibilityKey, new Callable<Boolean>() {
+      @Override
+      public Boolean call() {
+        return linkRule0(pluginManifest, classLoader, allowParallel);
+      }
+    });
+
+    if (compatible == null && logger.isLoggable(Level.FINER))
+      logger.finer("SpecialAgent.linkRule(\"" + pluginManifest.name + "\", " + AssembleUtil.getNameId(classLoader) + "): reentrant call while linking");
+
+    return compatible != null && compatible;
+  }
+
+  @SuppressWarnings("resource")
+  private static boolean linkRule0(final PluginManifest pluginManifest, final ClassLoader classLoader, final boolean allowParallel) {
     // Find the Plugin File (identified by index passed to this method)
     final File pluginFile = pluginManifest.file;
     if (logger.isLoggable(Level.FINER))
-      logger.finer("SpecialAgent.linkRule(\"" + pluginManifest.name + "\", " + AssembleUtil.getNameId(classLoader) + "): compatible = " + compatible + ", RulePath: " + pluginFile);
+      logger.finer("SpecialAgent.linkRule(\"" + pluginManifest.name + "\", " + AssembleUtil.getNameId(classLoader) + "): RulePath: " + pluginFile);
 
     // Now find all the paths that pluginFile depends on, by reading dependencies.tgf
     final File[] pluginDependencyFiles = pluginFileToDependencies.get(pluginFile);
@@ -557,9 +690,7 @@ public class SpecialAgent {
 
     // Create an isolated (no parent class loader) URLClassLoader with the pluginDependencyFiles
     final RuleClassLoader ruleClassLoader = new RuleClassLoader(pluginManifest, isoClassLoader, classLoader, pluginDependencyFiles);
-    compatible = ruleClassLoader.isCompatible(classLoader);
-    classLoaderToCompatibility.put(classLoader, compatible);
-    if (!compatible) {
+    if (!ruleClassLoader.isCompatible(classLoader)) {
       try {
         ruleClassLoader.close();
       }
@@ -576,8 +707,7 @@ public class SpecialAgent {
 
       for (final File pluginDependencyFile : pluginDependencyFiles) {
         try {
-          final File file = new File(pluginDependencyFile.getPath());
-          inst.appendToBootstrapClassLoaderSearch(file.isFile() ? new JarFile(file) : SpecialAgentUtil.createTempJarFile(file));
+          inst.appendToBootstrapClassLoaderSearch(SpecialAgentUtil.toJarFile(pluginDependencyFile));
         }
         catch (final IOException e) {
           logger.log(Level.SEVERE, "[" + pluginManifest.name + "] Failed to add path to bootstrap class loader: " + pluginDependencyFile.getPath(), e);
@@ -590,7 +720,7 @@ public class SpecialAgent {
 
       for (final File pluginDependencyFile : pluginDependencyFiles) {
         try {
-          inst.appendToSystemClassLoaderSearch(pluginDependencyFile.isFile() ? new JarFile(pluginDependencyFile) : SpecialAgentUtil.createTempJarFile(pluginDependencyFile));
+          inst.appendToSystemClassLoaderSearch(SpecialAgentUtil.toJarFile(pluginDependencyFile));
         }
         catch (final IOException e) {
           logger.log(Level.SEVERE, "[" + pluginManifest.name + "] Failed to add path to system class loader: " + pluginDependencyFile, e);
@@ -602,12 +732,12 @@ public class SpecialAgent {
     }
 
     // Associate the RuleClassLoader with the target class's class loader
-    List<RuleClassLoader> ruleClassLoaders = classLoaderToRuleClassLoader.get(classLoader);
+    RuleClassLoaderList ruleClassLoaders = classLoaderToRuleClassLoader.get(classLoader);
     if (ruleClassLoaders == null) {
       synchronized (classLoaderToRuleClassLoader) {
         ruleClassLoaders = classLoaderToRuleClassLoader.get(classLoader);
         if (ruleClassLoaders == null) {
-          classLoaderToRuleClassLoader.put(classLoader, ruleClassLoaders = new IdentityList<>(new ArrayList<RuleClassLoader>()));
+          classLoaderToRuleClassLoader.put(classLoader, ruleClassLoaders = new RuleClassLoaderList());
         }
       }
     }
@@ -621,20 +751,18 @@ public class SpecialAgent {
     // If the callstack is coming from ClassLoader#defineClass, defer injection of
     // classes, as injection from ClassLoader#defineClass may lead to LinkageError
     // (duplicate class definition), or a ClassCircularityError.
-    for (final StackTraceElement stackTraceElement : Thread.currentThread().getStackTrace()) {
-      if (DEFINE_CLASS.equals(stackTraceElement.getClassName() + "." + stackTraceElement.getMethodName())) {
-        if (logger.isLoggable(Level.FINER))
-          logger.finer("[" + pluginManifest.name + "] Injection of integration classes deferred");
+    if (StackInspector.callerEquals(0, Integer.MAX_VALUE, DEFINE_CLASS)) {
+      if (logger.isLoggable(Level.FINER))
+        logger.finer("[" + pluginManifest.name + "] Injection of integration classes deferred");
 
-        return true;
-      }
+      return true;
     }
 
     // Otherwise, inject the classes immediately.
     if (logger.isLoggable(Level.FINER))
       logger.finer("[" + pluginManifest.name + "] Injection of integration classes called");
 
-    ruleClassLoader.inject(classLoader);
+    ruleClassLoader.inject(classLoader, allowParallel);
     return true;
   }
 
@@ -667,9 +795,9 @@ public class SpecialAgent {
    *         provided {@link QuadFunction function}, or {@code null} by default.
    * @throws T A type-specified {@link Throwable} if an error has occurred.
    */
-  private static <R,T extends Throwable>R invoke(final String name, final ClassLoader targetLoader, final QuadFunction<ClassLoader,String,List<RuleClassLoader>,ClassLoader,R,T> function) throws T {
+  private static <R,T extends Throwable>R invoke(final String name, final ClassLoader targetLoader, final QuadFunction<ClassLoader,String,RuleClassLoaderList,ClassLoader,R,T> function) throws T {
     // Check if the class loader matches a ruleClassLoader
-    List<RuleClassLoader> ruleClassLoaders;
+    RuleClassLoaderList ruleClassLoaders;
     for (ClassLoader contextLoader = targetLoader; contextLoader != null; contextLoader = contextLoader.getParent()) {
       ruleClassLoaders = classLoaderToRuleClassLoader.get(contextLoader);
       if (ruleClassLoaders != null) {
@@ -682,18 +810,84 @@ public class SpecialAgent {
     return null;
   }
 
+  private static final AtomicLong filterHitCount = new AtomicLong();
+  private static final AtomicLong filterMissCount = new AtomicLong();
+  private static final AtomicLong filterFalsePositiveCount = new AtomicLong();
+
+  /**
+   * Tests whether the class or resource by the specified name might be
+   * supplied by any {@link RuleClassLoader}, as per {@link RuleIndex}. If this
+   * method returns {@code false}, the lookup of the name can be skipped.
+   *
+   * @param name The resource name of the class or resource.
+   * @return {@code false} if no {@link RuleClassLoader} can supply the
+   *         specified name, otherwise {@code true}.
+   */
+  private static boolean mightContain(final String name) {
+    if (RuleIndex.mightContain(name))
+      return true;
+
+    filterMissCount.incrementAndGet();
+    return false;
+  }
+
+  /**
+   * Records the result of a lookup of a name that has passed
+   * {@link #mightContain(String)}.
+   *
+   * @param <T> The type parameter of the result.
+   * @param result The result of the lookup.
+   * @return The specified result.
+   */
+  private static <T>T count(final T result) {
+    if (result != null)
+      filterHitCount.incrementAndGet();
+    else
+      filterFalsePositiveCount.incrementAndGet();
+
+    return result;
+  }
+
+  /**
+   * @return The number of class and resource lookups that passed the
+   *         {@link RuleIndex} filter, and were supplied by a
+   *         {@link RuleClassLoader}.
+   */
+  public static long getFilterHitCount() {
+    return filterHitCount.get();
+  }
+
+  /**
+   * @return The number of class and resource lookups that were rejected by
+   *         the {@link RuleIndex} filter, without walking the class loader
+   *         hierarchy.
+   */
+  public static long getFilterMissCount() {
+    return filterMissCount.get();
+  }
+
+  /**
+   * @return The number of class and resource lookups that passed the
+   *         {@link RuleIndex} filter, but were not supplied by a
+   *         {@link RuleClassLoader} linked to the target class loader or its
+   *         parents.
+   */
+  public static long getFilterFalsePositiveCount() {
+    return filterFalsePositiveCount.get();
+  }
+
   /**
    * A {@link QuadFunction function} for the injection of classes from
    * {@link RuleClassLoader}s to a target {@link ClassLoader}. This function
    * returns a non-null value by default, to prevent the injection to be
    * attempted for each parent class loader.
    */
-  private static final QuadFunction<ClassLoader,String,List<RuleClassLoader>,ClassLoader,Boolean,RuntimeException> inject = new QuadFunction<ClassLoader,String,List<RuleClassLoader>,ClassLoader,Boolean,RuntimeException>() {
+  private static final QuadFunction<ClassLoader,String,RuleClassLoaderList,ClassLoader,Boolean,RuntimeException> inject = new QuadFunction<ClassLoader,String,RuleClassLoaderList,ClassLoader,Boolean,RuntimeException>() {
     @Override
-    public Boolean apply(final ClassLoader targetLoader, final String name, final List<RuleClassLoader> ruleClassLoaders, final ClassLoader contextLoader) {
+    public Boolean apply(final ClassLoader targetLoader, final String name, final RuleClassLoaderList ruleClassLoaders, final ClassLoader contextLoader) {
       for (int i = 0; i < ruleClassLoaders.size(); ++i) {
         final RuleClassLoader ruleClassLoader = ruleClassLoaders.get(i);
-        ruleClassLoader.inject(contextLoader);
+        ruleClassLoader.inject(contextLoader, false);
       }
 
       return Boolean.TRUE;
@@ -728,29 +922,27 @@ public class SpecialAgent {
    * first non-null return value. The non-null return value of this function is
    * the bytecode {@code byte[]} of the class by the specified {@code name}.
    */
-  private static final QuadFunction<ClassLoader,String,List<RuleClassLoader>,ClassLoader,byte[],RuntimeException> findClass = new QuadFunction<ClassLoader,String,List<RuleClassLoader>,ClassLoader,byte[],RuntimeException>() {
+  private static final QuadFunction<ClassLoader,String,RuleClassLoaderList,ClassLoader,byte[],RuntimeException> findClass = new QuadFunction<ClassLoader,String,RuleClassLoaderList,ClassLoader,byte[],RuntimeException>() {
     @Override
-    public byte[] apply(final ClassLoader targetLoader, final String name, final List<RuleClassLoader> ruleClassLoaders, final ClassLoader contextLoader) {
+    public byte[] apply(final ClassLoader targetLoader, final String name, final RuleClassLoaderList ruleClassLoaders, final ClassLoader contextLoader) {
       final String resourceName = AssembleUtil.classNameToResource(name);
-      for (int i = 0; i < ruleClassLoaders.size(); ++i) {
-        final RuleClassLoader ruleClassLoader = ruleClassLoaders.get(i);
-        if (ruleClassLoader.isClosed(contextLoader)) {
+      final RuleClassLoader[] suppliers = ruleClassLoaders.lookup(resourceName);
+      if (suppliers != null) {
+        for (final RuleClassLoader ruleClassLoader : suppliers) {
+          if (ruleClassLoader.isClosed(targetLoader, contextLoader)) {
+            if (logger.isLoggable(Level.FINEST))
+              logger.finest(">>>>>>>> findClass(" + AssembleUtil.getNameId(targetLoader) + ", \"" + name + "\"): CLOSED");
+
+            continue;
+          }
+
+          // Return the resource's bytes
+          final byte[] bytecode = ruleClassLoader.getIndex().readBytes(resourceName);
           if (logger.isLoggable(Level.FINEST))
-            logger.finest(">>>>>>>> findClass(" + AssembleUtil.getNameId(targetLoader) + ", \"" + name + "\"): CLOSED");
+            logger.finest(">>>>>>>> findClass(" + AssembleUtil.getNameId(targetLoader) + ", \"" + name + "\"): BYTECODE " + (bytecode != null ? "!" : "=") + "= null");
 
-          continue;
+          return bytecode;
         }
-
-        final URL resourceUrl = ruleClassLoader.getResource(resourceName);
-        if (resourceUrl == null)
-          continue;
-
-        // Return the resource's bytes
-        final byte[] bytecode = AssembleUtil.readBytes(resourceUrl);
-        if (logger.isLoggable(Level.FINEST))
-          logger.finest(">>>>>>>> findClass(" + AssembleUtil.getNameId(targetLoader) + ", \"" + name + "\"): BYTECODE " + (bytecode != null ? "!" : "=") + "= null");
-
-        return bytecode;
       }
 
       if (logger.isLoggable(Level.FINEST))
@@ -780,7 +972,10 @@ public class SpecialAgent {
    *         {@code classLoader} and {@code name}.
    */
   public static byte[] findClass(final ClassLoader classLoader, final String name) {
-    return invoke(name, classLoader, findClass);
+    if (!mightContain(AssembleUtil.classNameToResource(name)))
+      return null;
+
+    return count(invoke(name, classLoader, findClass));
   }
 
   /**
@@ -792,11 +987,14 @@ public class SpecialAgent {
    * first non-null return value. The non-null return value of this function is
    * the {@link URL} of the resource by the specified {@code name}.
    */
-  private static final QuadFunction<ClassLoader,String,List<RuleClassLoader>,ClassLoader,URL,RuntimeException> findResource = new QuadFunction<ClassLoader,String,List<RuleClassLoader>,ClassLoader,URL,RuntimeException>() {
+  private static final QuadFunction<ClassLoader,String,RuleClassLoaderList,ClassLoader,URL,RuntimeException> findResource = new QuadFunction<ClassLoader,String,RuleClassLoaderList,ClassLoader,URL,RuntimeException>() {
     @Override
-    public URL apply(final ClassLoader targetLoader, final String name, final List<RuleClassLoader> ruleClassLoaders, final ClassLoader contextLoader) {
-      for (int i = 0; i < ruleClassLoaders.size(); ++i) {
-        final RuleClassLoader ruleClassLoader = ruleClassLoaders.get(i);
+    public URL apply(final ClassLoader targetLoader, final String name, final RuleClassLoaderList ruleClassLoaders, final ClassLoader contextLoader) {
+      final RuleClassLoader[] suppliers = ruleClassLoaders.lookup(name);
+      if (suppliers == null)
+        return null;
+
+      for (final RuleClassLoader ruleClassLoader : suppliers) {
         if (ruleClassLoader.isClosed(contextLoader))
           continue;
 
@@ -832,7 +1030,10 @@ public class SpecialAgent {
     if (logger.isLoggable(Level.FINEST))
       logger.finest(">>>>>>>> findResource(" + AssembleUtil.getNameId(classLoader) + ", \"" + name + "\")");
 
-    return invoke(name, classLoader, findResource);
+    if (!mightContain(name))
+      return null;
+
+    return count(invoke(name, classLoader, findResource));
   }
 
   /**
@@ -845,11 +1046,14 @@ public class SpecialAgent {
    * function is the {@link Enumeration Enumeration&lt;URL&gt;} of the resources
    * by the specified {@code name}.
    */
-  private static final QuadFunction<ClassLoader,String,List<RuleClassLoader>,ClassLoader,Enumeration<URL>,IOException> findResources = new QuadFunction<ClassLoader,String,List<RuleClassLoader>,ClassLoader,Enumeration<URL>,IOException>() {
+  private static final QuadFunction<ClassLoader,String,RuleClassLoaderList,ClassLoader,Enumeration<URL>,IOException> findResources = new QuadFunction<ClassLoader,String,RuleClassLoaderList,ClassLoader,Enumeration<URL>,IOException>() {
     @Override
-    public Enumeration<URL> apply(final ClassLoader targetLoader, final String name, final List<RuleClassLoader> ruleClassLoaders, final ClassLoader contextLoader) throws IOException {
-      for (int i = 0; i < ruleClassLoaders.size(); ++i) {
-        final RuleClassLoader ruleClassLoader = ruleClassLoaders.get(i);
+    public Enumeration<URL> apply(final ClassLoader targetLoader, final String name, final RuleClassLoaderList ruleClassLoaders, final ClassLoader contextLoader) throws IOException {
+      final RuleClassLoader[] suppliers = ruleClassLoaders.lookup(name);
+      if (suppliers == null)
+        return null;
+
+      for (final RuleClassLoader ruleClassLoader : suppliers) {
         if (ruleClassLoader.isClosed(contextLoader))
           continue;
 
@@ -886,6 +1090,9 @@ public class SpecialAgent {
     if (logger.isLoggable(Level.FINEST))
       logger.finest(">>>>>>>> findResources(" + AssembleUtil.getNameId(classLoader) + ", \"" + name + "\")");
 
-    return invoke(name, classLoader, findResources);
+    if (!mightContain(name))
+      return null;
+
+    return count(invoke(name, classLoader, findResources));
   }
 }
\ No newline at end of file
@@ -18,6 +18,7 @@ package io.opentracing.contrib.specialagent;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.management.ManagementFactory;
 import java.net.JarURLConnection;
 import java.net.MalformedURLException;
@@ -27,6 +28,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.security.CodeSource;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Enumeration;
@@ -36,6 +38,12 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.jar.Attributes;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
@@ -141,6 +149,23 @@ public final class SpecialAgentUtil {
     return new JarFile(file);
   }
 
+  /**
+   * Returns a {@link JarFile} for the specified JAR or directory, as is
+   * required by the {@code Instrumentation} methods that append to the
+   * bootstrap and system class loader search paths. A {@link NestedJarFile} is
+   * extracted, and a directory is packed, into a temporary JAR.
+   *
+   * @param file The JAR or directory.
+   * @return A {@link JarFile} for the specified JAR or directory.
+   * @throws IOException If an I/O error has occurred.
+   */
+  static JarFile toJarFile(final File file) throws IOException {
+    if (file instanceof NestedJarFile)
+      return new JarFile(((NestedJarFile)file).extract());
+
+    return file.isFile() ? new JarFile(file) : createTempJarFile(file);
+  }
+
   static StringBuilder getInputArguments() {
     final StringBuilder builder = new StringBuilder();
     final Iterator<String> iterator = ManagementFactory.getRuntimeMXBean().getInputArguments().iterator();
@@ -299,13 +324,49 @@ public final class SpecialAgentUtil {
    * @throws IllegalStateException If an illegal state occurs due to an
    *           {@link IOException}.
    */
-  static void findJarResources(final String path, final Supplier<File> destDir, Predicate<File> callback) {
+  static void findJarResources(final String path, final Supplier<File> destDir, final Predicate<File> callback) {
+    findJarResources(path, destDir, null, null, new BiPredicate<File,Object>() {
+      @Override
+      public boolean test(final File file, final Object value) {
+        return callback.test(file);
+      }
+    });
+  }
+
+  /**
+   * Finds JAR files having a prefix path that match {@code path}, and applies
+   * the {@code loader} function to each file. JAR files that are stored (i.e.
+   * not compressed) in a JAR on the file system are read in place as
+   * {@link NestedJarFile}s, and all others are extracted to {@code destDir}.
+   * If {@code executor} is not null, the extraction and the {@code loader}
+   * function are executed in parallel in the {@code executor}. The {@code callback} is always invoked sequentially in
+   * the calling thread, in the order in which the JAR files were found, with
+   * the file and the value returned by {@code loader}.
+   * <p>
+   * This method will add a shutdown hook to delete any temporary directory and
+   * file resources it created.
+   *
+   * @param <T> The type of the value returned by {@code loader}.
+   * @param path The prefix path to match when finding resources.
+   * @param destDir Callback that supplies the destDir.
+   * @param executor The {@link ExecutorService} in which to extract and load
+   *          files, or {@code null} to do so in the calling thread.
+   * @param loader Function to be applied to each extracted file, or
+   *          {@code null}.
+   * @param callback Callback function to process resource files. If the
+   *          callback returns {@code false}, the extracted file is deleted.
+   * @throws IllegalStateException If an illegal state occurs due to an
+   *           {@link IOException}.
+   */
+  static <T>void findJarResources(final String path, final Supplier<File> destDir, final ExecutorService executor, final Function<File,T> loader, final BiPredicate<File,T> callback) {
     try {
       final Enumeration<URL> resources = ClassLoader.getSystemClassLoader().getResources(path);
       if (!resources.hasMoreElements())
         return;
 
       final Set<URL> visitedResources = new HashSet<>();
+      final List<File> files = new ArrayList<>();
+      final List<Future<T>> futures = new ArrayList<>();
       File outDir = null;
       do {
         final URL resource = resources.nextElement();
@@ -321,50 +382,182 @@ public final class SpecialAgentUtil {
 //        if (logger.isLoggable(Level.FINEST))
 //          logger.finest("SpecialAgent Rule Path: " + resource);
 
-        if (outDir == null)
-          outDir = destDir.get();
-
-        if (outDir == null) {
-//          logger.severe("Unable to continue with null output directory");
-          return;
-        }
-
         final JarURLConnection jarURLConnection = (JarURLConnection)connection;
         jarURLConnection.setUseCaches(false);
+        final URL jarFileUrl = jarURLConnection.getJarFileURL();
+        final File outerJarFile = "file".equals(jarFileUrl.getProtocol()) ? new File(jarFileUrl.getPath()) : null;
         final JarFile jarFile = jarURLConnection.getJarFile();
         final Enumeration<JarEntry> jarEntries = jarFile.entries();
         while (jarEntries.hasMoreElements()) {
-          final String jarEntry = jarEntries.nextElement().getName();
-          if (jarEntry.length() <= path.length() || !jarEntry.startsWith(path))
+          final JarEntry entry = jarEntries.nextElement();
+          final String jarEntry = entry.getName();
+          if (jarEntry.length() <= path.length() || !jarEntry.startsWith(path) || !jarEntry.endsWith(".jar"))
             continue;
 
-          final int slash = jarEntry.lastIndexOf('/');
-          final String jarFileName = jarEntry.substring(slash + 1);
+          // First, attempt to read the JAR in place...
+          final File file;
+          final boolean extract;
+          final NestedJarFile nestedJarFile = outerJarFile != null && entry.getMethod() == ZipEntry.STORED ? NestedJarFile.open(outerJarFile, jarEntry) : null;
+          if (nestedJarFile != null) {
+            file = nestedJarFile;
+            extract = false;
+          }
+          else {
+            // ...otherwise, extract the JAR into a temp dir
+            if (outDir == null && (outDir = destDir.get()) == null) {
+//              logger.severe("Unable to continue with null output directory");
+              return;
+            }
 
-          // First, extract the JAR into a temp dir
-          final File subDir = new File(outDir, jarEntry.substring(0, slash));
-          subDir.mkdirs();
-          final File file = new File(subDir, jarFileName);
-          if (!file.isDirectory() && !file.getName().endsWith(".jar"))
-            continue;
+            final int slash = jarEntry.lastIndexOf('/');
+            final File subDir = new File(outDir, jarEntry.substring(0, slash));
+            subDir.mkdirs();
+            file = new File(subDir, jarEntry.substring(slash + 1));
+            extract = true;
+          }
 
           final URL jarUrl = new URL(resource, jarEntry.substring(path.length()));
-          Files.copy(jarUrl.openStream(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+          final Callable<T> task = new Callable<T>() {
+            @Override
+            public T call() throws IOException {
+              if (extract) {
+                try (final InputStream in = jarUrl.openStream()) {
+                  Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+              }
+
+              return loader == null ? null : loader.apply(file);
+            }
+          };
 
-          if (!callback.test(file))
-            file.delete();
+          files.add(file);
+          if (executor != null) {
+            futures.add(executor.submit(task));
+          }
+          else {
+            final FutureTask<T> future = new FutureTask<>(task);
+            future.run();
+            futures.add(future);
+          }
         }
       }
       while (resources.hasMoreElements());
 
+      // Then, invoke the callback in the order the JARs were found
+      for (int i = 0; i < files.size(); ++i) {
+        final File file = files.get(i);
+        if (!callback.test(file, futures.get(i).get()))
+          file.delete();
+      }
+
       if (outDir != null)
         deleteOnShutdown(outDir);
     }
+    catch (final ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException)cause;
+
+      if (cause instanceof Error)
+        throw (Error)cause;
+
+      throw new IllegalStateException(cause);
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
     catch (final IOException e) {
       throw new IllegalStateException(e);
     }
   }
 
+  /**
+   * A {@link FutureTask} that records the thread by which it is being run.
+   *
+   * @param <V> The result type of the task.
+   */
+  private static final class ComputeTask<V> extends FutureTask<V> {
+    private volatile Thread thread;
+
+    private ComputeTask(final Callable<V> callable) {
+      super(callable);
+    }
+
+    @Override
+    public void run() {
+      thread = Thread.currentThread();
+      try {
+        super.run();
+      }
+      finally {
+        thread = null;
+      }
+    }
+  }
+
+  /**
+   * Returns the value of the {@link Future} mapped to {@code key} in the
+   * provided map, computing it with {@code callable} in the calling thread if
+   * no {@link Future} is mapped. Concurrent calls for the same key therefore
+   * invoke {@code callable} only once, and all callers wait for and return
+   * the same result. If {@code callable} throws, its {@link Future} is removed
+   * from the map, so that a subsequent call computes the value anew.
+   *
+   * @param <K> The type of the key.
+   * @param <V> The type of the value.
+   * @param map The map of keys to the {@link Future}s of their values.
+   * @param key The key.
+   * @param callable The {@link Callable} that computes the value.
+   * @return The value of the {@link Future} mapped to {@code key}, or
+   *         {@code null} if the call is reentrant (i.e. {@code callable} is
+   *         already computing the value for {@code key} in the calling
+   *         thread).
+   * @throws IllegalStateException If {@code callable} has thrown a checked
+   *           exception.
+   */
+  static <K,V>V computeOnce(final ConcurrentMap<K,Future<V>> map, final K key, final Callable<V> callable) {
+    Future<V> future = map.get(key);
+    if (future == null) {
+      final ComputeTask<V> task = new ComputeTask<>(callable);
+      future = map.putIfAbsent(key, task);
+      if (future == null) {
+        future = task;
+        task.run();
+      }
+    }
+
+    if (future instanceof ComputeTask && ((ComputeTask<?>)future).thread == Thread.currentThread())
+      return null;
+
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          return future.get();
+        }
+        catch (final InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    }
+    catch (final ExecutionException e) {
+      map.remove(key, future);
+      final Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException)cause;
+
+      if (cause instanceof Error)
+        throw (Error)cause;
+
+      throw new IllegalStateException(cause);
+    }
+    finally {
+      if (interrupted)
+        Thread.currentThread().interrupt();
+    }
+  }
+
   private static Set<File> deleteDirs;
 
   private static final Predicate<File> deletePredicate = new Predicate<File>() {
@@ -0,0 +1,75 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records the time spent in each phase of the initialization of the
+ * {@link SpecialAgent}. A phase spans from the previous call to
+ * {@link #mark(String)} (or the creation of the timeline) to the call that
+ * names it. Phases that are marked more than once accumulate their time.
+ *
+ * @author Seva Safris
+ */
+class StartupTimeline {
+  private final LinkedHashMap<String,Long> phaseToNanos = new LinkedHashMap<>();
+  private final long startTime = System.nanoTime();
+  private long markTime = startTime;
+
+  /**
+   * Ends the current phase with the specified name.
+   *
+   * @param phase The name of the phase.
+   */
+  synchronized void mark(final String phase) {
+    final long time = System.nanoTime();
+    final Long nanos = phaseToNanos.get(phase);
+    phaseToNanos.put(phase, (nanos == null ? 0 : nanos) + time - markTime);
+    markTime = time;
+  }
+
+  /**
+   * @return An unmodifiable map of phase names to the nanoseconds spent in
+   *         each phase, in the order the phases were first marked.
+   */
+  synchronized Map<String,Long> getPhases() {
+    return Collections.unmodifiableMap(new LinkedHashMap<>(phaseToNanos));
+  }
+
+  /**
+   * @return The nanoseconds elapsed from the creation of this timeline to the
+   *         last call to {@link #mark(String)}.
+   */
+  synchronized long getTotalNanos() {
+    return markTime - startTime;
+  }
+
+  @Override
+  public synchronized String toString() {
+    final StringBuilder builder = new StringBuilder();
+    for (final Map.Entry<String,Long> entry : phaseToNanos.entrySet()) {
+      if (builder.length() > 0)
+        builder.append(", ");
+
+      builder.append(entry.getKey()).append(": ").append(entry.getValue() / 1000000).append("ms");
+    }
+
+    return builder.toString();
+  }
+}
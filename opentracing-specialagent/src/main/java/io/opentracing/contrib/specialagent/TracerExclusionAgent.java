@@ -28,7 +28,7 @@ import net.bytebuddy.dynamic.DynamicType.Builder;
 import net.bytebuddy.utility.JavaModule;
 
 public class TracerExclusionAgent {
-  public static final ThreadLocalCounter entryCounter = AgentRule.$Access.entryCounter();
+  public static final ThreadLocal<ThreadState> threadState = AgentRule.$Access.threadState();
 
   public static AgentBuilder premain(final String[] traceExcludedClasses, final AgentBuilder builder) {
     log("\n<<<<<<<<<<<<<<< Installing TracerExclusionAgent >>>>>>>>>>>>>>>>\n", null, DefaultLevel.FINE);
@@ -54,12 +54,14 @@ public class TracerExclusionAgent {
   }
 
   @Advice.OnMethodEnter
-  public static void enter() {
-    entryCounter.set(entryCounter.get() + 1);
+  public static ThreadState enter() {
+    final ThreadState state = threadState.get();
+    state.enterTracer();
+    return state;
   }
 
   @Advice.OnMethodExit
-  public static void exit() {
-    entryCounter.set(entryCounter.get() - 1);
+  public static void exit(final @Advice.Enter ThreadState state) {
+    state.exitTracer();
   }
 }
\ No newline at end of file
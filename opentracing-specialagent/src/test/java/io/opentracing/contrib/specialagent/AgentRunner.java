@@ -316,6 +316,7 @@ public class AgentRunner extends BlockJUnit4ClassRunner {
 
   private void setVerbose(final boolean verbose) {
     System.setProperty("sa.integration." + ruleManifest.name + ".verbose", String.valueOf(verbose));
+    AgentRule.$Access.refreshVerbose();
   }
 
   private static void setDisable(final String[] disable) {
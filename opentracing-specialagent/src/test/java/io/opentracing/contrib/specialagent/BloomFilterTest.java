@@ -0,0 +1,56 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link BloomFilter}.
+ *
+ * @author Seva Safris
+ */
+public class BloomFilterTest {
+  @Test
+  public void testNoFalseNegatives() {
+    final BloomFilter filter = new BloomFilter(16, 5);
+    for (int i = 0; i < 5000; ++i)
+      filter.add("io/opentracing/contrib/Class" + i + ".class");
+
+    for (int i = 0; i < 5000; ++i)
+      assertTrue(filter.mightContain("io/opentracing/contrib/Class" + i + ".class"));
+  }
+
+  @Test
+  public void testFalsePositiveRate() {
+    final BloomFilter filter = new BloomFilter(20, 5);
+    for (int i = 0; i < 100000; ++i)
+      filter.add("io/opentracing/contrib/Class" + i + ".class");
+
+    int falsePositives = 0;
+    for (int i = 0; i < 100000; ++i)
+      if (filter.mightContain("org/springframework/util/Class" + i + ".class"))
+        ++falsePositives;
+
+    assertTrue(String.valueOf(falsePositives), falsePositives < 2000);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalSize() {
+    new BloomFilter(31, 5);
+  }
+}
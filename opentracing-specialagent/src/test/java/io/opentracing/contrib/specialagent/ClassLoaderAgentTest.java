@@ -21,7 +21,14 @@ import java.io.IOException;
 import java.lang.instrument.Instrumentation;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -103,4 +110,56 @@ public abstract class ClassLoaderAgentTest {
       assertTrue(resources.hasMoreElements());
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * @param name The name of the Integration Rule.
+   * @return The {@link PluginManifest} of the Integration Rule by the specified
+   *         name on the system classpath, as discovered by the
+   *         {@link SpecialAgent}.
+   */
+  private static PluginManifest getPluginManifest(final String name) throws IOException {
+    final Enumeration<URL> resources = ClassLoader.getSystemClassLoader().getResources("otarules.mf");
+    while (resources.hasMoreElements()) {
+      final PluginManifest pluginManifest = PluginManifest.getPluginManifest(AssembleUtil.getSourceLocation(resources.nextElement(), "otarules.mf"));
+      if (pluginManifest != null && name.equals(pluginManifest.name))
+        return pluginManifest;
+    }
+
+    return null;
+  }
+
+  @Test
+  public void testConcurrentLinkRule() throws Exception {
+    final PluginManifest pluginManifest = getPluginManifest("thread");
+    assertNotNull(pluginManifest);
+    try (final URLClassLoader classLoader = new URLClassLoader(new URL[0], ClassLoader.getSystemClassLoader())) {
+      final int threads = 8;
+      final CountDownLatch start = new CountDownLatch(1);
+      final ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try {
+        final ArrayList<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; ++i) {
+          futures.add(executor.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws InterruptedException {
+              start.await();
+              return SpecialAgent.linkRule(pluginManifest, classLoader);
+            }
+          }));
+        }
+
+        start.countDown();
+        for (final Future<Boolean> future : futures)
+          assertTrue(future.get(15, TimeUnit.SECONDS));
+      }
+      finally {
+        executor.shutdown();
+      }
+
+      // The rule was linked once, and its classes are supplied to the class loader
+      assertEquals(1, pluginManifest.getClassLoaderToCompatibility().size());
+      assertTrue(pluginManifest.getClassLoaderToCompatibility().get(classLoader).isDone());
+      assertNotNull(SpecialAgent.findClass(classLoader, "io.opentracing.contrib.specialagent.rule.thread.ThreadAgentIntercept"));
+    }
+  }
+}
@@ -0,0 +1,168 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link CompatibilityCache}.
+ *
+ * @author Seva Safris
+ */
+public class CompatibilityCacheTest {
+  private static class TestClassLoader extends URLClassLoader {
+    private TestClassLoader(final URL ... urls) {
+      super(urls, null);
+    }
+
+    @Override
+    public void addURL(final URL url) {
+      super.addURL(url);
+    }
+  }
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private File cacheDir;
+  private File pluginDir;
+  private File jarFile;
+
+  @Before
+  public void before() throws IOException {
+    cacheDir = folder.newFolder("cache");
+    pluginDir = folder.newFolder("plugin");
+    Files.write(new File(pluginDir, "sa.rule.name.test").toPath(), "io.opentracing.contrib.specialagent.TestAdapter".getBytes(StandardCharsets.UTF_8));
+    Files.write(new File(pluginDir, "fingerprint.bin").toPath(), new byte[] {1, 2, 3});
+    jarFile = new File(folder.getRoot(), "lib.jar");
+    writeJar(jarFile, "a");
+  }
+
+  private static void writeJar(final File file, final String content) throws IOException {
+    try (final JarOutputStream out = new JarOutputStream(new FileOutputStream(file))) {
+      out.putNextEntry(new JarEntry("a/A.class"));
+      out.write(content.getBytes(StandardCharsets.UTF_8));
+      out.closeEntry();
+    }
+  }
+
+  private PluginManifest getPluginManifest() {
+    final PluginManifest pluginManifest = PluginManifest.getPluginManifest(pluginDir);
+    assertNotNull(pluginManifest);
+    return pluginManifest;
+  }
+
+  private static URL toURL(final File file) throws MalformedURLException {
+    return file.toURI().toURL();
+  }
+
+  @Test
+  public void testKeyIsStableAcrossRestarts() throws IOException {
+    final String key = new CompatibilityCache(cacheDir).key(getPluginManifest(), new TestClassLoader(toURL(jarFile)));
+    assertNotNull(key);
+    assertEquals(key, new CompatibilityCache(cacheDir).key(getPluginManifest(), new TestClassLoader(toURL(jarFile))));
+  }
+
+  @Test
+  public void testKeyChangesWithJar() throws IOException {
+    final String key = new CompatibilityCache(cacheDir).key(getPluginManifest(), new TestClassLoader(toURL(jarFile)));
+    writeJar(jarFile, "b");
+    assertNotEquals(key, new CompatibilityCache(cacheDir).key(getPluginManifest(), new TestClassLoader(toURL(jarFile))));
+  }
+
+  @Test
+  public void testKeyChangesWithAddedURL() throws IOException {
+    final CompatibilityCache cache = new CompatibilityCache(cacheDir);
+    final TestClassLoader classLoader = new TestClassLoader(toURL(jarFile));
+    final String key = cache.key(getPluginManifest(), classLoader);
+
+    final File otherJarFile = new File(folder.getRoot(), "other.jar");
+    writeJar(otherJarFile, "a");
+    classLoader.addURL(toURL(otherJarFile));
+    final String addedKey = cache.key(getPluginManifest(), classLoader);
+    assertNotNull(addedKey);
+    assertNotEquals(key, addedKey);
+  }
+
+  @Test
+  public void testKeyChangesWithFingerprint() throws IOException {
+    final String key = new CompatibilityCache(cacheDir).key(getPluginManifest(), new TestClassLoader(toURL(jarFile)));
+    Files.write(new File(pluginDir, "fingerprint.bin").toPath(), new byte[] {1, 2, 4});
+    assertNotEquals(key, new CompatibilityCache(cacheDir).key(getPluginManifest(), new TestClassLoader(toURL(jarFile))));
+  }
+
+  @Test
+  public void testKeyChangesWithDirectory() throws IOException {
+    final File classes = folder.newFolder("classes");
+    final File classFile = new File(classes, "A.class");
+    Files.write(classFile.toPath(), new byte[] {1});
+    final String key = new CompatibilityCache(cacheDir).key(getPluginManifest(), new TestClassLoader(toURL(classes)));
+
+    Files.write(classFile.toPath(), new byte[] {1, 2});
+    assertNotEquals(key, new CompatibilityCache(cacheDir).key(getPluginManifest(), new TestClassLoader(toURL(classes))));
+  }
+
+  @Test
+  public void testUncacheableURL() throws IOException {
+    assertNull(new CompatibilityCache(cacheDir).key(getPluginManifest(), new TestClassLoader(new URL("http://localhost/lib.jar"))));
+  }
+
+  @Test
+  public void testPutGet() throws IOException {
+    final CompatibilityCache cache = new CompatibilityCache(cacheDir);
+    final String key = cache.key(getPluginManifest(), new TestClassLoader(toURL(jarFile)));
+    assertNull(cache.get(key));
+
+    cache.put(key, false);
+    assertEquals(Boolean.FALSE, cache.get(key));
+    assertEquals(Boolean.FALSE, new CompatibilityCache(cacheDir).get(key));
+
+    cache.put(key, true);
+    assertEquals(Boolean.TRUE, cache.get(key));
+  }
+
+  @Test
+  public void testCorruptEntry() throws IOException {
+    final CompatibilityCache cache = new CompatibilityCache(cacheDir);
+    final String key = cache.key(getPluginManifest(), new TestClassLoader(toURL(jarFile)));
+    final File file = new File(cacheDir, key);
+
+    Files.write(file.toPath(), "tr".getBytes(StandardCharsets.UTF_8));
+    assertNull(cache.get(key));
+
+    Files.write(file.toPath(), new byte[0]);
+    assertNull(cache.get(key));
+
+    Files.write(file.toPath(), new byte[] {(byte)0xff, 0, 't'});
+    assertNull(cache.get(key));
+  }
+}
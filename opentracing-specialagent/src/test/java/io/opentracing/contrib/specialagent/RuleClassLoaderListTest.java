@@ -0,0 +1,129 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.opentracing.contrib.specialagent;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Iterator;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link RuleClassLoaderList}.
+ *
+ * @author Seva Safris
+ */
+public class RuleClassLoaderListTest {
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private RuleClassLoader a;
+  private RuleClassLoader b;
+  private RuleClassLoader c;
+
+  private RuleClassLoader newRuleClassLoader(final String ... names) throws IOException {
+    final File dir = folder.newFolder();
+    for (final String name : names)
+      Files.write(new File(dir, name).toPath(), name.getBytes());
+
+    return new RuleClassLoader(PluginManifest.id(File.createTempFile("rule", ".jar", folder.getRoot())), null, null, dir);
+  }
+
+  @Before
+  public void before() throws IOException {
+    a = newRuleClassLoader("a.txt", "ab.txt", "abc.txt");
+    b = newRuleClassLoader("ab.txt", "abc.txt");
+    c = newRuleClassLoader("abc.txt", "c.txt");
+  }
+
+  @Test
+  public void testAdd() {
+    final RuleClassLoaderList list = new RuleClassLoaderList();
+    assertNull(list.lookup("a.txt"));
+    list.add(a);
+    list.add(b);
+    list.add(c);
+    assertArrayEquals(new RuleClassLoader[] {a}, list.lookup("a.txt"));
+    assertArrayEquals(new RuleClassLoader[] {a, b}, list.lookup("ab.txt"));
+    assertArrayEquals(new RuleClassLoader[] {a, b, c}, list.lookup("abc.txt"));
+    assertArrayEquals(new RuleClassLoader[] {c}, list.lookup("c.txt"));
+    assertNull(list.lookup("missing.txt"));
+  }
+
+  @Test
+  public void testAddAtIndex() {
+    final RuleClassLoaderList list = new RuleClassLoaderList();
+    list.add(c);
+    list.add(0, a);
+    list.add(1, b);
+    assertArrayEquals(new RuleClassLoader[] {a, b}, list.lookup("ab.txt"));
+    assertArrayEquals(new RuleClassLoader[] {a, b, c}, list.lookup("abc.txt"));
+  }
+
+  @Test
+  public void testRemove() {
+    final RuleClassLoaderList list = new RuleClassLoaderList();
+    list.add(a);
+    list.add(b);
+    list.add(c);
+    assertSame(a, list.remove(0));
+    assertNull(list.lookup("a.txt"));
+    assertArrayEquals(new RuleClassLoader[] {b}, list.lookup("ab.txt"));
+    assertArrayEquals(new RuleClassLoader[] {b, c}, list.lookup("abc.txt"));
+
+    assertTrue(list.remove(c));
+    assertNull(list.lookup("c.txt"));
+    assertArrayEquals(new RuleClassLoader[] {b}, list.lookup("abc.txt"));
+
+    final Iterator<RuleClassLoader> iterator = list.iterator();
+    assertSame(b, iterator.next());
+    iterator.remove();
+    assertTrue(list.isEmpty());
+    assertNull(list.lookup("abc.txt"));
+  }
+
+  @Test
+  public void testSet() {
+    final RuleClassLoaderList list = new RuleClassLoaderList();
+    list.add(a);
+    list.add(b);
+    assertSame(a, list.set(0, c));
+    assertNull(list.lookup("a.txt"));
+    assertArrayEquals(new RuleClassLoader[] {b}, list.lookup("ab.txt"));
+    assertArrayEquals(new RuleClassLoader[] {c, b}, list.lookup("abc.txt"));
+    assertArrayEquals(new RuleClassLoader[] {c}, list.lookup("c.txt"));
+  }
+
+  @Test
+  public void testClear() {
+    final RuleClassLoaderList list = new RuleClassLoaderList();
+    list.add(a);
+    list.add(b);
+    list.clear();
+    assertTrue(list.isEmpty());
+    assertNull(list.lookup("a.txt"));
+    assertNull(list.lookup("abc.txt"));
+    list.add(c);
+    assertArrayEquals(new RuleClassLoader[] {c}, list.lookup("abc.txt"));
+  }
+}
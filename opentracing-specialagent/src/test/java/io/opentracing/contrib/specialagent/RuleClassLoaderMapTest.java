@@ -0,0 +1,94 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link RuleClassLoaderMap} and {@link ClassLoaderMap}.
+ *
+ * @author Seva Safris
+ */
+public class RuleClassLoaderMapTest {
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private static WeakReference<ClassLoader> link(final RuleClassLoaderMap map, final File dir) {
+    final ClassLoader classLoader = new URLClassLoader(new URL[0], ClassLoader.getSystemClassLoader());
+    final RuleClassLoaderList ruleClassLoaders = new RuleClassLoaderList();
+    ruleClassLoaders.add(new RuleClassLoader(PluginManifest.id(new File(dir, "rule.jar")), null, classLoader, dir));
+    map.put(classLoader, ruleClassLoaders);
+    return new WeakReference<>(classLoader);
+  }
+
+  @Test
+  public void testReclaimed() throws InterruptedException, IOException {
+    final CountDownLatch latch = new CountDownLatch(1);
+    final AtomicReference<Thread> closer = new AtomicReference<>();
+    final RuleClassLoaderMap map = new RuleClassLoaderMap() {
+      @Override
+      void close(final RuleClassLoaderList ruleClassLoaders) {
+        super.close(ruleClassLoaders);
+        closer.set(Thread.currentThread());
+        latch.countDown();
+      }
+    };
+
+    final WeakReference<ClassLoader> reference = link(map, folder.newFolder());
+    assertEquals(1, map.getLiveCount());
+    for (int i = 0; i < 100 && (reference.get() != null || map.getReclaimedCount() == 0); ++i) {
+      System.gc();
+      Thread.sleep(10);
+      map.size();
+    }
+
+    assertNull(reference.get());
+    assertEquals(1, map.getReclaimedCount());
+    assertEquals(0, map.getLiveCount());
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertNotSame(Thread.currentThread(), closer.get());
+  }
+
+  @Test
+  public void testNullKey() {
+    final ClassLoaderMap<String> map = new ClassLoaderMap<>();
+    assertNull(map.put(null, "a"));
+    assertTrue(map.containsKey(null));
+    assertEquals("a", map.get(null));
+    assertEquals("a", map.get(BootProxyClassLoader.INSTANCE));
+    assertEquals("a", map.remove(null));
+    assertFalse(map.containsKey(null));
+    assertNull(map.remove(null));
+
+    assertNull(map.putIfAbsent(null, "b"));
+    assertFalse(map.remove(null, "a"));
+    assertTrue(map.remove(null, "b"));
+    assertFalse(map.containsKey(BootProxyClassLoader.INSTANCE));
+  }
+}
@@ -0,0 +1,62 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link RuleClassLoader}.
+ *
+ * @author Seva Safris
+ */
+public class RuleClassLoaderTest {
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testClosedToChildrenOnly() throws IOException {
+    final File dir = folder.newFolder("rule.jar");
+    final File services = new File(dir, "META-INF/services");
+    assertTrue(services.mkdirs());
+    Files.write(new File(services, "io.opentracing.contrib.tracerresolver.TracerFactory").toPath(), new byte[0]);
+
+    final ClassLoader parent = new URLClassLoader(new URL[0], ClassLoader.getSystemClassLoader());
+    final ClassLoader child = new URLClassLoader(new URL[0], parent);
+    final RuleClassLoader ruleClassLoader = new RuleClassLoader(PluginManifest.getPluginManifest(dir), null, parent, dir);
+    assertFalse(ruleClassLoader.isClosed(parent));
+    assertFalse(ruleClassLoader.isClosed(child, parent));
+
+    ruleClassLoader.inject(parent, false);
+    assertTrue(ruleClassLoader.isClosed(parent));
+
+    // Closed to the child, which resolves the injected classes via the parent
+    assertTrue(ruleClassLoader.isClosed(child, parent));
+
+    // Not closed to the parent itself, which loads the lazy classes on demand
+    assertFalse(ruleClassLoader.isClosed(parent, parent));
+    assertFalse(ruleClassLoader.isClosed(child, child));
+  }
+}
@@ -0,0 +1,158 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.opentracing.contrib.specialagent;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link RuleIndex}.
+ *
+ * @author Seva Safris
+ */
+public class RuleIndexTest {
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private static void putEntry(final ZipOutputStream out, final String name, final byte[] bytes, final boolean store) throws IOException {
+    final ZipEntry entry = new ZipEntry(name);
+    if (store) {
+      final CRC32 crc = new CRC32();
+      crc.update(bytes);
+      entry.setMethod(ZipEntry.STORED);
+      entry.setSize(bytes.length);
+      entry.setCompressedSize(bytes.length);
+      entry.setCrc(crc.getValue());
+    }
+
+    out.putNextEntry(entry);
+    out.write(bytes);
+    out.closeEntry();
+  }
+
+  private static void writeJar(final OutputStream out, final String ... names) throws IOException {
+    try (final ZipOutputStream zip = new ZipOutputStream(out)) {
+      for (final String name : names)
+        putEntry(zip, name, name.getBytes(), false);
+    }
+  }
+
+  private File newPluginFile() throws IOException {
+    return File.createTempFile("rule", ".jar", folder.getRoot());
+  }
+
+  private File newDir(final String ... names) throws IOException {
+    final File dir = folder.newFolder();
+    for (final String name : names) {
+      final File file = new File(dir, name);
+      file.getParentFile().mkdirs();
+      Files.write(file.toPath(), name.getBytes());
+    }
+
+    return dir;
+  }
+
+  private File newJar(final String ... names) throws IOException {
+    final File file = File.createTempFile("dep", ".jar", folder.getRoot());
+    try (final FileOutputStream out = new FileOutputStream(file)) {
+      writeJar(out, names);
+    }
+
+    return file;
+  }
+
+  private NestedJarFile newNestedJar(final String ... names) throws IOException {
+    final ByteArrayOutputStream nested = new ByteArrayOutputStream();
+    writeJar(nested, names);
+    final File file = File.createTempFile("outer", ".jar", folder.getRoot());
+    try (final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+      putEntry(out, "META-INF/opentracing-specialagent/nested.jar", nested.toByteArray(), true);
+    }
+
+    return NestedJarFile.open(file, "META-INF/opentracing-specialagent/nested.jar");
+  }
+
+  private static void assertIndex(final RuleIndex index, final String ... names) {
+    assertEquals(names.length, index.getNames().size());
+    for (final String name : names) {
+      assertTrue(name, index.contains(name));
+      assertTrue(name, RuleIndex.mightContain(name));
+      assertArrayEquals(name, name.getBytes(), index.readBytes(name));
+    }
+
+    assertFalse(index.contains("missing.txt"));
+    assertNull(index.readBytes("missing.txt"));
+  }
+
+  @Test
+  public void testDirectory() throws IOException {
+    final RuleIndex index = RuleIndex.get(newPluginFile(), new File[] {newDir("a/A.class", "a/b.txt")});
+    assertIndex(index, "a/A.class", "a/b.txt");
+    assertEquals(Arrays.asList("a.A"), index.getPreloadClassNames());
+  }
+
+  @Test
+  public void testJar() throws IOException {
+    final RuleIndex index = RuleIndex.get(newPluginFile(), new File[] {newJar("META-INF/MANIFEST.MF", "a/A.class", "a/b.txt")});
+    assertIndex(index, "META-INF/MANIFEST.MF", "a/A.class", "a/b.txt");
+    assertEquals(Arrays.asList("a.A"), index.getPreloadClassNames());
+  }
+
+  @Test
+  public void testNestedJar() throws IOException {
+    final NestedJarFile nestedJar = newNestedJar("a/A.class", "a/b.txt");
+    assertNotNull(nestedJar);
+    final RuleIndex index = RuleIndex.get(newPluginFile(), new File[] {nestedJar});
+    assertIndex(index, "a/A.class", "a/b.txt");
+    assertEquals(Arrays.asList("a.A"), index.getPreloadClassNames());
+  }
+
+  @Test
+  public void testFirstSourceWins() throws IOException {
+    final File dir = newDir("a/b.txt");
+    final File jar = newJar("a/b.txt", "c.txt");
+    Files.write(new File(dir, "a/b.txt").toPath(), "dir".getBytes());
+    final RuleIndex index = RuleIndex.get(newPluginFile(), new File[] {dir, jar, newNestedJar("c.txt", "d.txt")});
+    assertEquals(3, index.getNames().size());
+    assertArrayEquals("dir".getBytes(), index.readBytes("a/b.txt"));
+    assertArrayEquals("c.txt".getBytes(), index.readBytes("c.txt"));
+    assertArrayEquals("d.txt".getBytes(), index.readBytes("d.txt"));
+  }
+
+  @Test
+  public void testCachedPerPluginFile() throws IOException {
+    final File pluginFile = newPluginFile();
+    final RuleIndex index = RuleIndex.get(pluginFile, new File[] {newDir("a.txt")});
+    assertSame(index, RuleIndex.get(pluginFile, new File[] {newDir("b.txt")}));
+    assertTrue(index.contains("a.txt"));
+    assertFalse(index.contains("b.txt"));
+  }
+}
@@ -22,6 +22,11 @@ import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
@@ -127,4 +132,90 @@ public class SpecialAgentUtilTest {
 
     assertEquals(a.length, i);
   }
+
+  @Test
+  public void testComputeOnce() throws InterruptedException {
+    final int threads = 16;
+    final int keys = 64;
+    final ConcurrentHashMap<Integer,Future<Boolean>> map = new ConcurrentHashMap<>();
+    final AtomicInteger[] calls = new AtomicInteger[keys];
+    for (int i = 0; i < keys; ++i)
+      calls[i] = new AtomicInteger();
+
+    final CountDownLatch start = new CountDownLatch(1);
+    final AtomicInteger failures = new AtomicInteger();
+    final Thread[] workers = new Thread[threads];
+    for (int t = 0; t < threads; ++t) {
+      workers[t] = new Thread() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+            for (int i = 0; i < keys * 100; ++i) {
+              final int key = i % keys;
+              final Boolean value = SpecialAgentUtil.computeOnce(map, key, new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws InterruptedException {
+                  calls[key].incrementAndGet();
+                  Thread.sleep(1);
+                  return key % 2 == 0;
+                }
+              });
+
+              if (value == null || value != (key % 2 == 0))
+                failures.incrementAndGet();
+            }
+          }
+          catch (final InterruptedException e) {
+            failures.incrementAndGet();
+          }
+        }
+      };
+      workers[t].start();
+    }
+
+    start.countDown();
+    for (final Thread worker : workers)
+      worker.join();
+
+    assertEquals(0, failures.get());
+    for (int i = 0; i < keys; ++i)
+      assertEquals(String.valueOf(i), 1, calls[i].get());
+  }
+
+  @Test
+  public void testComputeOnceException() {
+    final ConcurrentHashMap<String,Future<Boolean>> map = new ConcurrentHashMap<>();
+    try {
+      SpecialAgentUtil.computeOnce(map, "key", new Callable<Boolean>() {
+        @Override
+        public Boolean call() {
+          throw new UnsupportedOperationException();
+        }
+      });
+      fail("Expected UnsupportedOperationException");
+    }
+    catch (final UnsupportedOperationException e) {
+    }
+
+    assertTrue(map.isEmpty());
+    assertTrue(SpecialAgentUtil.computeOnce(map, "key", new Callable<Boolean>() {
+      @Override
+      public Boolean call() {
+        return true;
+      }
+    }));
+  }
+
+  @Test
+  public void testComputeOnceReentrant() {
+    final ConcurrentHashMap<String,Future<Boolean>> map = new ConcurrentHashMap<>();
+    assertTrue(SpecialAgentUtil.computeOnce(map, "key", new Callable<Boolean>() {
+      @Override
+      public Boolean call() {
+        assertNull(SpecialAgentUtil.computeOnce(map, "key", this));
+        return true;
+      }
+    }));
+  }
 }
\ No newline at end of file
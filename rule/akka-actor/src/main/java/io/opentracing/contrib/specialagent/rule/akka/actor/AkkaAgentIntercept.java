@@ -15,7 +15,7 @@
 
 package io.opentracing.contrib.specialagent.rule.akka.actor;
 
-import java.util.HashMap;
+import java.util.Map;
 
 import akka.actor.AbstractActor;
 import akka.actor.ActorRef;
@@ -27,14 +27,64 @@ import io.opentracing.Scope;
 import io.opentracing.Span;
 import io.opentracing.Tracer;
 import io.opentracing.Tracer.SpanBuilder;
+import io.opentracing.contrib.specialagent.ConcurrentWeakIdentityHashMap;
 import io.opentracing.contrib.specialagent.LocalSpanContext;
 import io.opentracing.contrib.specialagent.OpenTracingApiUtil;
-import io.opentracing.propagation.Format;
 import io.opentracing.tag.Tags;
 import io.opentracing.util.GlobalTracer;
 
 public class AkkaAgentIntercept {
   static final String COMPONENT_NAME = "java-akka";
+  private static final RateLimiter rateLimiter = new RateLimiter(Configuration.tracesPerSecond);
+  private static final Map<ActorRef,ActorPath> actorToPath = new ConcurrentWeakIdentityHashMap<>();
+
+  private static final class ActorPath {
+    private final String path;
+    private final boolean isSystem;
+
+    private ActorPath(final String path) {
+      this.path = path;
+      this.isSystem = path.contains("/system/");
+    }
+  }
+
+  /**
+   * Returns the {@link ActorPath} of the specified {@link ActorRef} or
+   * {@link ActorSelection}. The path of an {@link ActorRef} is computed once
+   * per instance. The path of an {@link ActorSelection} is computed on each
+   * call, because a new {@link ActorSelection} is created for each use.
+   *
+   * @param actor The {@link ActorRef} or {@link ActorSelection}.
+   * @return The {@link ActorPath} of the specified {@link ActorRef} or
+   *         {@link ActorSelection}, or {@code null} if {@code actor} is
+   *         neither.
+   */
+  private static ActorPath getPath(final Object actor) {
+    if (actor instanceof ActorSelection)
+      return new ActorPath(((ActorSelection)actor).toSerializationFormat());
+
+    if (!(actor instanceof ActorRef))
+      return null;
+
+    final ActorRef actorRef = (ActorRef)actor;
+    ActorPath path = actorToPath.get(actorRef);
+    if (path == null)
+      actorToPath.put(actorRef, path = new ActorPath(actorRef.path().toString()));
+
+    return path;
+  }
+
+  /**
+   * Returns whether a message without a parent span is to be traced, which is
+   * always the case unless {@link Configuration#withActiveSpanOnly} is set, in
+   * which case only messages selected by the rate limit of
+   * {@link Configuration#tracesPerSecond} are traced.
+   *
+   * @return Whether a message without a parent span is to be traced.
+   */
+  private static boolean traceWithoutParent() {
+    return !Configuration.withActiveSpanOnly || rateLimiter.tryAcquire();
+  }
 
   public static Object aroundReceiveStart(final Object thiz, final Object message) {
     if (!(message instanceof TracedMessage) && LocalSpanContext.get(COMPONENT_NAME) != null) {
@@ -42,6 +92,9 @@ public class AkkaAgentIntercept {
       return message;
     }
 
+    if (!(message instanceof TracedMessage) && !traceWithoutParent())
+      return message;
+
     final Tracer tracer = GlobalTracer.get();
     final SpanBuilder spanBuilder = tracer
       .buildSpan("receive")
@@ -51,11 +104,11 @@ public class AkkaAgentIntercept {
     final TracedMessage<?> tracedMessage;
     if (message instanceof TracedMessage) {
       tracedMessage = (TracedMessage<?>)message;
-      spanBuilder.addReference(References.FOLLOWS_FROM, tracedMessage.spanContext(tracer));
+      spanBuilder.addReference(References.FOLLOWS_FROM, tracedMessage.getSpanContext());
     }
     else {
       tracedMessage = null;
-      spanBuilder.withTag(Tags.MESSAGE_BUS_DESTINATION, ((AbstractActor)thiz).getSelf().path().toString());
+      spanBuilder.withTag(Tags.MESSAGE_BUS_DESTINATION, getPath(((AbstractActor)thiz).getSelf()).path);
     }
 
     final Span span = spanBuilder.start();
@@ -91,32 +144,25 @@ public class AkkaAgentIntercept {
     if (sender instanceof ActorRef && ((ActorRef)sender).isTerminated())
       return message;
 
-    final String path;
-    if (arg0 instanceof ActorRef)
-      path = ((ActorRef)arg0).path().toString();
-    else if (arg0 instanceof ActorSelection)
-      path = ((ActorSelection)arg0).toSerializationFormat();
-    else
+    final ActorPath path = getPath(arg0);
+    if (path == null || path.isSystem)
       return message;
 
-    if (path.contains("/system/"))
+    final Tracer tracer = GlobalTracer.get();
+    if (tracer.activeSpan() == null && !traceWithoutParent())
       return message;
 
-    final Tracer tracer = GlobalTracer.get();
     final Span span = tracer
       .buildSpan(method)
       .withTag(Tags.COMPONENT, COMPONENT_NAME)
       .withTag(Tags.SPAN_KIND, Tags.SPAN_KIND_PRODUCER)
-      .withTag(Tags.MESSAGE_BUS_DESTINATION, path)
+      .withTag(Tags.MESSAGE_BUS_DESTINATION, path.path)
       .start();
 
-    final HashMap<String,String> headers = new HashMap<>();
-    tracer.inject(span.context(), Format.Builtin.TEXT_MAP_INJECT, headers::put);
-
     final Scope scope = tracer.activateSpan(span);
     LocalSpanContext.set(COMPONENT_NAME, span, scope);
 
-    return new TracedMessage<>(message, headers);
+    return new TracedMessage<>(message, span.context());
   }
 
   public static void askEnd(final Object arg0, final Object message, final Throwable thrown, final Object sender) {
@@ -0,0 +1,48 @@
+/* Copyright 2019 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent.rule.akka.actor;
+
+import io.opentracing.contrib.specialagent.AssembleUtil;
+import io.opentracing.contrib.specialagent.Level;
+import io.opentracing.contrib.specialagent.Logger;
+
+public final class Configuration {
+  public static final Logger logger = Logger.getLogger(Configuration.class);
+  public static final String WITH_ACTIVE_SPAN_ONLY = "sa.integration.akka:actor.withActiveSpanOnly";
+  public static final String TRACES_PER_SECOND = "sa.integration.akka:actor.tracesPerSecond";
+
+  public static final boolean withActiveSpanOnly = AssembleUtil.isSystemProperty(WITH_ACTIVE_SPAN_ONLY, null);
+  public static final int tracesPerSecond = parseTracesPerSecond(System.getProperty(TRACES_PER_SECOND));
+
+  private static int parseTracesPerSecond(final String tracesPerSecondArg) {
+    if (tracesPerSecondArg == null)
+      return 0;
+
+    try {
+      final int tracesPerSecond = Integer.parseInt(tracesPerSecondArg.trim());
+      if (tracesPerSecond >= 0)
+        return tracesPerSecond;
+    }
+    catch (final NumberFormatException e) {
+    }
+
+    logger.log(Level.WARNING, "Invalid value for -D" + TRACES_PER_SECOND + "=" + tracesPerSecondArg + ": expected a non-negative integer");
+    return 0;
+  }
+
+  private Configuration() {
+  }
+}
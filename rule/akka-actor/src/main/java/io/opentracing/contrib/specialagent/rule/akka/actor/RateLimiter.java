@@ -0,0 +1,54 @@
+/* Copyright 2019 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent.rule.akka.actor;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A rate limiter that grants at most one permit per {@code 1 / permitsPerSecond}
+ * seconds, without bursts.
+ *
+ * @author Seva Safris
+ */
+class RateLimiter {
+  private final long interval;
+  private final AtomicLong next;
+
+  /**
+   * Creates a new {@link RateLimiter} with the specified rate.
+   *
+   * @param permitsPerSecond The number of permits per second. If
+   *          {@code permitsPerSecond} is {@code 0}, no permits are granted.
+   */
+  RateLimiter(final int permitsPerSecond) {
+    this.interval = permitsPerSecond == 0 ? -1 : 1000000000L / permitsPerSecond;
+    this.next = new AtomicLong(System.nanoTime());
+  }
+
+  /**
+   * Returns whether a permit was granted.
+   *
+   * @return Whether a permit was granted.
+   */
+  boolean tryAcquire() {
+    if (interval < 0)
+      return false;
+
+    final long next = this.next.get();
+    final long now = System.nanoTime();
+    return now - next >= 0 && this.next.compareAndSet(next, now + interval);
+  }
+}
@@ -15,26 +15,28 @@
 
 package io.opentracing.contrib.specialagent.rule.akka.actor;
 
-import java.util.Map;
-
 import io.opentracing.SpanContext;
-import io.opentracing.Tracer;
-import io.opentracing.propagation.Format;
 
+/**
+ * Wrapper of a message sent to an actor, which carries the
+ * {@link SpanContext} of the sending span. The {@link SpanContext} is held
+ * by reference, because {@link TracedMessage} is not serializable, and thus
+ * is only ever delivered within this JVM.
+ */
 public class TracedMessage<T> {
   private final T message;
-  private final Map<String,String> headers;
+  private final SpanContext spanContext;
 
-  public TracedMessage(final T message, final Map<String,String> headers) {
+  public TracedMessage(final T message, final SpanContext spanContext) {
     this.message = message;
-    this.headers = headers;
+    this.spanContext = spanContext;
   }
 
   public T getMessage() {
     return message;
   }
 
-  public SpanContext spanContext(final Tracer tracer) {
-    return tracer.extract(Format.Builtin.TEXT_MAP_EXTRACT, headers.entrySet()::iterator);
+  public SpanContext getSpanContext() {
+    return spanContext;
   }
-}
\ No newline at end of file
+}
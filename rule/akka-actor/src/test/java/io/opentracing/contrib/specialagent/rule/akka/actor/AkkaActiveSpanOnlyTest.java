@@ -0,0 +1,113 @@
+/* Copyright 2019 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.opentracing.contrib.specialagent.rule.akka.actor;
+
+import static akka.pattern.Patterns.*;
+import static org.awaitility.Awaitility.*;
+import static org.hamcrest.core.IsEqual.*;
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSelection;
+import akka.actor.ActorSystem;
+import akka.util.Timeout;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.contrib.specialagent.AgentRunner;
+import io.opentracing.contrib.specialagent.TestUtil;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.tag.Tags;
+import scala.concurrent.Await;
+import scala.concurrent.Future;
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
+@RunWith(AgentRunner.class)
+@AgentRunner.Config(properties = {"sa.integration.akka:actor.withActiveSpanOnly=true", "sa.integration.akka:actor.tracesPerSecond=0"})
+public class AkkaActiveSpanOnlyTest {
+  private static ActorSystem system;
+
+  @BeforeClass
+  public static void beforeClass() {
+    system = ActorSystem.create("testSystem");
+  }
+
+  @AfterClass
+  public static void afterClass() throws Exception {
+    if (system != null)
+      Await.result(system.terminate(), getDefaultDuration());
+  }
+
+  @Before
+  public void before(final MockTracer tracer) {
+    tracer.reset();
+  }
+
+  @Test
+  public void testWithoutParent(final MockTracer tracer) throws Exception {
+    final ActorRef actorRef = system.actorOf(AkkaTest.TestActor.props(tracer, false), "without-parent");
+    final Timeout timeout = new Timeout(getDefaultDuration());
+
+    final Future<Object> future = ask(actorRef, "ask", timeout);
+    final Boolean isSpanNull = (Boolean)Await.result(future, getDefaultDuration());
+    assertTrue(isSpanNull);
+
+    system.actorSelection(actorRef.path()).tell("tell-selection", ActorRef.noSender());
+    TimeUnit.SECONDS.sleep(1);
+    assertEquals(0, tracer.finishedSpans().size());
+  }
+
+  @Test
+  public void testWithParent(final MockTracer tracer) {
+    final ActorRef actorRef = system.actorOf(AkkaTest.TestActor.props(tracer, false), "with-parent");
+    final ActorSelection actorSelection = system.actorSelection(actorRef.path());
+
+    final Span parent = tracer.buildSpan("parent").start();
+    try (final Scope scope = tracer.activateSpan(parent)) {
+      actorRef.tell("tell", ActorRef.noSender());
+      actorSelection.tell("tell-selection", ActorRef.noSender());
+    }
+    finally {
+      parent.finish();
+    }
+
+    await().atMost(15, TimeUnit.SECONDS).until(TestUtil.reportedSpansSize(tracer), equalTo(5));
+
+    final List<MockSpan> spans = tracer.finishedSpans();
+    assertEquals(5, spans.size());
+    for (final MockSpan span : spans) {
+      if (span != parent) {
+        assertEquals(AkkaAgentIntercept.COMPONENT_NAME, span.tags().get(Tags.COMPONENT.getKey()));
+        assertEquals(((MockSpan)parent).context().traceId(), span.context().traceId());
+      }
+    }
+  }
+
+  private static FiniteDuration getDefaultDuration() {
+    return Duration.create(15, "seconds");
+  }
+}
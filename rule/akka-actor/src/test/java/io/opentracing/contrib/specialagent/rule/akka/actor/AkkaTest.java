@@ -117,6 +117,15 @@ public class AkkaTest {
       assertEquals(AkkaAgentIntercept.COMPONENT_NAME, span.tags().get(Tags.COMPONENT.getKey()));
   }
 
+  @Test
+  public void testRateLimiter() {
+    assertFalse(new RateLimiter(0).tryAcquire());
+
+    final RateLimiter rateLimiter = new RateLimiter(1);
+    assertTrue(rateLimiter.tryAcquire());
+    assertFalse(rateLimiter.tryAcquire());
+  }
+
   private static FiniteDuration getDefaultDuration() {
     return Duration.create(15, "seconds");
   }
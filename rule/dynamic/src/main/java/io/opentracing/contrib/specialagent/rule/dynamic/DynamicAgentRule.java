@@ -15,9 +15,8 @@
 
 package io.opentracing.contrib.specialagent.rule.dynamic;
 
-import static net.bytebuddy.matcher.ElementMatchers.*;
-
-import java.util.ArrayList;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 
 import io.opentracing.contrib.specialagent.AgentRule;
 import net.bytebuddy.agent.builder.AgentBuilder;
@@ -26,54 +25,66 @@ import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.dynamic.DynamicType;
 import net.bytebuddy.dynamic.DynamicType.Builder;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
+import net.bytebuddy.implementation.bytecode.constant.TextConstant;
 import net.bytebuddy.matcher.ElementMatcher.Junction;
 import net.bytebuddy.utility.JavaModule;
 
 public class DynamicAgentRule extends AgentRule {
   private static final String RULES = "sa.integration.dynamic.rules";
 
+  /**
+   * Binds the operation name of spans for the instrumented method, as per
+   * {@link #getOperationName(String,String)}.
+   */
+  @Retention(RetentionPolicy.RUNTIME)
+  public @interface OperationName {
+  }
+
+  /**
+   * {@link Advice.OffsetMapping} that resolves the {@link OperationName} of the
+   * instrumented method to a constant when the method is instrumented.
+   */
+  private static final Advice.OffsetMapping operationName = new Advice.OffsetMapping() {
+    @Override
+    public Target resolve(final TypeDescription instrumentedType, final MethodDescription instrumentedMethod, final Assigner assigner, final Advice.ArgumentHandler argumentHandler, final Sort sort) {
+      return new Target.ForStackManipulation(new TextConstant(getOperationName(instrumentedType.getName(), instrumentedMethod.getInternalName())));
+    }
+  };
+
+  /**
+   * Returns the operation name of spans for the specified method, which is the
+   * method name, or the simple name of the declaring type for constructors and
+   * type initializers.
+   *
+   * @param typeName The name of the type declaring the method.
+   * @param methodName The internal name of the method.
+   * @return The operation name of spans for the specified method.
+   */
+  static String getOperationName(final String typeName, final String methodName) {
+    return methodName.charAt(0) != '<' ? methodName : typeName.substring(typeName.lastIndexOf('.') + 1);
+  }
+
   @Override
   public AgentBuilder[] buildAgentUnchained(final AgentBuilder builder) {
     final String rules = System.getProperty(RULES);
     if (rules == null || rules.isEmpty())
       return null;
 
-    final ArrayList<AgentBuilder> builders = new ArrayList<>();
-    final DynamicSpec[] specs = DynamicSpec.parseRules(rules);
-    for (final DynamicSpec spec : specs) {
-      Junction<TypeDescription> type = named(spec.className);
-      if (spec.polymorphic)
-        type = hasSuperType(type);
-
-      builders.add(builder.type(type).transform(new AgentBuilder.Transformer() {
-        @Override
-        public DynamicType.Builder<?> transform(final Builder<?> builder, final TypeDescription typeDescription, final ClassLoader classLoader, final JavaModule module) {
-          Junction<MethodDescription> methodDesc = named(spec.methodName);
-          if (spec.args != null) {
-            methodDesc = methodDesc.and(takesArguments(spec.args.length));
-            for (int i = 0; i < spec.args.length; ++i)
-              methodDesc = methodDesc.and(takesArgument(i, named(spec.args[i])));
-          }
-
-          if (spec.returning != null) {
-            if ("<void>".equals(spec.returning))
-              methodDesc = methodDesc.and(returns(void.class));
-            else
-              methodDesc = methodDesc.and(returns(named(spec.returning)));
-          }
-
-          return builder.visit(advice(typeDescription).to(DynamicAgentRule.class).on(methodDesc));
-        }
-      }));
-    }
-
-    return builders.toArray(new AgentBuilder[builders.size()]);
+    final DynamicTypeMatcher typeMatcher = new DynamicTypeMatcher(DynamicSpec.parseRules(rules));
+    return new AgentBuilder[] {builder.type(typeMatcher).transform(new AgentBuilder.Transformer() {
+      @Override
+      public DynamicType.Builder<?> transform(final Builder<?> builder, final TypeDescription typeDescription, final ClassLoader classLoader, final JavaModule module) {
+        final Junction<MethodDescription> methodDesc = typeMatcher.getMethodMatcher(typeDescription);
+        return methodDesc == null ? builder : builder.visit(advice(typeDescription).bind(OperationName.class, operationName).to(DynamicAgentRule.class).on(methodDesc));
+      }
+    })};
   }
 
   @Advice.OnMethodEnter
-  public static void enter(final @ClassName String className, final @Advice.Origin String origin) {
+  public static void enter(final @ClassName String className, final @Advice.Origin String origin, final @OperationName String operationName) {
     if (isAllowed(className, origin))
-      DynamicAgentIntercept.enter(origin);
+      DynamicAgentIntercept.enter(operationName, origin);
   }
 
   @Advice.OnMethodExit(onThrowable = Throwable.class)
@@ -0,0 +1,106 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent.rule.dynamic;
+import static net.bytebuddy.matcher.ElementMatchers.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDefinition;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.matcher.ElementMatcher.Junction;
+
+/**
+ * An {@link ElementMatcher} that matches types against all
+ * {@link DynamicSpec}s in a single pass. Specs for exact class names are
+ * resolved with a hash lookup, and polymorphic specs share a single traversal
+ * of the type hierarchy, instead of one {@code hasSuperType(...)} traversal
+ * per spec.
+ *
+ * @author Seva Safris
+ */
+class DynamicTypeMatcher implements ElementMatcher<TypeDescription> {
+  private static Junction<MethodDescription> or(final Junction<MethodDescription> a, final Junction<MethodDescription> b) {
+    return a == null ? b : b == null ? a : a.or(b);
+  }
+
+  static Junction<MethodDescription> toMethodMatcher(final DynamicSpec spec) {
+    Junction<MethodDescription> methodDesc = named(spec.methodName);
+    if (spec.args != null) {
+      methodDesc = methodDesc.and(takesArguments(spec.args.length));
+      for (int i = 0; i < spec.args.length; ++i)
+        methodDesc = methodDesc.and(takesArgument(i, named(spec.args[i])));
+    }
+
+    if (spec.returning != null) {
+      if ("<void>".equals(spec.returning))
+        methodDesc = methodDesc.and(returns(void.class));
+      else
+        methodDesc = methodDesc.and(returns(named(spec.returning)));
+    }
+
+    return methodDesc;
+  }
+
+  private static void put(final HashMap<String,Junction<MethodDescription>> map, final String className, final Junction<MethodDescription> methodDesc) {
+    map.put(className, or(map.get(className), methodDesc));
+  }
+
+  private final HashMap<String,Junction<MethodDescription>> classNameToMethods = new HashMap<>();
+  private final HashMap<String,Junction<MethodDescription>> superTypeToMethods = new HashMap<>();
+
+  DynamicTypeMatcher(final DynamicSpec[] specs) {
+    for (final DynamicSpec spec : specs)
+      put(spec.polymorphic ? superTypeToMethods : classNameToMethods, spec.className, toMethodMatcher(spec));
+  }
+
+  /**
+   * Returns the matcher of methods to be instrumented in the specified type,
+   * combining the method specs of all {@link DynamicSpec}s that match the
+   * type, or {@code null} if no spec matches the type.
+   *
+   * @param typeDescription The {@link TypeDescription}.
+   * @return The matcher of methods to be instrumented in the specified type, or
+   *         {@code null} if no spec matches the type.
+   */
+  Junction<MethodDescription> getMethodMatcher(final TypeDescription typeDescription) {
+    final Junction<MethodDescription> methodDesc = classNameToMethods.get(typeDescription.getName());
+    return superTypeToMethods.size() == 0 ? methodDesc : matchSuperTypes(typeDescription, new HashSet<String>(), methodDesc);
+  }
+
+  private Junction<MethodDescription> matchSuperTypes(final TypeDefinition typeDefinition, final HashSet<String> visited, Junction<MethodDescription> methodDesc) {
+    final String className = typeDefinition.asErasure().getName();
+    if (!visited.add(className))
+      return methodDesc;
+
+    methodDesc = or(methodDesc, superTypeToMethods.get(className));
+    final TypeDescription.Generic superClass = typeDefinition.getSuperClass();
+    if (superClass != null)
+      methodDesc = matchSuperTypes(superClass, visited, methodDesc);
+
+    for (final TypeDescription.Generic iface : typeDefinition.getInterfaces())
+      methodDesc = matchSuperTypes(iface, visited, methodDesc);
+
+    return methodDesc;
+  }
+
+  @Override
+  public boolean matches(final TypeDescription target) {
+    return getMethodMatcher(target) != null;
+  }
+}
@@ -29,7 +29,7 @@ import io.opentracing.mock.MockSpan;
 import io.opentracing.mock.MockTracer;
 
 @RunWith(AgentRunner.class)
-@AgentRunner.Config(properties = "sa.integration.dynamic.rules=io.opentracing.contrib.specialagent.rule.dynamic.ExampleMethodClass#test1;io.opentracing.contrib.specialagent.rule.dynamic.ExampleMethodClass#test2(java.lang.String):java.lang.String")
+@AgentRunner.Config(properties = "sa.integration.dynamic.rules=io.opentracing.contrib.specialagent.rule.dynamic.ExampleMethodClass#test1;io.opentracing.contrib.specialagent.rule.dynamic.ExampleMethodClass#test2(java.lang.String):java.lang.String;io.opentracing.contrib.specialagent.rule.dynamic.ExampleMethodClass#test3")
 public class DynamicAgentTest {
   @Before
   public void before(final MockTracer tracer) {
@@ -65,4 +65,23 @@ public class DynamicAgentTest {
     assertNotNull(tags);
     assertEquals(200, tags.get(DynamicAgentIntercept.TAGS_KEY_HTTP_STATUS_CODE));
   }
+
+  @Test
+  public void testNested(final MockTracer tracer) {
+    final ExampleMethodClass exampleMethodClass = new ExampleMethodClass();
+    exampleMethodClass.test3("test");
+
+    final List<MockSpan> spans = tracer.finishedSpans();
+    assertEquals(2, spans.size());
+    assertEquals("test2", spans.get(0).operationName());
+    assertEquals("test3", spans.get(1).operationName());
+  }
+
+  @Test
+  public void testOperationName() {
+    assertEquals("test2", DynamicAgentRule.getOperationName(ExampleMethodClass.class.getName(), "test2"));
+    assertEquals("ExampleMethodClass", DynamicAgentRule.getOperationName(ExampleMethodClass.class.getName(), "<init>"));
+    assertEquals("ExampleMethodClass", DynamicAgentRule.getOperationName(ExampleMethodClass.class.getName(), "<clinit>"));
+    assertEquals("Example", DynamicAgentRule.getOperationName("Example", "<init>"));
+  }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent.rule.dynamic;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher.Junction;
+
+public class DynamicTypeMatcherTest {
+  private static DynamicTypeMatcher matcher(final String rules) {
+    return new DynamicTypeMatcher(DynamicSpec.parseRules(rules));
+  }
+
+  private static boolean matches(final String rules, final Class<?> cls) {
+    return matcher(rules).matches(new TypeDescription.ForLoadedType(cls));
+  }
+
+  @Test
+  public void testClassName() {
+    assertTrue(matches("java.util.ArrayList#size", ArrayList.class));
+    assertFalse(matches("java.util.ArrayList#size", String.class));
+    assertFalse(matches("java.util.AbstractList#size", ArrayList.class));
+    assertFalse(matches("java.util.List#size", ArrayList.class));
+  }
+
+  @Test
+  public void testSuperType() {
+    assertTrue(matches("^java.util.ArrayList#size", ArrayList.class));
+    assertTrue(matches("^java.util.AbstractList#size", ArrayList.class));
+    assertTrue(matches("^java.util.Collection#size", ArrayList.class));
+    assertTrue(matches("^java.lang.Iterable#iterator", ArrayList.class));
+    assertFalse(matches("^java.util.Map#size", ArrayList.class));
+    assertFalse(matches("^java.util.Collection#size", String.class));
+  }
+
+  @Test
+  public void testMethodMatcher() throws NoSuchMethodException {
+    final DynamicTypeMatcher matcher = matcher("java.util.ArrayList#size;^java.util.Collection#isEmpty;^java.util.Map#clear");
+    assertNull(matcher.getMethodMatcher(new TypeDescription.ForLoadedType(String.class)));
+
+    final Junction<MethodDescription> methodDesc = matcher.getMethodMatcher(new TypeDescription.ForLoadedType(ArrayList.class));
+    assertNotNull(methodDesc);
+    assertTrue(methodDesc.matches(new MethodDescription.ForLoadedMethod(ArrayList.class.getMethod("size"))));
+    assertTrue(methodDesc.matches(new MethodDescription.ForLoadedMethod(ArrayList.class.getMethod("isEmpty"))));
+    assertFalse(methodDesc.matches(new MethodDescription.ForLoadedMethod(ArrayList.class.getMethod("clear"))));
+  }
+}
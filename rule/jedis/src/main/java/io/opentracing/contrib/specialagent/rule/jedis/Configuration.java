@@ -0,0 +1,75 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent.rule.jedis;
+
+import io.opentracing.contrib.specialagent.Level;
+import io.opentracing.contrib.specialagent.Logger;
+
+public final class Configuration {
+  public static final Logger logger = Logger.getLogger(Configuration.class);
+  public static final String STATEMENT = "sa.integration.jedis.statement";
+  public static final String STATEMENT_MAX_ARGS = "sa.integration.jedis.statement.maxArgs";
+  public static final String STATEMENT_MAX_BYTES = "sa.integration.jedis.statement.maxBytes";
+
+  /**
+   * The policy for the capture of the {@code db.statement} tag.
+   */
+  public enum Statement {
+    /** The {@code db.statement} tag is not set. */
+    OFF,
+    /** The {@code db.statement} tag is set to the name of the command. */
+    COMMAND,
+    /** The {@code db.statement} tag is set to the arguments of the command. */
+    FULL
+  }
+
+  public static final Statement statement = parseStatement(System.getProperty(STATEMENT));
+  public static final int statementMaxArgs = parseLimit(STATEMENT_MAX_ARGS);
+  public static final int statementMaxBytes = parseLimit(STATEMENT_MAX_BYTES);
+
+  static Statement parseStatement(final String statementArg) {
+    if (statementArg == null)
+      return Statement.FULL;
+
+    try {
+      return Statement.valueOf(statementArg.trim().toUpperCase());
+    }
+    catch (final IllegalArgumentException e) {
+      logger.log(Level.WARNING, "Invalid value for -D" + STATEMENT + "=" + statementArg + ": expected off, command or full");
+      return Statement.FULL;
+    }
+  }
+
+  private static int parseLimit(final String key) {
+    final String limitArg = System.getProperty(key);
+    if (limitArg == null)
+      return Integer.MAX_VALUE;
+
+    try {
+      final int limit = Integer.parseInt(limitArg.trim());
+      if (limit >= 0)
+        return limit;
+    }
+    catch (final NumberFormatException e) {
+    }
+
+    logger.log(Level.WARNING, "Invalid value for -D" + key + "=" + limitArg + ": expected a non-negative integer");
+    return Integer.MAX_VALUE;
+  }
+
+  private Configuration() {
+  }
+}
@@ -16,7 +16,7 @@
 package io.opentracing.contrib.specialagent.rule.jedis;
 
 import java.nio.charset.StandardCharsets;
-import java.util.LinkedList;
+import java.util.ArrayDeque;
 import java.util.Queue;
 
 import io.opentracing.Span;
@@ -29,7 +29,7 @@ public class JedisAgentIntercept {
   private static final ThreadLocal<Queue<Span>> spanHolder = new ThreadLocal<Queue<Span>>() {
     @Override
     protected Queue<Span> initialValue() {
-      return new LinkedList<>();
+      return new ArrayDeque<>();
     }
   };
 
@@ -42,25 +42,63 @@ public class JedisAgentIntercept {
       .withTag(Tags.DB_TYPE.getKey(), "redis")
       .start();
 
-    final String redisCommand = convert(args);
+    final String redisCommand = getStatement(cmd, args, Configuration.statement, Configuration.statementMaxArgs, Configuration.statementMaxBytes);
     if (redisCommand != null)
       span.setTag(Tags.DB_STATEMENT, redisCommand);
 
     spanHolder.get().add(span);
   }
 
-  private static String convert(final byte[][] args) {
+  /**
+   * Returns the {@code db.statement} for the specified command and arguments,
+   * or {@code null} if no statement is to be captured. Only the bytes that are
+   * kept are decoded, and omitted arguments or bytes are marked with
+   * {@code "..."}.
+   *
+   * @param command The command.
+   * @param args The arguments of the command.
+   * @param statement The {@link Configuration.Statement} policy.
+   * @param maxArgs The maximum number of arguments to capture.
+   * @param maxBytes The maximum number of bytes of arguments to capture.
+   * @return The {@code db.statement} for the specified command and arguments.
+   */
+  static String getStatement(final Command command, final byte[][] args, final Configuration.Statement statement, final int maxArgs, final int maxBytes) {
+    if (statement == Configuration.Statement.OFF)
+      return null;
+
+    if (statement == Configuration.Statement.COMMAND)
+      return command.name();
+
     if (args == null || args.length == 0)
       return null;
 
+    final int noArgs = Math.min(args.length, maxArgs);
+    if (noArgs == 0)
+      return null;
+
     final StringBuilder builder = new StringBuilder();
-    for (int i = 0; i < args.length; ++i) {
+    int remaining = maxBytes;
+    for (int i = 0; i < noArgs; ++i) {
       if (i > 0)
         builder.append(' ');
 
-      builder.append(new String(args[i], StandardCharsets.UTF_8));
+      final byte[] arg = args[i];
+      if (arg.length > remaining) {
+        // Do not split a multi-byte UTF-8 character
+        int length = remaining;
+        while (length > 0 && (arg[length] & 0xC0) == 0x80)
+          --length;
+
+        return builder.append(new String(arg, 0, length, StandardCharsets.UTF_8)).append("...").toString();
+      }
+
+      builder.append(new String(arg, StandardCharsets.UTF_8));
+      remaining -= arg.length;
     }
 
+    if (noArgs < args.length)
+      builder.append(" ...");
+
     return builder.toString();
   }
 
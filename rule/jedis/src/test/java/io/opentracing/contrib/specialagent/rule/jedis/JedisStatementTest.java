@@ -0,0 +1,77 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent.rule.jedis;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import io.opentracing.contrib.specialagent.rule.jedis.Configuration.Statement;
+import redis.clients.jedis.Protocol.Command;
+
+public class JedisStatementTest {
+  private static byte[][] args(final String ... args) {
+    final byte[][] bytes = new byte[args.length][];
+    for (int i = 0; i < args.length; ++i)
+      bytes[i] = args[i].getBytes(StandardCharsets.UTF_8);
+
+    return bytes;
+  }
+
+  @Test
+  public void testFull() {
+    assertEquals("key value", JedisAgentIntercept.getStatement(Command.SET, args("key", "value"), Statement.FULL, Integer.MAX_VALUE, Integer.MAX_VALUE));
+    assertNull(JedisAgentIntercept.getStatement(Command.PING, args(), Statement.FULL, Integer.MAX_VALUE, Integer.MAX_VALUE));
+    assertNull(JedisAgentIntercept.getStatement(Command.PING, null, Statement.FULL, Integer.MAX_VALUE, Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testOff() {
+    assertNull(JedisAgentIntercept.getStatement(Command.SET, args("key", "value"), Statement.OFF, Integer.MAX_VALUE, Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testCommand() {
+    assertEquals("SET", JedisAgentIntercept.getStatement(Command.SET, args("key", "value"), Statement.COMMAND, Integer.MAX_VALUE, Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testMaxArgs() {
+    assertEquals("key ...", JedisAgentIntercept.getStatement(Command.SET, args("key", "value"), Statement.FULL, 1, Integer.MAX_VALUE));
+    assertEquals("key value", JedisAgentIntercept.getStatement(Command.SET, args("key", "value"), Statement.FULL, 2, Integer.MAX_VALUE));
+    assertNull(JedisAgentIntercept.getStatement(Command.SET, args("key", "value"), Statement.FULL, 0, Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testMaxBytes() {
+    assertEquals("key va...", JedisAgentIntercept.getStatement(Command.SET, args("key", "value"), Statement.FULL, Integer.MAX_VALUE, 5));
+    assertEquals("key ...", JedisAgentIntercept.getStatement(Command.SET, args("key", "value"), Statement.FULL, Integer.MAX_VALUE, 3));
+    assertEquals("key value", JedisAgentIntercept.getStatement(Command.SET, args("key", "value"), Statement.FULL, Integer.MAX_VALUE, 8));
+    // "\u00e9" is 2 bytes in UTF-8, and must not be split
+    assertEquals("key \u00e9...", JedisAgentIntercept.getStatement(Command.SET, args("key", "\u00e9\u00e9"), Statement.FULL, Integer.MAX_VALUE, 6));
+    assertEquals("key \u00e9...", JedisAgentIntercept.getStatement(Command.SET, args("key", "\u00e9\u00e9"), Statement.FULL, Integer.MAX_VALUE, 5));
+  }
+
+  @Test
+  public void testParseStatement() {
+    assertEquals(Statement.FULL, Configuration.parseStatement(null));
+    assertEquals(Statement.OFF, Configuration.parseStatement("off"));
+    assertEquals(Statement.COMMAND, Configuration.parseStatement("Command"));
+    assertEquals(Statement.FULL, Configuration.parseStatement("invalid"));
+  }
+}
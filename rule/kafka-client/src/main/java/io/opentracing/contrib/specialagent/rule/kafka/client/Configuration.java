@@ -0,0 +1,75 @@
+/* Copyright 2019 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent.rule.kafka.client;
+
+import io.opentracing.contrib.specialagent.Level;
+import io.opentracing.contrib.specialagent.Logger;
+
+public final class Configuration {
+  public static final Logger logger = Logger.getLogger(Configuration.class);
+  public static final String CONSUMER_MODE = "sa.integration.kafka:client.consumer.mode";
+  public static final String CONSUMER_MAX_REFERENCES = "sa.integration.kafka:client.consumer.maxReferences";
+
+  /**
+   * The mode of tracing of records returned by {@code KafkaConsumer.poll()}.
+   */
+  public enum ConsumerMode {
+    /** A span is created for each record. */
+    RECORD,
+    /**
+     * A single span is created for each poll, with references to the upstream
+     * spans of at most {@link Configuration#consumerMaxReferences} records.
+     */
+    POLL,
+    /** A span is created for each record that carries an upstream span. */
+    LINKED
+  }
+
+  public static final ConsumerMode consumerMode = parseConsumerMode(System.getProperty(CONSUMER_MODE));
+  public static final int consumerMaxReferences = parseMaxReferences(System.getProperty(CONSUMER_MAX_REFERENCES));
+
+  static ConsumerMode parseConsumerMode(final String consumerModeArg) {
+    if (consumerModeArg == null)
+      return ConsumerMode.RECORD;
+
+    try {
+      return ConsumerMode.valueOf(consumerModeArg.trim().toUpperCase());
+    }
+    catch (final IllegalArgumentException e) {
+      logger.log(Level.WARNING, "Invalid value for -D" + CONSUMER_MODE + "=" + consumerModeArg + ": expected record, poll or linked");
+      return ConsumerMode.RECORD;
+    }
+  }
+
+  private static int parseMaxReferences(final String maxReferencesArg) {
+    if (maxReferencesArg == null)
+      return 16;
+
+    try {
+      final int maxReferences = Integer.parseInt(maxReferencesArg.trim());
+      if (maxReferences >= 0)
+        return maxReferences;
+    }
+    catch (final NumberFormatException e) {
+    }
+
+    logger.log(Level.WARNING, "Invalid value for -D" + CONSUMER_MAX_REFERENCES + "=" + maxReferencesArg + ": expected a non-negative integer");
+    return 16;
+  }
+
+  private Configuration() {
+  }
+}
@@ -19,19 +19,118 @@ import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
 
+import io.opentracing.References;
 import io.opentracing.Span;
+import io.opentracing.SpanContext;
 import io.opentracing.Tracer;
+import io.opentracing.Tracer.SpanBuilder;
 import io.opentracing.contrib.common.WrapperProxy;
+import io.opentracing.contrib.kafka.ClientSpanNameProvider;
+import io.opentracing.contrib.kafka.SpanDecorator;
 import io.opentracing.contrib.kafka.TracingCallback;
 import io.opentracing.contrib.kafka.TracingKafkaUtils;
+import io.opentracing.contrib.specialagent.MessageSpanContext;
+import io.opentracing.tag.Tags;
 import io.opentracing.util.GlobalTracer;
 
 public class KafkaAgentIntercept {
-  public static void onConsumerExit(final Object records) {
-    if (records != null)
-      for (final ConsumerRecord<?,?> record : (ConsumerRecords<?,?>)records)
-        TracingKafkaUtils.buildAndFinishChildSpan(record, GlobalTracer.get());
+  static final String COMPONENT_NAME = "java-kafka";
+  static final String POLL_OPERATION_NAME = "poll";
+  static final String TAGS_KEY_RECORDS = "kafka.records";
+  private static final String FROM_PREFIX = "From_";
+
+  /**
+   * Returns the upstream {@link SpanContext} of the specified record, or
+   * {@code null} if the record carries none. Records without headers are
+   * skipped without an invocation of the tracer's extractor.
+   *
+   * @param record The {@link ConsumerRecord}.
+   * @param tracer The {@link Tracer}.
+   * @return The upstream {@link SpanContext} of the specified record, or
+   *         {@code null} if the record carries none.
+   */
+  private static SpanContext extractSpanContext(final ConsumerRecord<?,?> record, final Tracer tracer) {
+    final Headers headers = record.headers();
+    return headers.iterator().hasNext() ? TracingKafkaUtils.extractSpanContext(headers, tracer) : null;
+  }
+
+  /**
+   * Builds and finishes the span of the specified record, as
+   * {@link TracingKafkaUtils#buildAndFinishChildSpan(ConsumerRecord,Tracer)}
+   * does, but with the upstream {@link SpanContext} that was already extracted
+   * from the record, so that its headers are not decoded a second time.
+   *
+   * @param record The {@link ConsumerRecord}.
+   * @param parentContext The upstream {@link SpanContext} of the record, or
+   *          {@code null} if the record carries none.
+   * @param tracer The {@link Tracer}.
+   */
+  private static void buildAndFinishChildSpan(final ConsumerRecord<?,?> record, final SpanContext parentContext, final Tracer tracer) {
+    final SpanBuilder spanBuilder = tracer
+      .buildSpan(ClientSpanNameProvider.CONSUMER_OPERATION_NAME.apply(FROM_PREFIX + record.topic(), record))
+      .withTag(Tags.SPAN_KIND, Tags.SPAN_KIND_CONSUMER);
+
+    if (parentContext != null)
+      spanBuilder.addReference(References.FOLLOWS_FROM, parentContext);
+
+    final Span span = spanBuilder.start();
+    SpanDecorator.STANDARD_TAGS.onResponse(record, span);
+    span.finish();
+
+    // Inject the span into the headers of the record, so that the application
+    // can continue the trace from it, and hand it off to the integrations that
+    // consume the record, so that they need not extract it from the headers
+    TracingKafkaUtils.inject(span.context(), record.headers(), tracer);
+    MessageSpanContext.put(record, span.context());
+  }
+
+  public static void onConsumerExit(final Object returned) {
+    if (returned == null)
+      return;
+
+    final ConsumerRecords<?,?> records = (ConsumerRecords<?,?>)returned;
+    if (records.isEmpty())
+      return;
+
+    final Tracer tracer = GlobalTracer.get();
+    if (Configuration.consumerMode == Configuration.ConsumerMode.POLL) {
+      final SpanBuilder spanBuilder = tracer
+        .buildSpan(POLL_OPERATION_NAME)
+        .withTag(Tags.COMPONENT, COMPONENT_NAME)
+        .withTag(Tags.SPAN_KIND, Tags.SPAN_KIND_CONSUMER)
+        .withTag(TAGS_KEY_RECORDS, records.count());
+
+      int references = 0;
+      for (final ConsumerRecord<?,?> record : records) {
+        if (references == Configuration.consumerMaxReferences)
+          break;
+
+        final SpanContext spanContext = extractSpanContext(record, tracer);
+        if (spanContext != null) {
+          spanBuilder.addReference(References.FOLLOWS_FROM, spanContext);
+          MessageSpanContext.put(record, spanContext);
+          ++references;
+        }
+      }
+
+      // The span is reported at the end of the poll, because the records (and
+      // their upstream contexts) are only known when the poll returns. It
+      // therefore has zero duration.
+      spanBuilder.start().finish();
+    }
+    else if (Configuration.consumerMode == Configuration.ConsumerMode.LINKED) {
+      for (final ConsumerRecord<?,?> record : records) {
+        final SpanContext spanContext = extractSpanContext(record, tracer);
+        if (spanContext != null)
+          buildAndFinishChildSpan(record, spanContext, tracer);
+      }
+    }
+    else {
+      for (final ConsumerRecord<?,?> record : records)
+        buildAndFinishChildSpan(record, extractSpanContext(record, tracer), tracer);
+    }
   }
 
   public static Object onProducerEnter(final Object record, final Object callback) {
@@ -39,4 +138,4 @@ public class KafkaAgentIntercept {
     final Span span = TracingKafkaUtils.buildAndInjectSpan((ProducerRecord<?,?>)record, tracer);
     return WrapperProxy.wrap(callback, new TracingCallback((Callback)callback, span, tracer));
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,79 @@
+/* Copyright 2019 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent.rule.kafka.client;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.opentracing.References;
+import io.opentracing.Span;
+import io.opentracing.contrib.kafka.TracingKafkaUtils;
+import io.opentracing.contrib.specialagent.AgentRunner;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.tag.Tags;
+
+@RunWith(AgentRunner.class)
+@AgentRunner.Config(properties = {"sa.integration.kafka:client.consumer.mode=poll", "sa.integration.kafka:client.consumer.maxReferences=2"})
+public class KafkaConsumerModeTest {
+  @Before
+  public void before(final MockTracer tracer) {
+    tracer.reset();
+  }
+
+  @Test
+  public void testPoll(final MockTracer tracer) {
+    final Span producerSpan = tracer.buildSpan("send").start();
+    final List<ConsumerRecord<Integer,String>> list = new ArrayList<>();
+    for (int i = 0; i < 10; ++i) {
+      final ConsumerRecord<Integer,String> record = new ConsumerRecord<>("messages", 0, i, i, "test");
+      if (i % 3 == 0)
+        TracingKafkaUtils.inject(producerSpan.context(), record.headers(), tracer);
+
+      list.add(record);
+    }
+
+    producerSpan.finish();
+    tracer.reset();
+
+    KafkaAgentIntercept.onConsumerExit(new ConsumerRecords<>(Collections.singletonMap(new TopicPartition("messages", 0), list)));
+
+    final List<MockSpan> spans = tracer.finishedSpans();
+    assertEquals(1, spans.size());
+    final MockSpan span = spans.get(0);
+    assertEquals(KafkaAgentIntercept.POLL_OPERATION_NAME, span.operationName());
+    assertEquals(Tags.SPAN_KIND_CONSUMER, span.tags().get(Tags.SPAN_KIND.getKey()));
+    assertEquals(10, span.tags().get(KafkaAgentIntercept.TAGS_KEY_RECORDS));
+    assertEquals(2, span.references().size());
+    assertEquals(References.FOLLOWS_FROM, span.references().get(0).getReferenceType());
+  }
+
+  @Test
+  public void testEmpty(final MockTracer tracer) {
+    KafkaAgentIntercept.onConsumerExit(ConsumerRecords.empty());
+    assertEquals(0, tracer.finishedSpans().size());
+  }
+}
@@ -15,7 +15,10 @@
 
 package io.opentracing.contrib.specialagent.rule.kafka.streams;
 
+import java.util.Map;
+
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.streams.processor.internals.StampedRecord;
 
 import io.opentracing.Span;
@@ -23,6 +26,7 @@ import io.opentracing.SpanContext;
 import io.opentracing.Tracer;
 import io.opentracing.Tracer.SpanBuilder;
 import io.opentracing.contrib.kafka.TracingKafkaUtils;
+import io.opentracing.contrib.specialagent.ConcurrentWeakIdentityHashMap;
 import io.opentracing.contrib.specialagent.LocalSpanContext;
 import io.opentracing.contrib.specialagent.OpenTracingApiUtil;
 import io.opentracing.tag.Tags;
@@ -30,6 +34,28 @@ import io.opentracing.util.GlobalTracer;
 
 public class KafkaStreamsAgentIntercept {
   static final String COMPONENT_NAME = "kafka-streams";
+  private static final Object NO_CONTEXT = new Object();
+
+  /**
+   * The parent {@link SpanContext} extracted from the headers of a raw record,
+   * keyed by the deserialized record, to be consumed by
+   * {@link #onNextRecordExit(Object)}. Deserialized records of raw records that
+   * have headers without a parent are mapped to {@link #NO_CONTEXT}, and those
+   * of raw records without headers are not mapped at all.
+   */
+  static final Map<ConsumerRecord<?,?>,Object> recordToSpanContext = new ConcurrentWeakIdentityHashMap<>();
+
+  private static SpanContext extractSpanContext(final Headers headers, final Tracer tracer) {
+    return headers.iterator().hasNext() ? TracingKafkaUtils.extractSpanContext(headers, tracer) : null;
+  }
+
+  private static SpanContext getParentContext(final ConsumerRecord<?,?> record, final Tracer tracer) {
+    final Object spanContext = recordToSpanContext.remove(record);
+    if (spanContext == null)
+      return extractSpanContext(record.headers(), tracer);
+
+    return spanContext == NO_CONTEXT ? null : (SpanContext)spanContext;
+  }
 
   public static void onNextRecordExit(final Object record) {
     if (record == null)
@@ -52,7 +78,7 @@ public class KafkaStreamsAgentIntercept {
     if (stampedRecord.topic() != null)
       spanBuilder.withTag(Tags.MESSAGE_BUS_DESTINATION, stampedRecord.topic());
 
-    final SpanContext parentContext = TracingKafkaUtils.extractSpanContext(stampedRecord.value.headers(), tracer);
+    final SpanContext parentContext = getParentContext(stampedRecord.value, tracer);
     if (parentContext != null)
       spanBuilder.asChildOf(parentContext);
 
@@ -71,17 +97,17 @@ public class KafkaStreamsAgentIntercept {
     context.closeAndFinish();
   }
 
-  @SuppressWarnings("rawtypes")
   public static void onDeserializeExit(final Object returned, final Object record) {
     if (returned == null || record == null)
       return;
 
-    final ConsumerRecord rawRecord = (ConsumerRecord)record;
-    final Tracer tracer = GlobalTracer.get();
-    final SpanContext spanContext = TracingKafkaUtils.extractSpanContext(rawRecord.headers(), tracer);
-    if (spanContext != null) {
-      final ConsumerRecord returnedRecord = (ConsumerRecord)returned;
-      TracingKafkaUtils.inject(spanContext, returnedRecord.headers(), tracer);
-    }
+    // Without headers there is nothing to hand off, because the fallback in
+    // getParentContext(...) finds no parent in the deserialized record either.
+    final Headers headers = ((ConsumerRecord<?,?>)record).headers();
+    if (!headers.iterator().hasNext())
+      return;
+
+    final SpanContext spanContext = TracingKafkaUtils.extractSpanContext(headers, GlobalTracer.get());
+    recordToSpanContext.put((ConsumerRecord<?,?>)returned, spanContext != null ? spanContext : NO_CONTEXT);
   }
 }
\ No newline at end of file
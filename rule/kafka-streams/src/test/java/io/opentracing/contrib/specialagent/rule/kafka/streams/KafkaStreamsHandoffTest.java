@@ -0,0 +1,84 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.opentracing.contrib.specialagent.rule.kafka.streams;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.streams.processor.internals.StampedRecord;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.opentracing.Span;
+import io.opentracing.contrib.kafka.TracingKafkaUtils;
+import io.opentracing.contrib.specialagent.AgentRunner;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+
+@RunWith(AgentRunner.class)
+public class KafkaStreamsHandoffTest {
+  @Before
+  public void before(final MockTracer tracer) {
+    tracer.reset();
+    KafkaStreamsAgentIntercept.recordToSpanContext.clear();
+  }
+
+  private static MockSpan consume(final MockTracer tracer, final ConsumerRecord<Object,Object> record) {
+    KafkaStreamsAgentIntercept.onNextRecordExit(new StampedRecord(record, 0));
+    assertNotNull(tracer.activeSpan());
+    KafkaStreamsAgentIntercept.onProcessExit(null);
+    assertNull(tracer.activeSpan());
+
+    final List<MockSpan> spans = tracer.finishedSpans();
+    assertEquals(1, spans.size());
+    return spans.get(0);
+  }
+
+  @Test
+  public void testHandoff(final MockTracer tracer) {
+    final Span producerSpan = tracer.buildSpan("send").start();
+    final ConsumerRecord<byte[],byte[]> raw = new ConsumerRecord<>("stream-test", 0, 0, new byte[0], new byte[0]);
+    TracingKafkaUtils.inject(producerSpan.context(), raw.headers(), tracer);
+    producerSpan.finish();
+    tracer.reset();
+
+    // The deserialized record has no headers of its own, so the parent can
+    // only come from the raw record.
+    final ConsumerRecord<Object,Object> deserialized = new ConsumerRecord<Object,Object>("stream-test", 0, 0, 1, "test");
+    KafkaStreamsAgentIntercept.onDeserializeExit(deserialized, raw);
+    assertTrue(KafkaStreamsAgentIntercept.recordToSpanContext.containsKey(deserialized));
+
+    final MockSpan span = consume(tracer, deserialized);
+    assertFalse(KafkaStreamsAgentIntercept.recordToSpanContext.containsKey(deserialized));
+    assertEquals(((MockSpan)producerSpan).context().traceId(), span.context().traceId());
+    assertEquals(((MockSpan)producerSpan).context().spanId(), span.parentId());
+  }
+
+  @Test
+  public void testNoContext(final MockTracer tracer) {
+    final ConsumerRecord<byte[],byte[]> raw = new ConsumerRecord<>("stream-test", 0, 0, new byte[0], new byte[0]);
+    final ConsumerRecord<Object,Object> deserialized = new ConsumerRecord<Object,Object>("stream-test", 0, 0, 1, "test");
+    KafkaStreamsAgentIntercept.onDeserializeExit(deserialized, raw);
+    assertTrue(KafkaStreamsAgentIntercept.recordToSpanContext.isEmpty());
+
+    final MockSpan span = consume(tracer, deserialized);
+    assertEquals(0, span.parentId());
+  }
+}
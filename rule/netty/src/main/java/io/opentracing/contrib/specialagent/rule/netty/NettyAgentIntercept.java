@@ -15,7 +15,10 @@
 
 package io.opentracing.contrib.specialagent.rule.netty;
 
+import java.util.List;
+
 import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
 import io.netty.handler.codec.http.HttpClientCodec;
 import io.netty.handler.codec.http.HttpRequestDecoder;
@@ -25,32 +28,51 @@ import io.netty.handler.codec.http.HttpResponseEncoder;
 import io.netty.handler.codec.http.HttpServerCodec;
 
 public class NettyAgentIntercept {
+  private static final String SERVER_HANDLER_NAME = TracingHttpServerHandler.class.getName();
+  private static final String CLIENT_HANDLER_NAME = TracingHttpClientTracingHandler.class.getName();
+
+  /**
+   * Adds the tracing handler by the specified name right after the specified
+   * HTTP codec handler. The tracing handler must follow both the decoder and
+   * the encoder of the HTTP codec, so if the codec is added as a separate
+   * decoder and encoder, the tracing handler that was added after the first is
+   * moved right after the second, unless it already follows it.
+   *
+   * @param pipeline The {@link ChannelPipeline}.
+   * @param codec The HTTP codec handler that was added to the pipeline.
+   * @param name The name of the tracing handler.
+   * @param server Whether the tracing handler is a server handler.
+   */
+  private static void addAfter(final ChannelPipeline pipeline, final ChannelHandler codec, final String name, final boolean server) {
+    final ChannelHandlerContext codecContext = pipeline.context(codec);
+    if (codecContext == null)
+      return;
+
+    final String codecName = codecContext.name();
+    if (pipeline.get(name) != null) {
+      final List<String> names = pipeline.names();
+      if (names.indexOf(name) > names.indexOf(codecName))
+        return;
+
+      // The tracing handler is not @Sharable, so a new instance is added
+      pipeline.remove(name);
+    }
+
+    pipeline.addAfter(codecName, name, server ? new TracingHttpServerHandler() : new TracingHttpClientTracingHandler());
+  }
+
   public static void pipelineAddExit(final Object thiz, final Object arg2) {
     final ChannelPipeline pipeline = (ChannelPipeline)thiz;
     final ChannelHandler handler = (ChannelHandler)arg2;
 
     try {
       // Server
-      if (handler instanceof HttpServerCodec) {
-        pipeline.addLast(TracingHttpServerHandler.class.getName(), new TracingHttpServerHandler());
-      }
-      else if (handler instanceof HttpRequestDecoder) {
-        pipeline.addLast(TracingServerChannelInboundHandlerAdapter.class.getName(), new TracingServerChannelInboundHandlerAdapter());
-      }
-      else if (handler instanceof HttpResponseEncoder) {
-        pipeline.addLast(TracingServerChannelOutboundHandlerAdapter.class.getName(), new TracingServerChannelOutboundHandlerAdapter());
-      }
+      if (handler instanceof HttpServerCodec || handler instanceof HttpRequestDecoder || handler instanceof HttpResponseEncoder)
+        addAfter(pipeline, handler, SERVER_HANDLER_NAME, true);
       else
       // Client
-      if (handler instanceof HttpClientCodec) {
-        pipeline.addLast(TracingHttpClientTracingHandler.class.getName(), new TracingHttpClientTracingHandler());
-      }
-      else if (handler instanceof HttpRequestEncoder) {
-        pipeline.addLast(TracingClientChannelOutboundHandlerAdapter.class.getName(), new TracingClientChannelOutboundHandlerAdapter());
-      }
-      else if (handler instanceof HttpResponseDecoder) {
-        pipeline.addLast(TracingClientChannelInboundHandlerAdapter.class.getName(), new TracingClientChannelInboundHandlerAdapter());
-      }
+      if (handler instanceof HttpClientCodec || handler instanceof HttpRequestEncoder || handler instanceof HttpResponseDecoder)
+        addAfter(pipeline, handler, CLIENT_HANDLER_NAME, false);
     }
     catch (final IllegalArgumentException ignore) {
     }
@@ -15,10 +15,92 @@
 
 package io.opentracing.contrib.specialagent.rule.netty;
 
-import io.netty.channel.CombinedChannelDuplexHandler;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.Tracer.SpanBuilder;
+import io.opentracing.contrib.specialagent.OpenTracingApiUtil;
+import io.opentracing.propagation.Format.Builtin;
+import io.opentracing.tag.Tags;
+import io.opentracing.util.GlobalTracer;
 
-public class TracingHttpClientTracingHandler extends CombinedChannelDuplexHandler<TracingClientChannelInboundHandlerAdapter,TracingClientChannelOutboundHandlerAdapter> {
-  public TracingHttpClientTracingHandler() {
-    super(new TracingClientChannelInboundHandlerAdapter(), new TracingClientChannelOutboundHandlerAdapter());
+/**
+ * Client tracing handler, which starts a span when an {@link HttpRequest} is
+ * written, and finishes it when the {@link HttpResponse} is read. The span of
+ * the request in flight is held in this handler, which is not shared between
+ * channels. All other messages (i.e. {@code HttpContent} chunks) are passed
+ * through without further inspection.
+ *
+ * @author Seva Safris
+ */
+public class TracingHttpClientTracingHandler extends ChannelDuplexHandler {
+  private Span span;
+
+  // Client Request
+  @Override
+  public void write(final ChannelHandlerContext context, final Object message, final ChannelPromise promise) {
+    if (!(message instanceof HttpRequest)) {
+      context.write(message, promise);
+      return;
+    }
+
+    final HttpRequest request = (HttpRequest)message;
+    final Tracer tracer = GlobalTracer.get();
+    final SpanBuilder builder = tracer
+      .buildSpan(request.method().name())
+      .withTag(Tags.COMPONENT, "netty")
+      .withTag(Tags.SPAN_KIND, Tags.SPAN_KIND_CLIENT)
+      .withTag(Tags.HTTP_METHOD, request.method().name())
+      .withTag(Tags.HTTP_URL, request.uri());
+
+    final SpanContext parentContext = tracer.extract(Builtin.HTTP_HEADERS, new NettyExtractAdapter(request.headers()));
+
+    if (parentContext != null)
+      builder.asChildOf(parentContext);
+
+    final Span span = builder.start();
+    try (final Scope scope = tracer.activateSpan(span)) {
+      // AWS calls are often signed, so we can't add headers without breaking
+      // the signature.
+      if (!request.headers().contains("amz-sdk-invocation-id")) {
+        tracer.inject(span.context(), Builtin.HTTP_HEADERS, new NettyInjectAdapter(request.headers()));
+      }
+
+      this.span = span;
+      try {
+        context.write(message, promise);
+      }
+      catch (final Throwable t) {
+        this.span = null;
+        OpenTracingApiUtil.setErrorTag(span, t);
+        span.finish();
+        throw t;
+      }
+    }
+  }
+
+  // Client Response
+  @Override
+  public void channelRead(final ChannelHandlerContext handlerContext, final Object message) {
+    final Span span = this.span;
+    if (span == null || !(message instanceof HttpResponse)) {
+      handlerContext.fireChannelRead(message);
+      return;
+    }
+
+    this.span = null;
+    span.setTag(Tags.HTTP_STATUS, ((HttpResponse)message).status().code());
+    try (final Scope scope = GlobalTracer.get().activateSpan(span)) {
+      handlerContext.fireChannelRead(message);
+    }
+    finally {
+      span.finish();
+    }
   }
-}
\ No newline at end of file
+}
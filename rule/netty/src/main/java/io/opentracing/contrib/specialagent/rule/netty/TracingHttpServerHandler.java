@@ -15,10 +15,89 @@
 
 package io.opentracing.contrib.specialagent.rule.netty;
 
-import io.netty.channel.CombinedChannelDuplexHandler;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.Tracer.SpanBuilder;
+import io.opentracing.contrib.specialagent.OpenTracingApiUtil;
+import io.opentracing.propagation.Format.Builtin;
+import io.opentracing.tag.Tags;
+import io.opentracing.util.GlobalTracer;
 
-public class TracingHttpServerHandler extends CombinedChannelDuplexHandler<TracingServerChannelInboundHandlerAdapter,TracingServerChannelOutboundHandlerAdapter> {
-  public TracingHttpServerHandler() {
-    super(new TracingServerChannelInboundHandlerAdapter(), new TracingServerChannelOutboundHandlerAdapter());
+/**
+ * Server tracing handler, which starts a span when an {@link HttpRequest} is
+ * read, and finishes it when the {@link HttpResponse} is written. The span of
+ * the request in flight is held in this handler, which is not shared between
+ * channels. All other messages (i.e. {@code HttpContent} chunks) are passed
+ * through without further inspection.
+ *
+ * @author Seva Safris
+ */
+public class TracingHttpServerHandler extends ChannelDuplexHandler {
+  private Span span;
+
+  @Override
+  public void channelRead(final ChannelHandlerContext handlerContext, final Object message) {
+    if (!(message instanceof HttpRequest)) {
+      handlerContext.fireChannelRead(message);
+      return;
+    }
+
+    final HttpRequest request = (HttpRequest)message;
+    final Tracer tracer = GlobalTracer.get();
+
+    final SpanBuilder spanBuilder = tracer.buildSpan(request.method().name())
+      .withTag(Tags.COMPONENT, "netty")
+      .withTag(Tags.SPAN_KIND, Tags.SPAN_KIND_SERVER)
+      .withTag(Tags.HTTP_METHOD, request.method().name())
+      .withTag(Tags.HTTP_URL, request.uri());
+
+    final SpanContext spanContext = tracer.extract(Builtin.HTTP_HEADERS, new NettyExtractAdapter(request.headers()));
+    if (spanContext != null)
+      spanBuilder.asChildOf(spanContext);
+
+    final Span span = this.span = spanBuilder.start();
+    try (final Scope scope = tracer.activateSpan(span)) {
+      try {
+        handlerContext.fireChannelRead(message);
+      }
+      catch (final Throwable t) {
+        this.span = null;
+        OpenTracingApiUtil.setErrorTag(span, t);
+        span.finish();
+        throw t;
+      }
+    }
+  }
+
+  @Override
+  public void write(final ChannelHandlerContext handlerContext, final Object message, final ChannelPromise promise) {
+    final Span span = this.span;
+    if (span == null || !(message instanceof HttpResponse)) {
+      handlerContext.write(message, promise);
+      return;
+    }
+
+    this.span = null;
+    final HttpResponse response = (HttpResponse)message;
+
+    try {
+      handlerContext.write(message, promise);
+    }
+    catch (final Throwable t) {
+      OpenTracingApiUtil.setErrorTag(span, t);
+      span.setTag(Tags.HTTP_STATUS, 500);
+      span.finish(); // Finish the span manually since finishSpanOnClose was false
+      throw t;
+    }
+
+    span.setTag(Tags.HTTP_STATUS, response.status().code());
+    span.finish(); // Finish the span manually since finishSpanOnClose was false
   }
-}
\ No newline at end of file
+}
@@ -28,6 +28,8 @@ import io.netty.bootstrap.Bootstrap;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
@@ -35,20 +37,29 @@ import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
 import io.netty.handler.codec.http.HttpClientCodec;
 import io.netty.handler.codec.http.HttpContentDecompressor;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpRequestDecoder;
+import io.netty.handler.codec.http.HttpResponseEncoder;
+import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
+import io.netty.util.CharsetUtil;
+import io.netty.util.ReferenceCountUtil;
 import io.opentracing.contrib.specialagent.AgentRunner;
 import io.opentracing.mock.MockSpan;
 import io.opentracing.mock.MockTracer;
+import io.opentracing.tag.Tags;
 
 @RunWith(AgentRunner.class)
 public class NettyTest {
@@ -88,6 +99,48 @@ public class NettyTest {
     assertEquals(2, spans.size());
   }
 
+  @Test
+  public void testSeparateCodec(final MockTracer tracer) {
+    final EmbeddedChannel channel = new EmbeddedChannel();
+    final ChannelPipeline pipeline = channel.pipeline();
+    pipeline.addLast(new HttpRequestDecoder());
+    pipeline.addLast(new HttpResponseEncoder());
+    pipeline.addLast(new ChannelInboundHandlerAdapter() {
+      @Override
+      public void channelRead(final ChannelHandlerContext handlerContext, final Object message) {
+        if (message instanceof LastHttpContent)
+          handlerContext.writeAndFlush(new DefaultFullHttpResponse(HTTP_1_1, HttpResponseStatus.OK));
+
+        ReferenceCountUtil.release(message);
+      }
+    });
+
+    channel.writeInbound(Unpooled.copiedBuffer("GET / HTTP/1.1\r\nHost: 127.0.0.1\r\n\r\n", CharsetUtil.US_ASCII));
+    channel.finish();
+
+    final List<MockSpan> spans = tracer.finishedSpans();
+    assertEquals(1, spans.size());
+    assertEquals(Tags.SPAN_KIND_SERVER, spans.get(0).tags().get(Tags.SPAN_KIND.getKey()));
+    assertEquals(200, spans.get(0).tags().get(Tags.HTTP_STATUS.getKey()));
+  }
+
+  @Test
+  public void testCodecAddedFirst() {
+    final EmbeddedChannel channel = new EmbeddedChannel();
+    final ChannelPipeline pipeline = channel.pipeline();
+    pipeline.addLast("app", new ChannelInboundHandlerAdapter());
+    pipeline.addFirst("decoder", new HttpRequestDecoder());
+    pipeline.addFirst("encoder", new HttpResponseEncoder());
+
+    // The tracing handler follows both halves of the codec, and precedes the
+    // handlers of the application
+    final List<String> names = pipeline.names();
+    final int index = names.indexOf(TracingHttpServerHandler.class.getName());
+    assertEquals(names.indexOf("decoder") + 1, index);
+    assertTrue(index < names.indexOf("app"));
+    channel.finish();
+  }
+
   private static void client() throws InterruptedException {
     // Configure the client.
     final EventLoopGroup group = new NioEventLoopGroup();
@@ -18,11 +18,8 @@ package io.opentracing.contrib.specialagent.rule.reactor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiFunction;
 
-import io.opentracing.Tracer;
-import io.opentracing.contrib.reactor.TracedSubscriber;
 import io.opentracing.contrib.specialagent.Logger;
 import io.opentracing.util.GlobalTracer;
-import reactor.core.publisher.Hooks;
 import reactor.core.publisher.Operators;
 
 public class FluxAgentIntercept {
@@ -46,9 +43,7 @@ public class FluxAgentIntercept {
         return;
       }
 
-      final Tracer tracer = GlobalTracer.get();
-      Hooks.onEachOperator(TracedSubscriber.asOperator(tracer));
-      Hooks.onLastOperator(TracedSubscriber.asOperator(tracer));
+      ReactorAgentIntercept.installHooks(GlobalTracer.get());
       inited.set(true);
     }
   }
@@ -0,0 +1,65 @@
+/* Copyright 2019 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent.rule.reactor;
+
+import java.util.function.Function;
+
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import io.opentracing.contrib.reactor.TracedSubscriber;
+import io.opentracing.contrib.specialagent.Logger;
+import reactor.core.publisher.Hooks;
+import reactor.core.scheduler.Schedulers;
+
+public final class ReactorAgentIntercept {
+  public static final Logger logger = Logger.getLogger(ReactorAgentIntercept.class);
+  private static final String HOOK_KEY = ReactorAgentIntercept.class.getName();
+
+  /**
+   * Installs the hooks that propagate the active span through reactive chains,
+   * according to {@link Configuration#propagation}. Hooks are registered by
+   * key, so repeated calls replace rather than add hooks.
+   *
+   * @param tracer The {@link Tracer}.
+   */
+  static void installHooks(final Tracer tracer) {
+    if (Configuration.propagation == Configuration.Propagation.OPERATOR || !hasScheduleHook()) {
+      Hooks.onEachOperator(HOOK_KEY, TracedSubscriber.asOperator(tracer));
+      Hooks.onLastOperator(HOOK_KEY, TracedSubscriber.asOperator(tracer));
+      return;
+    }
+
+    Hooks.onLastOperator(HOOK_KEY, TracedSubscriber.asOperator(tracer));
+    Schedulers.onScheduleHook(HOOK_KEY, runnable -> {
+      final Span span = tracer.activeSpan();
+      return span == null || runnable instanceof TracedRunnable ? runnable : new TracedRunnable(runnable, tracer, span);
+    });
+  }
+
+  private static boolean hasScheduleHook() {
+    try {
+      Schedulers.class.getMethod("onScheduleHook", String.class, Function.class);
+      return true;
+    }
+    catch (final NoSuchMethodException e) {
+      logger.warning("Reactor version does not support -D" + Configuration.PROPAGATION + "=scheduler, falling back to operator");
+      return false;
+    }
+  }
+
+  private ReactorAgentIntercept() {
+  }
+}
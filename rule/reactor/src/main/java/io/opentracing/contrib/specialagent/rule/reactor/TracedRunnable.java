@@ -0,0 +1,45 @@
+/* Copyright 2019 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent.rule.reactor;
+
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+
+/**
+ * A {@link Runnable} that activates the span that was active when the task was
+ * scheduled, for the duration of the task.
+ *
+ * @author Seva Safris
+ */
+class TracedRunnable implements Runnable {
+  private final Runnable delegate;
+  private final Tracer tracer;
+  private final Span span;
+
+  TracedRunnable(final Runnable delegate, final Tracer tracer, final Span span) {
+    this.delegate = delegate;
+    this.tracer = tracer;
+    this.span = span;
+  }
+
+  @Override
+  public void run() {
+    try (final Scope scope = tracer.activateSpan(span)) {
+      delegate.run();
+    }
+  }
+}
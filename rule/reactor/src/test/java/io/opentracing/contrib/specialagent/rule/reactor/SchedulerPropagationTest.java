@@ -0,0 +1,75 @@
+/* Copyright 2019 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent.rule.reactor;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.contrib.specialagent.AgentRunner;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * @author Seva Safris
+ */
+@RunWith(AgentRunner.class)
+@AgentRunner.Config(properties = "sa.integration.reactor.propagation=scheduler")
+public class SchedulerPropagationTest {
+  @Test
+  public void testSubscriberContext(final MockTracer tracer) {
+    final MockSpan initSpan = tracer.buildSpan("foo").start();
+    final AtomicReference<Long> spanInSubscriberContext = new AtomicReference<>();
+    try (final Scope scope = tracer.activateSpan(initSpan)) {
+      Mono.subscriberContext().map(context -> ((MockSpan)context.get(Span.class)).context().spanId()).doOnNext(spanInSubscriberContext::set).block();
+    }
+    finally {
+      initSpan.finish();
+    }
+
+    assertEquals(initSpan.context().spanId(), (long)spanInSubscriberContext.get());
+  }
+
+  @Test
+  public void testSchedulerHop(final MockTracer tracer) {
+    final MockSpan initSpan = tracer.buildSpan("foo").start();
+    final AtomicReference<Span> publishSpan = new AtomicReference<>();
+    final AtomicReference<Span> subscribeSpan = new AtomicReference<>();
+    try (final Scope scope = tracer.activateSpan(initSpan)) {
+      Flux.range(0, 10)
+        .doOnSubscribe(subscription -> subscribeSpan.set(tracer.activeSpan()))
+        .subscribeOn(Schedulers.elastic())
+        .map(i -> i + 1)
+        .publishOn(Schedulers.parallel())
+        .doOnNext(i -> publishSpan.set(tracer.activeSpan()))
+        .blockLast();
+    }
+    finally {
+      initSpan.finish();
+    }
+
+    assertSame(initSpan, subscribeSpan.get());
+    assertSame(initSpan, publishSpan.get());
+  }
+}
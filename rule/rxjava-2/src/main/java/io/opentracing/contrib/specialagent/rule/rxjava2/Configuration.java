@@ -0,0 +1,58 @@
+/* Copyright 2019 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent.rule.rxjava2;
+
+import io.opentracing.contrib.specialagent.Level;
+import io.opentracing.contrib.specialagent.Logger;
+
+public final class Configuration {
+  public static final Logger logger = Logger.getLogger(Configuration.class);
+  public static final String PROPAGATION = "sa.integration.rxjava:2.propagation";
+
+  /**
+   * The mode of propagation of the active span through reactive chains.
+   */
+  public enum Propagation {
+    /**
+     * A span is created for each subscriber, and is activated around each
+     * signal of each operator.
+     */
+    OPERATOR,
+    /**
+     * No span is created, and the active span is activated around each task
+     * that crosses a {@code Scheduler}.
+     */
+    SCHEDULER
+  }
+
+  public static final Propagation propagation = parsePropagation(System.getProperty(PROPAGATION));
+
+  static Propagation parsePropagation(final String propagationArg) {
+    if (propagationArg == null)
+      return Propagation.OPERATOR;
+
+    try {
+      return Propagation.valueOf(propagationArg.trim().toUpperCase());
+    }
+    catch (final IllegalArgumentException e) {
+      logger.log(Level.WARNING, "Invalid value for -D" + PROPAGATION + "=" + propagationArg + ": expected operator or scheduler");
+      return Propagation.OPERATOR;
+    }
+  }
+
+  private Configuration() {
+  }
+}
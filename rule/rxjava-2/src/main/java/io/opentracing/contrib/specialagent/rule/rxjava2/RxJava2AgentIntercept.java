@@ -15,6 +15,9 @@
 
 package io.opentracing.contrib.specialagent.rule.rxjava2;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.opentracing.contrib.specialagent.Logger;
 import io.opentracing.rxjava2.TracingConsumer;
 import io.opentracing.rxjava2.TracingObserver;
 import io.opentracing.rxjava2.TracingRxJava2Utils;
@@ -24,24 +27,56 @@ import io.reactivex.Observer;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.functions.Action;
 import io.reactivex.functions.Consumer;
+import io.reactivex.plugins.RxJavaPlugins;
 
 public class RxJava2AgentIntercept {
+  public static final Logger logger = Logger.getLogger(RxJava2AgentIntercept.class);
   public static final Object NULL = new Object();
-  private static boolean isTracingEnabled;
+  public static final AtomicBoolean inited = new AtomicBoolean();
+  private static final AtomicBoolean lockedDown = new AtomicBoolean();
+
+  /**
+   * Installs the tracing hooks into {@link RxJavaPlugins}. If
+   * {@link RxJavaPlugins} is locked down, tracing remains uninitialized, the
+   * lockdown is logged once, and subsequent calls return without retrying.
+   */
+  private static void enableTracing() {
+    if (inited.get() || lockedDown.get())
+      return;
+
+    synchronized (inited) {
+      if (inited.get() || lockedDown.get())
+        return;
+
+      try {
+        if (Configuration.propagation == Configuration.Propagation.SCHEDULER)
+          RxJavaPlugins.setScheduleHandler(TracedRunnable.scheduleHandler(GlobalTracer.get(), RxJavaPlugins.getScheduleHandler()));
+        else
+          TracingRxJava2Utils.enableTracing();
+
+        inited.set(true);
+      }
+      catch (final IllegalStateException e) {
+        lockedDown.set(true);
+        logger.warning("RxJavaPlugins is locked down, tracing is not enabled: " + e.getMessage());
+      }
+    }
+  }
 
   @SuppressWarnings("unchecked")
   public static Object enter(final Object thiz, final int argc, final Object arg0, final Object arg1, final Object arg2, final Object arg3) {
+    if (Configuration.propagation == Configuration.Propagation.SCHEDULER) {
+      enableTracing();
+      return NULL;
+    }
+
     if (arg0 == null || arg0.getClass().getName().startsWith("io.reactivex.internal"))
       return NULL;
 
     if (arg0 instanceof TracingConsumer)
       return NULL;
 
-    if (!isTracingEnabled) {
-      isTracingEnabled = true;
-      TracingRxJava2Utils.enableTracing();
-    }
-
+    enableTracing();
     if (arg0 instanceof Observer)
       return new TracingObserver<>((Observer<?>)arg0, "observer", GlobalTracer.get());
 
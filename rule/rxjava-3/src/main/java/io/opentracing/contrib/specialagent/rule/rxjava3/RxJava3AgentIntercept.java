@@ -15,6 +15,9 @@
 
 package io.opentracing.contrib.specialagent.rule.rxjava3;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.opentracing.contrib.specialagent.Logger;
 import io.opentracing.rxjava3.TracingConsumer;
 import io.opentracing.rxjava3.TracingObserver;
 import io.opentracing.rxjava3.TracingRxJava3Utils;
@@ -24,21 +27,53 @@ import io.reactivex.rxjava3.core.Observer;
 import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.functions.Action;
 import io.reactivex.rxjava3.functions.Consumer;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
 
 public class RxJava3AgentIntercept {
+  public static final Logger logger = Logger.getLogger(RxJava3AgentIntercept.class);
   public static final Object NULL = new Object();
-  private static boolean isTracingEnabled;
+  public static final AtomicBoolean inited = new AtomicBoolean();
+  private static final AtomicBoolean lockedDown = new AtomicBoolean();
+
+  /**
+   * Installs the tracing hooks into {@link RxJavaPlugins}. If
+   * {@link RxJavaPlugins} is locked down, tracing remains uninitialized, the
+   * lockdown is logged once, and subsequent calls return without retrying.
+   */
+  private static void enableTracing() {
+    if (inited.get() || lockedDown.get())
+      return;
+
+    synchronized (inited) {
+      if (inited.get() || lockedDown.get())
+        return;
+
+      try {
+        if (Configuration.propagation == Configuration.Propagation.SCHEDULER)
+          RxJavaPlugins.setScheduleHandler(TracedRunnable.scheduleHandler(GlobalTracer.get(), RxJavaPlugins.getScheduleHandler()));
+        else
+          TracingRxJava3Utils.enableTracing();
+
+        inited.set(true);
+      }
+      catch (final IllegalStateException e) {
+        lockedDown.set(true);
+        logger.warning("RxJavaPlugins is locked down, tracing is not enabled: " + e.getMessage());
+      }
+    }
+  }
 
   @SuppressWarnings("unchecked")
   public static Object enter(final Object thiz, final int argc, final Object arg0, final Object arg1, final Object arg2) {
-    if (arg0 == null || arg0.getClass().getName().startsWith("io.reactivex.rxjava3.internal") || arg0 instanceof TracingConsumer)
+    if (Configuration.propagation == Configuration.Propagation.SCHEDULER) {
+      enableTracing();
       return NULL;
-
-    if (!isTracingEnabled) {
-      isTracingEnabled = true;
-      TracingRxJava3Utils.enableTracing();
     }
 
+    if (arg0 == null || arg0.getClass().getName().startsWith("io.reactivex.rxjava3.internal") || arg0 instanceof TracingConsumer)
+      return NULL;
+
+    enableTracing();
     if (arg0 instanceof Observer)
       return new TracingObserver<>((Observer<?>)arg0, "observer", GlobalTracer.get());
 
@@ -0,0 +1,66 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent.rule.rxjava3;
+
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import io.reactivex.rxjava3.functions.Function;
+
+/**
+ * A {@link Runnable} that activates the span that was active when the task was
+ * scheduled, for the duration of the task.
+ *
+ * @author Seva Safris
+ */
+class TracedRunnable implements Runnable {
+  /**
+   * Returns a schedule handler that decorates each task with the span that is
+   * active when the task is scheduled, after applying the specified handler.
+   *
+   * @param tracer The {@link Tracer}.
+   * @param handler The schedule handler that was previously installed, or
+   *          {@code null}.
+   * @return A schedule handler that decorates each task with the active span.
+   */
+  static Function<Runnable,Runnable> scheduleHandler(final Tracer tracer, final Function<? super Runnable,? extends Runnable> handler) {
+    return new Function<Runnable,Runnable>() {
+      @Override
+      public Runnable apply(final Runnable runnable) throws Throwable {
+        final Runnable task = handler != null ? handler.apply(runnable) : runnable;
+        final Span span = tracer.activeSpan();
+        return span == null || task instanceof TracedRunnable ? task : new TracedRunnable(task, tracer, span);
+      }
+    };
+  }
+
+  private final Runnable delegate;
+  private final Tracer tracer;
+  private final Span span;
+
+  private TracedRunnable(final Runnable delegate, final Tracer tracer, final Span span) {
+    this.delegate = delegate;
+    this.tracer = tracer;
+    this.span = span;
+  }
+
+  @Override
+  public void run() {
+    try (final Scope scope = tracer.activateSpan(span)) {
+      delegate.run();
+    }
+  }
+}
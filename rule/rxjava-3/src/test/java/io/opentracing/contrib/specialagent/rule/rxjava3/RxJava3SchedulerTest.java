@@ -0,0 +1,74 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent.rule.rxjava3;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.contrib.specialagent.AgentRunner;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * @author Seva Safris
+ */
+@RunWith(AgentRunner.class)
+@AgentRunner.Config(properties = "sa.integration.rxjava:3.propagation=scheduler")
+public class RxJava3SchedulerTest {
+  @Test
+  public void testSchedulerHop(final MockTracer tracer) {
+    final List<Span> activeSpans = new CopyOnWriteArrayList<>();
+    final Function<Integer,Integer> function = new Function<Integer,Integer>() {
+      @Override
+      public Integer apply(final Integer t) {
+        activeSpans.add(tracer.activeSpan());
+        return t * 3;
+      }
+    };
+
+    final MockSpan parent = tracer.buildSpan("parent").start();
+    try (final Scope scope = tracer.activateSpan(parent)) {
+      final int last = Observable.range(1, 10)
+        .subscribeOn(Schedulers.io())
+        .map(function)
+        .observeOn(Schedulers.computation())
+        .map(function)
+        .blockingLast();
+      assertEquals(270, last);
+    }
+    finally {
+      parent.finish();
+    }
+
+    assertEquals(20, activeSpans.size());
+    for (final Span activeSpan : activeSpans)
+      assertSame(parent, activeSpan);
+
+    final List<MockSpan> spans = tracer.finishedSpans();
+    assertEquals(1, spans.size());
+    assertNull(tracer.activeSpan());
+  }
+}
@@ -68,19 +68,6 @@ public abstract class ContextAgentIntercept extends ServletFilterAgentIntercept
     return addFilterMethod.invoke(context, TRACING_FILTER_NAME, tracingFilter);
   }
 
-  public static boolean invoke(final Object[] returned, final Object obj, final Method method, final Object ... args) {
-    if (method == null)
-      return false;
-
-    try {
-      returned[0] = method.invoke(obj, args);
-      return true;
-    }
-    catch (final IllegalAccessException | InvocationTargetException e) {
-      return false;
-    }
-  }
-
   public static Method getFilterMethod(final ServletContext context) {
     return getMethod(context.getClass(), "addFilter", String.class, Filter.class);
   }
@@ -16,9 +16,7 @@
 package io.opentracing.contrib.specialagent.rule.servlet;
 
 import java.io.IOException;
-import java.util.Collections;
 import java.util.Map;
-import java.util.WeakHashMap;
 
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
@@ -30,6 +28,7 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletResponse;
 
 import io.opentracing.contrib.specialagent.AgentRuleUtil;
+import io.opentracing.contrib.specialagent.ConcurrentWeakIdentityHashMap;
 import io.opentracing.contrib.specialagent.EarlyReturnException;
 import io.opentracing.contrib.specialagent.Level;
 import io.opentracing.contrib.specialagent.rule.servlet.ext.TracingProxyFilter;
@@ -37,11 +36,17 @@ import io.opentracing.contrib.web.servlet.filter.TracingFilter;
 import io.opentracing.util.GlobalTracer;
 
 public class FilterAgentIntercept extends ServletFilterAgentIntercept {
-  public static final Map<ServletResponse,Integer> servletResponseToStatus = Collections.synchronizedMap(new WeakHashMap<ServletResponse, Integer>());
+  // Servlet API 3.0+ provides HttpServletResponse#getStatus(), so the status
+  // only needs to be tracked for Servlet API 2.x
+  public static final Map<ServletResponse,Integer> servletResponseToStatus = ServletApiV3.isApiV3 ? null : new ConcurrentWeakIdentityHashMap<ServletResponse,Integer>();
 
   public static void init(final Object thiz, final Object filterConfig) {
-    if (filterConfig != null)
-      filterOrServletToServletContext.put(thiz, ((FilterConfig)filterConfig).getServletContext());
+    if (filterConfig == null)
+      return;
+
+    final ServletContext context = ((FilterConfig)filterConfig).getServletContext();
+    if (context != null)
+      filterOrServletToServletContext.put(thiz, context);
   }
 
   public static void doFilter(final Object thiz, final Object req, final Object res, final Object chain) {
@@ -55,11 +60,9 @@ public class FilterAgentIntercept extends ServletFilterAgentIntercept {
 
     try {
       final Filter filter = (Filter)thiz;
-      final ServletContext[] context = new ServletContext[1];
-      if (!ContextAgentIntercept.invoke(context, request, getMethod(request.getClass(), "getServletContext")) || context[0] == null)
-        context[0] = filterOrServletToServletContext.get(filter);
-
-      final TracingFilter tracingFilter = context[0] != null ? getFilter(context[0], true) : new TracingProxyFilter(GlobalTracer.get(), null);
+      final ServletContext servletContext = getServletContext(request);
+      final ServletContext context = servletContext != null ? servletContext : filterOrServletToServletContext.get(filter);
+      final TracingFilter tracingFilter = context != null ? getFilter(context, true) : new TracingProxyFilter(GlobalTracer.get(), null);
 
       // If the tracingFilter instance is not a TracingProxyFilter, then it was
       // created with ServletContext#addFilter. Therefore, the intercept of the
@@ -68,14 +71,14 @@ public class FilterAgentIntercept extends ServletFilterAgentIntercept {
         return;
 
       if (logger.isLoggable(Level.FINER))
-        logger.finer(">> TracingFilter.doFilter(" + AgentRuleUtil.getSimpleNameId(request) + "," + AgentRuleUtil.getSimpleNameId(res) + "," + AgentRuleUtil.getSimpleNameId(context[0]) + ")");
+        logger.finer(">> TracingFilter.doFilter(" + AgentRuleUtil.getSimpleNameId(request) + "," + AgentRuleUtil.getSimpleNameId(res) + "," + AgentRuleUtil.getSimpleNameId(context) + ")");
 
       tracingFilter.doFilter(request, (ServletResponse)res, new FilterChain() {
         @Override
         public void doFilter(final ServletRequest request, final ServletResponse response) throws IOException, ServletException {
           filter.doFilter(request, response, (FilterChain)chain);
           if (logger.isLoggable(Level.FINER))
-            logger.finer("<< TracingFilter.doFilter(" + AgentRuleUtil.getSimpleNameId(request) + "," + AgentRuleUtil.getSimpleNameId(response) + "," + AgentRuleUtil.getSimpleNameId(context[0]) + ")");
+            logger.finer("<< TracingFilter.doFilter(" + AgentRuleUtil.getSimpleNameId(request) + "," + AgentRuleUtil.getSimpleNameId(response) + "," + AgentRuleUtil.getSimpleNameId(context) + ")");
         }
       });
     }
@@ -91,11 +94,12 @@ public class FilterAgentIntercept extends ServletFilterAgentIntercept {
     if (logger.isLoggable(Level.FINER))
       logger.finer("<> FilterAgentIntercept.setStatusCode(" + AgentRuleUtil.getSimpleNameId(response) + "," + status + ")");
 
-    servletResponseToStatus.put((ServletResponse)response, status);
+    if (servletResponseToStatus != null)
+      servletResponseToStatus.put((ServletResponse)response, status);
   }
 
   public static int getSatusCode(final HttpServletResponse response) {
-    final Integer statusCode = servletResponseToStatus.remove(response);
+    final Integer statusCode = servletResponseToStatus == null ? null : servletResponseToStatus.remove(response);
     if (logger.isLoggable(Level.FINER))
       logger.finer("<> FilterAgentIntercept.getSatusCode(" + AgentRuleUtil.getSimpleNameId(response) + "): " + statusCode);
 
@@ -39,7 +39,9 @@ public class ServletAgentIntercept extends ServletFilterAgentIntercept {
   static final String COMPONENT_NAME = "java-web-servlet";
 
   public static void init(final Object thiz, final Object servletConfig) {
-    filterOrServletToServletContext.put(thiz, ((ServletConfig)servletConfig).getServletContext());
+    final ServletContext context = ((ServletConfig)servletConfig).getServletContext();
+    if (context != null)
+      filterOrServletToServletContext.put(thiz, context);
   }
 
   private static ServletContext getServletContext(final HttpServlet servlet) {
@@ -38,7 +38,16 @@ public final class ServletApiV3 {
   }
 
   public static int getStatus(final HttpServletResponse response) {
-    return isApiV3 ? response.getStatus() : 200;
+    if (!isApiV3)
+      return 200;
+
+    try {
+      return response.getStatus();
+    }
+    catch (final AbstractMethodError e) {
+      // The response implements the Servlet API 2.x
+      return 200;
+    }
   }
 
   public static boolean isAsyncStarted(final HttpServletRequest request) {
@@ -15,16 +15,20 @@
 
 package io.opentracing.contrib.specialagent.rule.servlet;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
 
+import io.opentracing.contrib.specialagent.ConcurrentWeakIdentityHashMap;
 import io.opentracing.contrib.specialagent.Logger;
 import io.opentracing.contrib.specialagent.rule.servlet.ext.TracingProxyFilter;
 import io.opentracing.contrib.web.servlet.filter.TracingFilter;
@@ -32,7 +36,7 @@ import io.opentracing.util.GlobalTracer;
 
 public abstract class ServletFilterAgentIntercept {
   public static final Logger logger = Logger.getLogger(ServletAgentIntercept.class);
-  public static final Map<Object,ServletContext> filterOrServletToServletContext = new HashMap<>();
+  public static final Map<Object,ServletContext> filterOrServletToServletContext = new ConcurrentWeakIdentityHashMap<>();
   public static final Map<ServletContext,TracingFilter> servletContextToFilter = new ConcurrentHashMap<>();
 
   public static TracingFilter getFilter(final ServletContext context, final boolean proxy) throws ServletException {
@@ -51,6 +55,51 @@ public abstract class ServletFilterAgentIntercept {
     }
   }
 
+  private static final MethodType getServletContextType = MethodType.methodType(Object.class, Object.class);
+
+  /**
+   * Cache of the {@code getServletContext()} accessor of each request class,
+   * or {@code null} if the request class does not have an accessible
+   * {@code getServletContext()} (i.e. Servlet API < 3.0).
+   */
+  private static final ClassValue<MethodHandle> requestClassToGetServletContext = new ClassValue<MethodHandle>() {
+    @Override
+    protected MethodHandle computeValue(final Class<?> type) {
+      final Method method = getMethod(type, "getServletContext");
+      if (method == null)
+        return null;
+
+      try {
+        return MethodHandles.publicLookup().unreflect(method).asType(getServletContextType);
+      }
+      catch (final IllegalAccessException e) {
+        return null;
+      }
+    }
+  };
+
+  /**
+   * Returns the {@link ServletContext} of the specified request, or
+   * {@code null} if the request does not provide a {@link ServletContext}.
+   *
+   * @param request The {@link ServletRequest}.
+   * @return The {@link ServletContext} of the specified request, or
+   *         {@code null} if the request does not provide a
+   *         {@link ServletContext}.
+   */
+  public static ServletContext getServletContext(final ServletRequest request) {
+    final MethodHandle getServletContext = requestClassToGetServletContext.get(request.getClass());
+    if (getServletContext == null)
+      return null;
+
+    try {
+      return (ServletContext)(Object)getServletContext.invokeExact((Object)request);
+    }
+    catch (final Throwable t) {
+      return null;
+    }
+  }
+
   public static Method getMethod(final Class<?> cls, final String name, final Class<?> ... parameterTypes) {
     try {
       final Method method = cls.getMethod(name, parameterTypes);
@@ -16,6 +16,7 @@
 package io.opentracing.contrib.specialagent.rule.spring.kafka;
 
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Headers;
 
 import io.opentracing.References;
 import io.opentracing.Span;
@@ -24,6 +25,7 @@ import io.opentracing.Tracer;
 import io.opentracing.Tracer.SpanBuilder;
 import io.opentracing.contrib.kafka.TracingKafkaUtils;
 import io.opentracing.contrib.specialagent.LocalSpanContext;
+import io.opentracing.contrib.specialagent.MessageSpanContext;
 import io.opentracing.contrib.specialagent.OpenTracingApiUtil;
 import io.opentracing.tag.Tags;
 import io.opentracing.util.GlobalTracer;
@@ -44,8 +46,15 @@ public class SpringKafkaAgentIntercept {
       .withTag(Tags.SPAN_KIND, Tags.SPAN_KIND_CONSUMER);
 
     if (record instanceof ConsumerRecord) {
-      final ConsumerRecord<?,?> consumerRecord = (ConsumerRecord<?,?>)record;
-      final SpanContext spanContext = TracingKafkaUtils.extractSpanContext(consumerRecord.headers(), tracer);
+      // The kafka-client integration hands off the context of the records it
+      // has already consumed, otherwise it is extracted from the headers
+      SpanContext spanContext = MessageSpanContext.remove(record);
+      if (spanContext == null) {
+        final Headers headers = ((ConsumerRecord<?,?>)record).headers();
+        if (headers.iterator().hasNext())
+          spanContext = TracingKafkaUtils.extractSpanContext(headers, tracer);
+      }
+
       if (spanContext != null)
         builder.addReference(References.FOLLOWS_FROM, spanContext);
     }
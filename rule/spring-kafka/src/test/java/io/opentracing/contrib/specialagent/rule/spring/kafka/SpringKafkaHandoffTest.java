@@ -0,0 +1,83 @@
+/* Copyright 2019 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent.rule.spring.kafka;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.opentracing.References;
+import io.opentracing.Span;
+import io.opentracing.contrib.kafka.TracingKafkaUtils;
+import io.opentracing.contrib.specialagent.AgentRunner;
+import io.opentracing.contrib.specialagent.MessageSpanContext;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+
+@RunWith(AgentRunner.class)
+public class SpringKafkaHandoffTest {
+  @Before
+  public void before(final MockTracer tracer) {
+    tracer.reset();
+  }
+
+  private static MockSpan onMessage(final MockTracer tracer, final ConsumerRecord<Integer,String> record) {
+    SpringKafkaAgentIntercept.onMessageEnter(record);
+    assertNotNull(tracer.activeSpan());
+    SpringKafkaAgentIntercept.onMessageExit(null);
+    assertNull(tracer.activeSpan());
+
+    final List<MockSpan> spans = tracer.finishedSpans();
+    assertEquals(1, spans.size());
+    return spans.get(0);
+  }
+
+  @Test
+  public void testHandoff(final MockTracer tracer) {
+    final Span consumerSpan = tracer.buildSpan("From_messages").start();
+    consumerSpan.finish();
+    tracer.reset();
+
+    // The record has no headers, so the reference can only come from the
+    // context that was handed off
+    final ConsumerRecord<Integer,String> record = new ConsumerRecord<>("messages", 0, 0, 1, "test");
+    MessageSpanContext.put(record, consumerSpan.context());
+
+    final MockSpan span = onMessage(tracer, record);
+    assertNull(MessageSpanContext.remove(record));
+    assertEquals(1, span.references().size());
+    assertEquals(References.FOLLOWS_FROM, span.references().get(0).getReferenceType());
+    assertEquals(((MockSpan)consumerSpan).context().spanId(), span.references().get(0).getContext().spanId());
+  }
+
+  @Test
+  public void testHeaders(final MockTracer tracer) {
+    final Span producerSpan = tracer.buildSpan("send").start();
+    final ConsumerRecord<Integer,String> record = new ConsumerRecord<>("messages", 0, 0, 1, "test");
+    TracingKafkaUtils.inject(producerSpan.context(), record.headers(), tracer);
+    producerSpan.finish();
+    tracer.reset();
+
+    final MockSpan span = onMessage(tracer, record);
+    assertEquals(1, span.references().size());
+    assertEquals(((MockSpan)producerSpan).context().spanId(), span.references().get(0).getContext().spanId());
+  }
+}
@@ -16,41 +16,48 @@
 package io.opentracing.contrib.specialagent.rule.thread;
 
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import io.opentracing.Scope;
 import io.opentracing.Span;
 import io.opentracing.contrib.specialagent.AgentRuleUtil;
+import io.opentracing.contrib.specialagent.ConcurrentWeakIdentityHashMap;
 import io.opentracing.util.GlobalTracer;
 
 public class ThreadAgentIntercept {
-  public static final Map<Long,Span> threadIdToSpan;
+  /**
+   * The span active when {@link Thread#start()} was called, keyed by the
+   * identity of the started thread. The key is weak, so that entries for
+   * threads that are started but never run (i.e. {@link Thread#start()} throws)
+   * are reclaimed with the thread, and thread IDs that are reused by the JVM
+   * cannot match a stale entry.
+   */
+  public static final Map<Thread,Span> threadToSpan;
   private static final ThreadLocal<Scope> localScope = new ThreadLocal<>();
 
   static {
     if (ThreadAgentIntercept.class.getClassLoader() == null) {
-      threadIdToSpan = new ConcurrentHashMap<>();
+      threadToSpan = new ConcurrentWeakIdentityHashMap<>();
     }
     else {
-      threadIdToSpan = AgentRuleUtil.getFieldInBootstrapClass(ThreadAgentIntercept.class, "threadIdToSpan");
+      threadToSpan = AgentRuleUtil.getFieldInBootstrapClass(ThreadAgentIntercept.class, "threadToSpan");
     }
   }
 
   public static void start(final Thread thread) {
     final Span span = GlobalTracer.get().activeSpan();
     if (span != null)
-      threadIdToSpan.put(thread.getId(), span);
+      threadToSpan.put(thread, span);
   }
 
   public static void runEnter(final Thread thread) {
-    final Span span = threadIdToSpan.get(thread.getId());
+    final Span span = threadToSpan.get(thread);
     if (span != null)
       localScope.set(GlobalTracer.get().activateSpan(span));
   }
 
   @SuppressWarnings("resource")
   public static void runExit(final Thread thread) {
-    threadIdToSpan.remove(thread.getId());
+    threadToSpan.remove(thread);
     final Scope scope = localScope.get();
     if (scope != null)
       scope.close();
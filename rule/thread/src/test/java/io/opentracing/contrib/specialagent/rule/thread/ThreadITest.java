@@ -0,0 +1,100 @@
+/* Copyright 2019 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent.rule.thread;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.contrib.specialagent.AgentRunner;
+import io.opentracing.mock.MockTracer;
+
+/**
+ * Large-scale check that {@link ThreadAgentIntercept#threadToSpan} does not
+ * grow with the number of threads that are started but never run. This test
+ * is run by the failsafe plugin, and not by the unit suite, because it creates
+ * a million threads.
+ */
+@RunWith(AgentRunner.class)
+public class ThreadITest {
+  private static final int THREADS = 1_000_000;
+  private static final int WORKERS = 4;
+
+  private static long usedMemory() throws InterruptedException {
+    final Runtime runtime = Runtime.getRuntime();
+    long used = Long.MAX_VALUE;
+    for (int i = 0; i < 5; ++i) {
+      System.gc();
+      Thread.sleep(20);
+      used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+    }
+
+    return used;
+  }
+
+  @Test
+  public void testStartWithoutRun(final MockTracer tracer) throws Exception {
+    final int size = ThreadAgentIntercept.threadToSpan.size();
+    final long before = usedMemory();
+
+    final Span parent = tracer.buildSpan("parent").start();
+    final ExecutorService executor = Executors.newFixedThreadPool(WORKERS);
+    try {
+      final ArrayList<Future<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < WORKERS; ++i) {
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() {
+            try (final Scope scope = tracer.activateSpan(parent)) {
+              for (int j = 0; j < THREADS / WORKERS; ++j)
+                ThreadAgentIntercept.start(new Thread());
+            }
+
+            return null;
+          }
+        }));
+      }
+
+      for (final Future<Void> future : futures)
+        future.get(5, TimeUnit.MINUTES);
+    }
+    finally {
+      executor.shutdown();
+      parent.finish();
+    }
+
+    for (int i = 0; i < 100 && ThreadAgentIntercept.threadToSpan.size() > size; ++i) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    assertEquals(size, ThreadAgentIntercept.threadToSpan.size());
+
+    // A million entries of the map would take well over 64MB.
+    final long growth = usedMemory() - before;
+    assertTrue("Heap grew by " + growth + " bytes", growth < 64 * 1024 * 1024);
+  }
+}
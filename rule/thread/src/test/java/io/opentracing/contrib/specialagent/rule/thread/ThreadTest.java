@@ -17,6 +17,7 @@ package io.opentracing.contrib.specialagent.rule.thread;
 
 import static org.junit.Assert.*;
 
+import java.lang.ref.WeakReference;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Before;
@@ -116,6 +117,31 @@ public class ThreadTest {
     assertNull(GlobalTracer.get().activeSpan());
   }
 
+  private static WeakReference<Thread> startWithoutRun() {
+    final Thread thread = new Thread();
+    ThreadAgentIntercept.start(thread);
+    assertTrue(ThreadAgentIntercept.threadToSpan.containsKey(thread));
+    return new WeakReference<>(thread);
+  }
+
+  @Test
+  public void testStartWithoutRun(final MockTracer tracer) throws InterruptedException {
+    final int size = ThreadAgentIntercept.threadToSpan.size();
+    final WeakReference<Thread> reference;
+    try (final Scope scope = tracer.buildSpan("parent").startActive(true)) {
+      reference = startWithoutRun();
+    }
+
+    assertEquals(size + 1, ThreadAgentIntercept.threadToSpan.size());
+    for (int i = 0; i < 100 && reference.get() != null; ++i) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    assertNull(reference.get());
+    assertEquals(size, ThreadAgentIntercept.threadToSpan.size());
+  }
+
   private static class CustomThread extends Thread {
     CustomThread(final Runnable runnable) {
       super(runnable);
@@ -0,0 +1,347 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary encoding of a {@link LibraryFingerprint}, designed to be read in
+ * place from a (memory mapped) {@link ByteBuffer} without Java serialization.
+ * <p>
+ * The layout of the encoding is as follows (all integers are big-endian):
+ *
+ * <pre>
+ * int      magic ("SAFP")
+ * short    version
+ * int      string count
+ * int[]    string offsets
+ * int      class count
+ * int[]    class offsets
+ * list     presents
+ * list     absents
+ * string[] strings:  int length, byte[] UTF-8
+ * class[]  classes:  int name, int superClass, ctors, methods, fields
+ * </pre>
+ *
+ * A {@code list} is an {@code int} count ({@code -1} for {@code null})
+ * followed by the string indexes of its members. A {@code null} string index
+ * is encoded as {@code -1}. Classes are decoded individually, and only when
+ * accessed.
+ *
+ * @author Seva Safris
+ */
+class FingerprintFile {
+  static final int MAGIC = 0x53414650;
+  static final short VERSION = 1;
+
+  private static final int HEADER = 6;
+
+  /**
+   * Tests whether the specified buffer starts with the magic number of this
+   * encoding.
+   *
+   * @param buffer The {@link ByteBuffer}.
+   * @return Whether the specified buffer starts with the magic number of this
+   *         encoding.
+   */
+  static boolean isFingerprintFile(final ByteBuffer buffer) {
+    return buffer.limit() >= HEADER && buffer.getInt(0) == MAGIC;
+  }
+
+  /**
+   * Returns a {@link ByteBuffer} with the contents of the resource at the
+   * specified {@code URL}. Resources with the {@code "file"} protocol are
+   * memory mapped; all other resources are read onto the heap.
+   *
+   * @param url The {@code URL} of the resource.
+   * @return A {@link ByteBuffer} with the contents of the resource at the
+   *         specified {@code URL}.
+   * @throws IOException If an I/O error has occurred.
+   */
+  static ByteBuffer map(final URL url) throws IOException {
+    if ("file".equals(url.getProtocol())) {
+      final File file;
+      try {
+        file = new File(url.toURI());
+      }
+      catch (final URISyntaxException e) {
+        throw new IllegalArgumentException(e);
+      }
+
+      try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      }
+    }
+
+    final URLConnection connection = url.openConnection();
+    final int length = connection.getContentLength();
+    try (final InputStream in = connection.getInputStream()) {
+      if (length < 0)
+        return ByteBuffer.wrap(AssembleUtil.readBytes(in));
+
+      final byte[] bytes = new byte[length];
+      for (int off = 0, read; off < length; off += read)
+        if ((read = in.read(bytes, off, length - off)) == -1)
+          throw new IOException("Unexpected end of stream: " + url);
+
+      return ByteBuffer.wrap(bytes);
+    }
+  }
+
+  /**
+   * Writes the specified {@link LibraryFingerprint} to the provided
+   * {@link OutputStream} in the binary encoding.
+   *
+   * @param fingerprint The {@link LibraryFingerprint}.
+   * @param out The {@link OutputStream}.
+   * @throws IOException If an I/O error has occurred.
+   */
+  static void write(final LibraryFingerprint fingerprint, final OutputStream out) throws IOException {
+    final List<String> strings = new ArrayList<>();
+    final Map<String,Integer> stringToIndex = new HashMap<>();
+    final ClassFingerprint[] classes = fingerprint.getClasses() != null ? fingerprint.getClasses() : new ClassFingerprint[0];
+
+    final ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+    final DataOutputStream classOut = new DataOutputStream(classBytes);
+    final int[] classOffsets = new int[classes.length];
+    for (int i = 0; i < classes.length; ++i) {
+      classOffsets[i] = classOut.size();
+      writeClass(classes[i], classOut, strings, stringToIndex);
+    }
+
+    final ByteArrayOutputStream listBytes = new ByteArrayOutputStream();
+    final DataOutputStream listOut = new DataOutputStream(listBytes);
+    writeList(fingerprint.getPresents(), listOut, strings, stringToIndex);
+    writeList(fingerprint.getAbsents(), listOut, strings, stringToIndex);
+
+    final ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+    final DataOutputStream stringOut = new DataOutputStream(stringBytes);
+    final int[] stringOffsets = new int[strings.size()];
+    for (int i = 0; i < stringOffsets.length; ++i) {
+      stringOffsets[i] = stringOut.size();
+      final byte[] bytes = strings.get(i).getBytes(StandardCharsets.UTF_8);
+      stringOut.writeInt(bytes.length);
+      stringOut.write(bytes);
+    }
+
+    final int stringsStart = HEADER + 4 + 4 * stringOffsets.length + 4 + 4 * classOffsets.length + listOut.size();
+    final int classesStart = stringsStart + stringOut.size();
+
+    final DataOutputStream dos = new DataOutputStream(out);
+    dos.writeInt(MAGIC);
+    dos.writeShort(VERSION);
+    dos.writeInt(stringOffsets.length);
+    for (final int stringOffset : stringOffsets)
+      dos.writeInt(stringsStart + stringOffset);
+
+    dos.writeInt(classOffsets.length);
+    for (final int classOffset : classOffsets)
+      dos.writeInt(classesStart + classOffset);
+
+    listBytes.writeTo(dos);
+    stringBytes.writeTo(dos);
+    classBytes.writeTo(dos);
+    dos.flush();
+  }
+
+  private static void writeClass(final ClassFingerprint fingerprint, final DataOutputStream out, final List<String> strings, final Map<String,Integer> stringToIndex) throws IOException {
+    out.writeInt(indexOf(fingerprint.getName(), strings, stringToIndex));
+    out.writeInt(indexOf(fingerprint.getSuperClass(), strings, stringToIndex));
+
+    final List<ConstructorFingerprint> constructors = fingerprint.getConstructors();
+    out.writeInt(constructors == null ? -1 : constructors.size());
+    if (constructors != null) {
+      for (final ConstructorFingerprint constructor : constructors) {
+        writeList(constructor.getParameterTypes(), out, strings, stringToIndex);
+        writeList(constructor.getExceptionTypes(), out, strings, stringToIndex);
+      }
+    }
+
+    final List<MethodFingerprint> methods = fingerprint.getMethods();
+    out.writeInt(methods == null ? -1 : methods.size());
+    if (methods != null) {
+      for (final MethodFingerprint method : methods) {
+        out.writeInt(indexOf(method.getName(), strings, stringToIndex));
+        out.writeInt(indexOf(method.getReturnType(), strings, stringToIndex));
+        writeList(method.getParameterTypes(), out, strings, stringToIndex);
+        writeList(method.getExceptionTypes(), out, strings, stringToIndex);
+      }
+    }
+
+    final List<FieldFingerprint> fields = fingerprint.getFields();
+    out.writeInt(fields == null ? -1 : fields.size());
+    if (fields != null) {
+      for (final FieldFingerprint field : fields) {
+        out.writeInt(indexOf(field.getName(), strings, stringToIndex));
+        out.writeInt(indexOf(field.getType(), strings, stringToIndex));
+      }
+    }
+  }
+
+  private static void writeList(final List<String> list, final DataOutputStream out, final List<String> strings, final Map<String,Integer> stringToIndex) throws IOException {
+    out.writeInt(list == null ? -1 : list.size());
+    if (list != null)
+      for (final String string : list)
+        out.writeInt(indexOf(string, strings, stringToIndex));
+  }
+
+  private static int indexOf(final String string, final List<String> strings, final Map<String,Integer> stringToIndex) {
+    if (string == null)
+      return -1;
+
+    Integer index = stringToIndex.get(string);
+    if (index == null) {
+      stringToIndex.put(string, index = strings.size());
+      strings.add(string);
+    }
+
+    return index;
+  }
+
+  private final ByteBuffer buffer;
+  private final int stringCount;
+  private final int classCount;
+  private final String[] strings;
+  private final List<String> presents;
+  private final List<String> absents;
+
+  /**
+   * Creates a new {@code FingerprintFile} reading from the specified
+   * {@link ByteBuffer}. Only the header, and the lists of presents and absents
+   * are decoded by this constructor.
+   *
+   * @param buffer The {@link ByteBuffer}.
+   * @throws IllegalArgumentException If the buffer does not start with the
+   *           magic number of this encoding, or if the version of the
+   *           encoding is not supported.
+   */
+  FingerprintFile(final ByteBuffer buffer) {
+    if (!isFingerprintFile(buffer))
+      throw new IllegalArgumentException("Not a fingerprint file");
+
+    final short version = buffer.getShort(4);
+    if (version != VERSION)
+      throw new IllegalArgumentException("Unsupported fingerprint file version: " + version);
+
+    this.buffer = buffer;
+    this.stringCount = buffer.getInt(HEADER);
+    this.strings = new String[stringCount];
+    this.classCount = buffer.getInt(HEADER + 4 + 4 * stringCount);
+    final int[] position = {HEADER + 4 + 4 * stringCount + 4 + 4 * classCount};
+    this.presents = readList(position);
+    this.absents = readList(position);
+  }
+
+  int getClassCount() {
+    return classCount;
+  }
+
+  List<String> getPresents() {
+    return presents;
+  }
+
+  List<String> getAbsents() {
+    return absents;
+  }
+
+  /**
+   * Decodes the {@link ClassFingerprint} at the specified index.
+   *
+   * @param index The index of the {@link ClassFingerprint}.
+   * @return The {@link ClassFingerprint} at the specified index.
+   * @throws IndexOutOfBoundsException If the index is out of range.
+   */
+  ClassFingerprint readClass(final int index) {
+    if (index < 0 || index >= classCount)
+      throw new IndexOutOfBoundsException(String.valueOf(index));
+
+    final int[] position = {buffer.getInt(HEADER + 4 + 4 * stringCount + 4 + 4 * index)};
+    final String name = readString(position);
+    final String superClass = readString(position);
+
+    final int constructorCount = readInt(position);
+    final List<ConstructorFingerprint> constructors = constructorCount == -1 ? null : new ArrayList<ConstructorFingerprint>(constructorCount);
+    for (int i = 0; i < constructorCount; ++i)
+      constructors.add(new ConstructorFingerprint(readList(position), readList(position)));
+
+    final int methodCount = readInt(position);
+    final List<MethodFingerprint> methods = methodCount == -1 ? null : new ArrayList<MethodFingerprint>(methodCount);
+    for (int i = 0; i < methodCount; ++i)
+      methods.add(new MethodFingerprint(readString(position), readString(position), readList(position), readList(position)));
+
+    final int fieldCount = readInt(position);
+    final List<FieldFingerprint> fields = fieldCount == -1 ? null : new ArrayList<FieldFingerprint>(fieldCount);
+    for (int i = 0; i < fieldCount; ++i)
+      fields.add(new FieldFingerprint(readString(position), readString(position)));
+
+    return new ClassFingerprint(name, superClass, constructors, methods, fields);
+  }
+
+  private int readInt(final int[] position) {
+    final int value = buffer.getInt(position[0]);
+    position[0] += 4;
+    return value;
+  }
+
+  private String readString(final int[] position) {
+    return getString(readInt(position));
+  }
+
+  private List<String> readList(final int[] position) {
+    final int size = readInt(position);
+    if (size == -1)
+      return null;
+
+    final String[] list = new String[size];
+    for (int i = 0; i < size; ++i)
+      list[i] = readString(position);
+
+    return new ArrayList<>(Arrays.asList(list));
+  }
+
+  private String getString(final int index) {
+    if (index == -1)
+      return null;
+
+    String string = strings[index];
+    if (string != null)
+      return string;
+
+    final int offset = buffer.getInt(HEADER + 4 + 4 * index);
+    final byte[] bytes = new byte[buffer.getInt(offset)];
+    final ByteBuffer duplicate = buffer.duplicate();
+    duplicate.position(offset + 4);
+    duplicate.get(bytes);
+    return strings[index] = new String(bytes, StandardCharsets.UTF_8);
+  }
+}
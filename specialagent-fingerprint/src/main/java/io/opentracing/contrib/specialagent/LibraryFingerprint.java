@@ -15,16 +15,20 @@
 
 package io.opentracing.contrib.specialagent;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A {@link Fingerprint} that represents the fingerprint of a library.
@@ -36,16 +40,38 @@ public class LibraryFingerprint extends Fingerprint {
   private static final Logger logger = Logger.getLogger(LibraryFingerprint.class);
 
   /**
-   * Returns a {@code LibraryFingerprint} for the serialized object encoding at
-   * the specified URL.
+   * Cache of the {@code ClassFingerprint} objects scanned from each runtime
+   * {@code ClassLoader}, which is shared amongst all {@code LibraryFingerprint}
+   * instances, so that classes referenced by multiple plugins are scanned only
+   * once per {@code ClassLoader}. Classes that are not present are not cached,
+   * because a {@code ClassLoader} may gain code sources after it was first
+   * checked.
+   */
+  private static final ConcurrentWeakIdentityHashMap<ClassLoader,ConcurrentHashMap<String,ClassFingerprint>> classLoaderToFingerprints = new ConcurrentWeakIdentityHashMap<>();
+
+  /**
+   * Returns a {@code LibraryFingerprint} for the encoding at the specified URL.
+   * <p>
+   * If the resource is in the binary encoding of {@link FingerprintFile}, the
+   * resource is memory mapped (if it is a file), and each
+   * {@code ClassFingerprint} is decoded only when it is accessed. Otherwise,
+   * the resource is read as a serialized object encoding.
    *
-   * @param url The URL referencing the resource with the serialized object
-   *          encoding representing a {@code LibraryFingerprint} object.
-   * @return A {@code LibraryFingerprint} for the serialized object encoding at
-   *         the specified URL.
+   * @param url The URL referencing the resource with the encoding representing
+   *          a {@code LibraryFingerprint} object.
+   * @return A {@code LibraryFingerprint} for the encoding at the specified URL.
    * @throws IOException If an I/O error has occurred.
    */
   public static LibraryFingerprint fromFile(final URL url) throws IOException {
+    final ByteBuffer buffer = FingerprintFile.map(url);
+    if (FingerprintFile.isFingerprintFile(buffer)) {
+      final LibraryFingerprint libraryFingerprint = new LibraryFingerprint(new FingerprintFile(buffer));
+      if (logger.isLoggable(Level.FINEST))
+        logger.finest("LibraryFingerprint#fromFile(\"" + url + "\"): " + libraryFingerprint);
+
+      return libraryFingerprint;
+    }
+
     try (final ObjectInputStream in = new ObjectInputStream(url.openStream())) {
       final LibraryFingerprint libraryFingerprint = (LibraryFingerprint)in.readObject();
       if (logger.isLoggable(Level.FINEST))
@@ -61,6 +87,7 @@ public class LibraryFingerprint extends Fingerprint {
   private final ClassFingerprint[] classes;
   private final List<String> presents;
   private final List<String> absents;
+  private final transient FingerprintFile file;
 
   /**
    * Creates a new {@code LibraryFingerprint} with the specified {@code URL}
@@ -84,6 +111,22 @@ public class LibraryFingerprint extends Fingerprint {
     this.classes = new FingerprintBuilder(logger).build(classLoader, Integer.MAX_VALUE).toArray(new ClassFingerprint[0]);
     this.presents = presents;
     this.absents = absents;
+    this.file = null;
+  }
+
+  /**
+   * Creates a new {@code LibraryFingerprint} with the specified
+   * {@code ClassFingerprint} objects.
+   *
+   * @param classes The {@code ClassFingerprint} objects.
+   * @param presents List of classes the fingerprint must assert are present.
+   * @param absents List of classes the fingerprint must assert are absent.
+   */
+  LibraryFingerprint(final ClassFingerprint[] classes, final List<String> presents, final List<String> absents) {
+    this.classes = classes;
+    this.presents = presents;
+    this.absents = absents;
+    this.file = null;
   }
 
   /**
@@ -93,18 +136,33 @@ public class LibraryFingerprint extends Fingerprint {
     this.classes = null;
     this.presents = null;
     this.absents = null;
+    this.file = null;
+  }
+
+  /**
+   * Creates a new {@code LibraryFingerprint} that decodes its
+   * {@code ClassFingerprint} objects from the specified
+   * {@link FingerprintFile} on first access.
+   *
+   * @param file The {@link FingerprintFile}.
+   */
+  LibraryFingerprint(final FingerprintFile file) {
+    this.classes = new ClassFingerprint[file.getClassCount()];
+    this.presents = file.getPresents();
+    this.absents = file.getAbsents();
+    this.file = file;
   }
 
   /**
    * Exports this {@code LibraryFingerprint} to the specified {@code File} in
-   * the form of a serialized object representation.
+   * the binary encoding of {@link FingerprintFile}.
    *
    * @param file The {@code File} to which to export.
    * @throws IOException If an I/O error has occurred.
    */
   void toFile(final File file) throws IOException {
-    try (final ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
-      out.writeObject(this);
+    try (final OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+      FingerprintFile.write(this, out);
     }
   }
 
@@ -113,9 +171,28 @@ public class LibraryFingerprint extends Fingerprint {
    *         {@code LibraryFingerprint}.
    */
   ClassFingerprint[] getClasses() {
+    if (classes != null && file != null)
+      for (int i = 0; i < classes.length; ++i)
+        getClassFingerprint(i);
+
     return this.classes;
   }
 
+  /**
+   * Returns the {@code ClassFingerprint} at the specified index, decoding it
+   * from the backing {@link FingerprintFile} if it has not yet been decoded.
+   *
+   * @param index The index of the {@code ClassFingerprint}.
+   * @return The {@code ClassFingerprint} at the specified index.
+   */
+  private ClassFingerprint getClassFingerprint(final int index) {
+    ClassFingerprint classFingerprint = classes[index];
+    if (classFingerprint == null && file != null)
+      classes[index] = classFingerprint = file.readClass(index);
+
+    return classFingerprint;
+  }
+
   /**
    * @return The list of classes the fingerprint asserts must be present.
    */
@@ -158,13 +235,15 @@ public class LibraryFingerprint extends Fingerprint {
       }
     }
 
+    if (classes == null)
+      return errors.size() != 0 ? errors : null;
+
     final FingerprintVerifier verifier = new FingerprintVerifier();
     for (int i = 0; i < classes.length; ++i) {
       try {
-        final ClassFingerprint expected = classes[i];
-        final ClassFingerprint actual = verifier.fingerprint(classLoader, AssembleUtil.classNameToResource(expected.getName()));
+        final ClassFingerprint expected = getClassFingerprint(i);
+        final ClassFingerprint actual = fingerprint(verifier, classLoader, expected.getName());
         if (actual == null) {
-          verifier.fingerprint(classLoader, AssembleUtil.classNameToResource(expected.getName()));
           errors.add(new FingerprintError(FingerprintError.Reason.MISSING, expected, null));
         }
         else if (!actual.compatible(expected)) {
@@ -183,6 +262,43 @@ public class LibraryFingerprint extends Fingerprint {
     return errors.size() != 0 ? errors : null;
   }
 
+  private void writeObject(final ObjectOutputStream out) throws IOException {
+    getClasses();
+    out.defaultWriteObject();
+  }
+
+  /**
+   * Returns the {@code ClassFingerprint} of the class by the specified name in
+   * the provided {@code ClassLoader}, scanning the class with the specified
+   * {@link FingerprintVerifier} only if it has not been scanned before for the
+   * {@code ClassLoader}.
+   *
+   * @param verifier The {@link FingerprintVerifier}.
+   * @param classLoader The {@code ClassLoader}.
+   * @param className The name of the class.
+   * @return The {@code ClassFingerprint} of the class by the specified name in
+   *         the provided {@code ClassLoader}, or {@code null} if the class is
+   *         not present.
+   * @throws IOException If an I/O error has occurred.
+   */
+  private static ClassFingerprint fingerprint(final FingerprintVerifier verifier, final ClassLoader classLoader, final String className) throws IOException {
+    ConcurrentHashMap<String,ClassFingerprint> nameToFingerprint = classLoaderToFingerprints.get(classLoader);
+    if (nameToFingerprint == null) {
+      final ConcurrentHashMap<String,ClassFingerprint> existing = classLoaderToFingerprints.putIfAbsent(classLoader, nameToFingerprint = new ConcurrentHashMap<>());
+      if (existing != null)
+        nameToFingerprint = existing;
+    }
+
+    ClassFingerprint fingerprint = nameToFingerprint.get(className);
+    if (fingerprint == null) {
+      fingerprint = verifier.fingerprint(classLoader, AssembleUtil.classNameToResource(className));
+      if (fingerprint != null)
+        nameToFingerprint.put(className, fingerprint);
+    }
+
+    return fingerprint;
+  }
+
   @Override
   public boolean equals(final Object obj) {
     if (obj == this)
@@ -192,11 +308,11 @@ public class LibraryFingerprint extends Fingerprint {
       return false;
 
     final LibraryFingerprint that = (LibraryFingerprint)obj;
-    return classes != null ? that.classes != null && Arrays.equals(classes, that.classes) : that.classes == null;
+    return classes != null ? that.classes != null && Arrays.equals(getClasses(), that.getClasses()) : that.classes == null;
   }
 
   @Override
   public String toString() {
-    return "\n" + AssembleUtil.toString(classes, "\n");
+    return "\n" + AssembleUtil.toString(getClasses(), "\n");
   }
 }
\ No newline at end of file
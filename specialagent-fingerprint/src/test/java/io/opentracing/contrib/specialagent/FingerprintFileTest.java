@@ -0,0 +1,91 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class FingerprintFileTest {
+  private static final Logger logger = Logger.getLogger(FingerprintFileTest.class);
+
+  private static LibraryFingerprint newFingerprint() throws IOException {
+    FingerprintBuilder.debugVisitor = false;
+    final List<ClassFingerprint> classFingerprints = new FingerprintBuilder(logger).build(ClassLoader.getSystemClassLoader(), Integer.MAX_VALUE, FpTestClass1.class, FpTestClass2.MemberInner.class, FpTestClass2.Inner.class, FpTestClass2.class);
+    return new LibraryFingerprint(classFingerprints.toArray(new ClassFingerprint[classFingerprints.size()]), Arrays.asList(FpTestClass1.class.getName()), Collections.singletonList("does.not.Exist"));
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    final LibraryFingerprint expected = newFingerprint();
+    final File file = File.createTempFile("fingerprint", ".bin");
+    file.deleteOnExit();
+    expected.toFile(file);
+
+    final LibraryFingerprint actual = LibraryFingerprint.fromFile(file.toURI().toURL());
+    assertEquals(expected.getPresents(), actual.getPresents());
+    assertEquals(expected.getAbsents(), actual.getAbsents());
+    assertEquals(expected, actual);
+    assertEquals(expected.toString(), actual.toString());
+    assertNull(actual.isCompatible(ClassLoader.getSystemClassLoader()));
+  }
+
+  @Test
+  public void testSerializedFallback() throws IOException {
+    final LibraryFingerprint expected = newFingerprint();
+    final File file = File.createTempFile("fingerprint", ".ser");
+    file.deleteOnExit();
+    try (final ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
+      out.writeObject(expected);
+    }
+
+    assertEquals(expected, LibraryFingerprint.fromFile(file.toURI().toURL()));
+  }
+
+  @Test
+  public void testMissingClassNotCached() throws IOException {
+    final ClassFingerprint classFingerprint = new FingerprintVerifier().fingerprint(ClassLoader.getSystemClassLoader(), AssembleUtil.classNameToResource(FpTestClass1.class));
+    final LibraryFingerprint fingerprint = new LibraryFingerprint(new ClassFingerprint[] {classFingerprint}, null, null);
+    try (final TestClassLoader classLoader = new TestClassLoader()) {
+      assertNotNull(fingerprint.isCompatible(classLoader));
+
+      // The class loader gains the code source of the missing class
+      classLoader.addURL(FpTestClass1.class.getProtectionDomain().getCodeSource().getLocation());
+      assertNull(fingerprint.isCompatible(classLoader));
+    }
+  }
+
+  private static class TestClassLoader extends URLClassLoader {
+    private TestClassLoader() {
+      super(new URL[0], null);
+    }
+
+    @Override
+    public void addURL(final URL url) {
+      super.addURL(url);
+    }
+  }
+}
@@ -17,6 +17,7 @@ package io.opentracing.contrib.specialagent;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.RandomAccessFile;
 import java.io.Writer;
 import java.net.URL;
@@ -26,7 +27,11 @@ import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Inject;
 
@@ -51,6 +56,7 @@ import org.apache.maven.project.ProjectDependenciesResolver;
 import org.apache.maven.shared.dependency.graph.DependencyNode;
 import org.apache.maven.shared.dependency.graph.internal.DefaultDependencyNode;
 import org.apache.maven.shared.dependency.graph.traversal.DependencyNodeVisitor;
+import org.objectweb.asm.ClassReader;
 
 /**
  * Mojo that fingerprints 3rd-party library bytecode to ensure compatibility of
@@ -254,6 +260,94 @@ public final class FingerprintMojo extends TreeMojo {
     }
   }
 
+  private void createInjectionMf() throws IOException {
+    getLog().info("--> " + UtilConstants.INJECTION_FILE + " <--");
+    final File destFile = new File(getProject().getBuild().getOutputDirectory(), UtilConstants.INJECTION_FILE);
+    final URL[] ruleDeps = getDependencyPaths(localRepository, "compile", true, getProject().getArtifacts().iterator(), 1);
+    ruleDeps[0] = AssembleUtil.toURL(new File(getProject().getBuild().getOutputDirectory()));
+    final InjectionPlan injectionPlan = plan(ruleDeps);
+    injectionPlan.toFile(destFile);
+    if (debug)
+      getLog().warn(injectionPlan.toString());
+  }
+
+  /**
+   * Returns the {@link InjectionPlan} for the specified Integration Rule
+   * dependencies. The classes of the Integration Rule itself (at index 0) are
+   * to be preloaded, ordered such that each class is listed after its
+   * superclass and interfaces. The classes of the other dependencies are to be
+   * loaded on demand.
+   *
+   * @param ruleDeps The Integration Rule dependencies, with the compile path of
+   *          the Integration Rule itself at index 0.
+   * @return The {@link InjectionPlan} for the specified Integration Rule
+   *         dependencies.
+   * @throws IOException If an I/O error has occurred.
+   */
+  static InjectionPlan plan(final URL[] ruleDeps) throws IOException {
+    final LinkedHashMap<String,String[]> classNameToSupers = new LinkedHashMap<>();
+    try (final URLClassLoader classLoader = new URLClassLoader(new URL[] {ruleDeps[0]}, null)) {
+      AssembleUtil.<Void>forEachClass(new URL[] {ruleDeps[0]}, null, new BiConsumer<String,Void>() {
+        @Override
+        public void accept(final String path, final Void arg) {
+          try (final InputStream in = classLoader.getResourceAsStream(path)) {
+            final ClassReader classReader = new ClassReader(in);
+            final String[] interfaces = classReader.getInterfaces();
+            final String[] supers = new String[interfaces.length + 1];
+            supers[0] = classReader.getSuperName();
+            for (int i = 0; i < interfaces.length; ++i)
+              supers[i + 1] = interfaces[i];
+
+            for (int i = 0; i < supers.length; ++i)
+              if (supers[i] != null)
+                supers[i] = supers[i].replace('/', '.');
+
+            classNameToSupers.put(AssembleUtil.resourceToClassName(path), supers);
+          }
+          catch (final IOException e) {
+            throw new IllegalStateException(e);
+          }
+        }
+      });
+    }
+
+    final LinkedHashSet<String> eager = new LinkedHashSet<>();
+    for (final String className : classNameToSupers.keySet())
+      addInDependencyOrder(className, classNameToSupers, eager);
+
+    final ArrayList<URL> lazyUrls = new ArrayList<>();
+    for (int i = 1; i < ruleDeps.length; ++i)
+      if (ruleDeps[i] != null)
+        lazyUrls.add(ruleDeps[i]);
+
+    final ArrayList<String> lazy = new ArrayList<>();
+    AssembleUtil.<Void>forEachClass(lazyUrls.toArray(new URL[lazyUrls.size()]), null, new BiConsumer<String,Void>() {
+      @Override
+      public void accept(final String path, final Void arg) {
+        final String className = AssembleUtil.resourceToClassName(path);
+        if (!eager.contains(className))
+          lazy.add(className);
+      }
+    });
+
+    return new InjectionPlan(new ArrayList<>(eager), lazy);
+  }
+
+  private static void addInDependencyOrder(final String className, final Map<String,String[]> classNameToSupers, final Set<String> ordered) {
+    if (ordered.contains(className))
+      return;
+
+    final String[] supers = classNameToSupers.get(className);
+    if (supers == null)
+      return;
+
+    for (final String superName : supers)
+      if (superName != null)
+        addInDependencyOrder(superName, classNameToSupers, ordered);
+
+    ordered.add(className);
+  }
+
   private void createPluginName() throws IOException, MojoExecutionException {
     final String pluginName = "sa.rule.name." + name;
     getLog().info("--> " + pluginName + " <--");
@@ -304,6 +398,7 @@ public final class FingerprintMojo extends TreeMojo {
 
       createDependenciesTgf();
       createFingerprintBin();
+      createInjectionMf();
       createLocalRepoFile();
       createPluginName();
     }
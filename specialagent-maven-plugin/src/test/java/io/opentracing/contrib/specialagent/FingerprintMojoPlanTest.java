@@ -0,0 +1,85 @@
+/* Copyright 2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentracing.contrib.specialagent;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link FingerprintMojo#plan(URL[])}.
+ *
+ * @author Seva Safris
+ */
+public class FingerprintMojoPlanTest {
+  public interface PlanI {
+  }
+
+  public static class PlanA implements PlanI {
+  }
+
+  public static class PlanB extends PlanA {
+  }
+
+  public static class PlanC {
+  }
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private static void copyClass(final Class<?> cls, final File dir) throws IOException {
+    final String resource = AssembleUtil.classNameToResource(cls);
+    final File file = new File(dir, resource);
+    file.getParentFile().mkdirs();
+    try (final InputStream in = cls.getClassLoader().getResourceAsStream(resource)) {
+      Files.write(file.toPath(), AssembleUtil.readBytes(in));
+    }
+  }
+
+  @Test
+  public void testPlan() throws IOException {
+    final File ruleDir = folder.newFolder("rule");
+    copyClass(PlanB.class, ruleDir);
+    copyClass(PlanA.class, ruleDir);
+    copyClass(PlanI.class, ruleDir);
+
+    final File depDir = folder.newFolder("dep");
+    copyClass(PlanC.class, depDir);
+    copyClass(PlanA.class, depDir);
+
+    final InjectionPlan plan = FingerprintMojo.plan(new URL[] {ruleDir.toURI().toURL(), depDir.toURI().toURL(), null});
+
+    // Each eager class is listed after its superclass and interfaces
+    final List<String> eager = plan.getEager();
+    assertEquals(3, eager.size());
+    assertTrue(eager.indexOf(PlanI.class.getName()) < eager.indexOf(PlanA.class.getName()));
+    assertTrue(eager.indexOf(PlanA.class.getName()) < eager.indexOf(PlanB.class.getName()));
+    assertTrue(eager.indexOf(PlanI.class.getName()) >= 0);
+
+    // Classes of other dependencies are lazy, unless they are eager
+    assertEquals(1, plan.getLazy().size());
+    assertEquals(PlanC.class.getName(), plan.getLazy().get(0));
+  }
+}